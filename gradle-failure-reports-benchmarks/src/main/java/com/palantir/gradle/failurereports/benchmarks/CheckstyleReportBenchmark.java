@@ -0,0 +1,92 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.benchmarks;
+
+import com.palantir.gradle.failurereports.CheckstyleFailureReporter;
+import com.palantir.gradle.failurereports.common.FailureReport;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads the failures out of a large checkstyle report of a project with few violations, where most of the report is
+ * made of files without errors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckstyleReportBenchmark {
+
+    // ~12MB of report
+    private static final int FILES = 100_000;
+    private static final int FILES_PER_VIOLATION = 5_000;
+    private static final Path ROOT_DIR = Path.of("/build");
+
+    private Path checkstyleReportXml;
+
+    @Setup
+    public void setup() throws IOException {
+        checkstyleReportXml = Files.createTempFile("checkstyle", ".xml");
+        try (BufferedWriter writer = Files.newBufferedWriter(checkstyleReportXml, StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<checkstyle version=\"10.12.1\">\n");
+            for (int file = 0; file < FILES; file++) {
+                writer.write(String.format(
+                        "<file name=\"/build/project%d/src/main/java/com/palantir/example/generated/Class%d.java\">\n",
+                        file % 100, file));
+                if (file % FILES_PER_VIOLATION == 0) {
+                    writer.write("<error line=\"12\" column=\"5\" severity=\"error\" message=\"Avoid using"
+                            + " &apos;System.out&apos;, use a logger instead.\" source=\"RegexpSinglelineJava\"/>\n");
+                }
+                writer.write("</file>\n");
+            }
+            writer.write("</checkstyle>\n");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(checkstyleReportXml);
+    }
+
+    @Benchmark
+    public List<FailureReport> collectFailureReports() {
+        try (Stream<FailureReport> failureReports =
+                CheckstyleFailureReporter.collect(ROOT_DIR, ":checkstyleMain", checkstyleReportXml.toFile())) {
+            return failureReports.collect(Collectors.toList());
+        }
+    }
+}
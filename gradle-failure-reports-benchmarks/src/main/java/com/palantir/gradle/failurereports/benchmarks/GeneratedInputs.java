@@ -0,0 +1,39 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+
+/**
+ * Helpers shared by the benchmarks to generate their inputs.
+ */
+final class GeneratedInputs {
+
+    /**
+     * Splits the text in chunks of chunkLength characters, cutting through the lines like a stream does.
+     */
+    static List<String> split(CharSequence text, int chunkLength) {
+        ImmutableList.Builder<String> chunks = ImmutableList.builder();
+        for (int start = 0; start < text.length(); start += chunkLength) {
+            chunks.add(text.subSequence(start, Math.min(text.length(), start + chunkLength)).toString());
+        }
+        return chunks.build();
+    }
+
+    private GeneratedInputs() {}
+}
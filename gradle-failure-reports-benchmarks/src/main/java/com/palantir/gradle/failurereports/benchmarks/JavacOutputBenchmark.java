@@ -0,0 +1,127 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.benchmarks;
+
+import com.palantir.gradle.failurereports.compile.CompileError;
+import com.palantir.gradle.failurereports.compile.CompileErrorsAccumulator;
+import com.palantir.gradle.failurereports.compile.CompileErrorsBudget;
+import com.palantir.gradle.failurereports.compile.SourceRootsIndex;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses the stderr of parallel compile tasks, which every compile task sees in full, as the output of a single task
+ * that only keeps its own errors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JavacOutputBenchmark {
+
+    private static final int TASKS = 8;
+    private static final int ERRORS_PER_TASK = 500;
+    // roughly the size of the chunks the stderr listeners receive
+    private static final int CHUNK_LENGTH = 256;
+
+    private final SourceRootsIndex sourceRootsIndex = new SourceRootsIndex();
+    private List<String> chunks;
+    private Path spillFile;
+
+    @Setup
+    public void setup() throws IOException {
+        for (int task = 0; task < TASKS; task++) {
+            sourceRootsIndex.register(getTaskPath(task), List.of(new File(getSourceRoot(task))));
+        }
+        StringBuilder output = new StringBuilder();
+        for (int error = 0; error < ERRORS_PER_TASK; error++) {
+            for (int task = 0; task < TASKS; task++) {
+                appendCompileError(output, task, error);
+            }
+        }
+        output.append(TASKS * ERRORS_PER_TASK).append(" errors\n");
+        chunks = GeneratedInputs.split(output, CHUNK_LENGTH);
+        spillFile = Files.createTempFile("compile-errors", ".spill");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(spillFile);
+    }
+
+    @Benchmark
+    public List<CompileError> parseInterleavedOutput() throws IOException {
+        try (CompileErrorsBudget compileErrorsBudget =
+                new CompileErrorsBudget(500, 1024 * 1024, 10_000, 16L * 1024 * 1024, spillFile)) {
+            CompileErrorsAccumulator accumulator =
+                    new CompileErrorsAccumulator(getTaskPath(0), sourceRootsIndex, compileErrorsBudget);
+            for (String chunk : chunks) {
+                accumulator.onOutput(chunk);
+            }
+            return accumulator.finish();
+        }
+    }
+
+    private static void appendCompileError(StringBuilder output, int task, int error) {
+        output.append(getSourceRoot(task))
+                .append("/com/palantir/example/Class")
+                .append(error)
+                .append(".java:")
+                .append(error % 300 + 1)
+                .append(": error: cannot find symbol\n")
+                .append("        Dependency")
+                .append(error)
+                .append(" dependency = new Dependency")
+                .append(error)
+                .append("();\n")
+                .append("        ^\n")
+                .append("  symbol:   class Dependency")
+                .append(error)
+                .append('\n')
+                .append("  location: class Class")
+                .append(error)
+                .append('\n');
+        if (error % 50 == 0) {
+            output.append("Note: Some input files use unchecked or unsafe operations.\n");
+        }
+    }
+
+    private static String getTaskPath(int task) {
+        return String.format(":project%d:compileJava", task);
+    }
+
+    private static String getSourceRoot(int task) {
+        return String.format("/build/project%d/src/main/java", task);
+    }
+}
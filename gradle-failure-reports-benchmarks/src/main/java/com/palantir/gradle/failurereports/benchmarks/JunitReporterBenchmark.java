@@ -0,0 +1,102 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.gradle.failurereports.common.FailureReport;
+import com.palantir.gradle.failurereports.junit.JunitReportSharding;
+import com.palantir.gradle.failurereports.junit.JunitReporter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writes the JUnit report of a build with many failures, e.g. the compile errors of a broken shared API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JunitReporterBenchmark {
+
+    private static final int TEST_CASES = 10_000;
+    private static final int TEST_CASES_PER_SUITE = 10;
+    private static final JunitReportSharding SHARDING =
+            JunitReportSharding.builder().maxTestCasesPerShard(1_000).build();
+
+    private List<FailureReport> failureReports;
+    private Path reportsDir;
+
+    @Setup
+    public void setup() throws IOException {
+        ImmutableList.Builder<FailureReport> failureReportsBuilder = ImmutableList.builder();
+        for (int testCase = 0; testCase < TEST_CASES; testCase++) {
+            String taskPath = String.format(":project%d:compileJava", testCase % 100);
+            failureReportsBuilder.add(FailureReport.builder()
+                    .header(String.format("[%s] error: cannot find symbol Dependency%d", taskPath, testCase))
+                    .clickableSource(String.format(
+                            "project%d/src/main/java/Class%d.java:12",
+                            testCase % 100, testCase / TEST_CASES_PER_SUITE))
+                    .errorMessage(String.format(
+                            "Class%1$d.java:12: error: cannot find symbol\n"
+                                    + "        Dependency%1$d dependency = new Dependency%1$d();\n"
+                                    + "        ^\n  symbol:   class Dependency%1$d\n",
+                            testCase))
+                    .taskPath(taskPath)
+                    .build());
+        }
+        failureReports = failureReportsBuilder.build();
+        reportsDir = Files.createTempDirectory("junit-reports");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(reportsDir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public void writeReport() throws IOException {
+        JunitReporter.reportFailures(
+                reportsDir.resolve("build-TEST.xml").toFile(), failureReports, false, JunitReportSharding.none());
+    }
+
+    @Benchmark
+    public void writeShardedReport() throws IOException {
+        JunitReporter.reportFailures(
+                reportsDir.resolve("build-sharded-TEST.xml").toFile(), failureReports, false, SHARDING);
+    }
+}
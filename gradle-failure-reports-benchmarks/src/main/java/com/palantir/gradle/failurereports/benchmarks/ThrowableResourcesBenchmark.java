@@ -0,0 +1,78 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.benchmarks;
+
+import com.palantir.gradle.failurereports.common.StackTraceFormatter;
+import com.palantir.gradle.failurereports.common.ThrowableResources;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Formats the report of a deep causal chain, where every cause was thrown deep in the call stack, like the failures
+ * wrapped by every layer of the Gradle task execution.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThrowableResourcesBenchmark {
+
+    private static final int CAUSES = 30;
+    private static final int FRAMES_PER_CAUSE = 100;
+    private static final StackTraceFormatter FULL_STACK_TRACE_FORMATTER =
+            new StackTraceFormatter(List.of(), Integer.MAX_VALUE);
+
+    private Throwable throwable;
+
+    @Setup
+    public void setup() {
+        Throwable cause = null;
+        for (int depth = 0; depth < CAUSES; depth++) {
+            cause = throwAt(FRAMES_PER_CAUSE + depth, depth, cause);
+        }
+        throwable = cause;
+    }
+
+    @Benchmark
+    public String formatThrowableWithMessage() {
+        return ThrowableResources.formatThrowableWithMessage(throwable);
+    }
+
+    @Benchmark
+    public String formatThrowableWithFullStackTrace() {
+        return ThrowableResources.formatThrowableWithMessage(throwable, FULL_STACK_TRACE_FORMATTER);
+    }
+
+    private static Throwable throwAt(int frames, int depth, Throwable cause) {
+        if (frames > 0) {
+            return throwAt(frames - 1, depth, cause);
+        }
+        return new IllegalStateException(String.format("Failure at depth %d", depth), cause);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.benchmarks.overhead;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.gradle.testkit.runner.GradleRunner;
+
+/**
+ * Measures what {@code com.palantir.failure-reports} costs on a generated multi-project build, by running the same
+ * scenarios with and without the plugin through TestKit:
+ * <ul>
+ *     <li>configuration: the time to configure every project, running {@code help}.</li>
+ *     <li>compile: the time to rerun every {@code JavaCompile} task, from which the overhead per compile task
+ *     is derived.</li>
+ *     <li>reporting: with the injected compile and checkstyle failures, the latency between the last task of the
+ *     build finishing and the build returning, which is when the failures are reported.</li>
+ * </ul>
+ * The samples and their medians are written to a json file, so the numbers can be tracked over the releases.
+ *
+ * <p>Configured through system properties, see {@code ./gradlew :gradle-failure-reports-benchmarks:pluginOverhead}.
+ */
+public final class PluginOverheadHarness {
+
+    private static final String PROPERTY_PREFIX = "failureReports.overhead.";
+
+    private final SyntheticBuild syntheticBuild;
+    private final Path projectDir;
+    private final List<File> pluginClasspath;
+    private final String gradleVersion;
+    private final int warmups;
+    private final int iterations;
+
+    PluginOverheadHarness(
+            SyntheticBuild syntheticBuild,
+            Path projectDir,
+            List<File> pluginClasspath,
+            String gradleVersion,
+            int warmups,
+            int iterations) {
+        this.syntheticBuild = syntheticBuild;
+        this.projectDir = projectDir;
+        this.pluginClasspath = pluginClasspath;
+        this.gradleVersion = gradleVersion;
+        this.warmups = warmups;
+        this.iterations = iterations;
+    }
+
+    public static void main(String[] _args) throws IOException {
+        SyntheticBuild syntheticBuild = new SyntheticBuild(
+                intProperty("projects", 50),
+                intProperty("sourceFilesPerProject", 20),
+                intProperty("compileFailures", 5),
+                intProperty("checkstyleFailures", 5));
+        Path projectDir = Files.createTempDirectory("failure-reports-overhead");
+        try {
+            PluginOverheadHarness harness = new PluginOverheadHarness(
+                    syntheticBuild,
+                    projectDir,
+                    Arrays.stream(requiredProperty("pluginClasspath").split(File.pathSeparator))
+                            .map(File::new)
+                            .collect(Collectors.toList()),
+                    requiredProperty("gradleVersion"),
+                    intProperty("warmups", 2),
+                    intProperty("iterations", 5));
+            Path resultsFile = Path.of(requiredProperty("resultsFile"));
+            Files.createDirectories(resultsFile.getParent());
+            new ObjectMapper()
+                    .enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(resultsFile.toFile(), harness.run());
+        } finally {
+            MoreFiles.deleteRecursively(projectDir, RecursiveDeleteOption.ALLOW_INSECURE);
+        }
+    }
+
+    ObjectNode run() throws IOException {
+        syntheticBuild.writeTo(projectDir);
+        ObjectNode results = new ObjectMapper().createObjectNode();
+        results.put("gradleVersion", gradleVersion)
+                .put("projects", syntheticBuild.projects())
+                .put("sourceFilesPerProject", syntheticBuild.sourceFilesPerProject())
+                .put("compileFailures", syntheticBuild.compileFailures())
+                .put("checkstyleFailures", syntheticBuild.checkstyleFailures())
+                .put("warmups", warmups)
+                .put("iterations", iterations);
+
+        ObjectNode configuration = results.putObject("configuration");
+        long configurationOverhead = measureBothWays(configuration, this::measureBuildDuration, "help");
+
+        ObjectNode compile = results.putObject("compile");
+        long compileOverhead = measureBothWays(compile, this::measureBuildDuration, "compileJava", "--rerun-tasks");
+        // the configuration overhead is also part of the compile builds
+        compile.put(
+                "overheadPerJavaCompileMillis",
+                (double) (compileOverhead - configurationOverhead) / syntheticBuild.projects());
+
+        if (syntheticBuild.hasFailures()) {
+            measureBothWays(
+                    results.putObject("reporting"),
+                    this::measureEndOfBuildLatency,
+                    "checkstyleMain",
+                    "--continue",
+                    "-P" + SyntheticBuild.INJECT_FAILURES_PROPERTY);
+        }
+        return results;
+    }
+
+    /**
+     * Records the samples of the scenario with and without the plugin, and returns the difference of their medians.
+     */
+    private long measureBothWays(ObjectNode scenario, Measurement measurement, String... arguments)
+            throws IOException {
+        scenario.putPOJO("arguments", arguments);
+        long withoutPlugin = measure(scenario.putObject("withoutPlugin"), measurement, ImmutableList.copyOf(arguments));
+        long withPlugin = measure(
+                scenario.putObject("withPlugin"),
+                measurement,
+                ImmutableList.<String>builder()
+                        .add(arguments)
+                        .add("-P" + SyntheticBuild.APPLY_PLUGIN_PROPERTY)
+                        .build());
+        long overhead = withPlugin - withoutPlugin;
+        scenario.put("overheadMillis", overhead);
+        return overhead;
+    }
+
+    private long measure(ObjectNode result, Measurement measurement, List<String> arguments) throws IOException {
+        for (int warmup = 0; warmup < warmups; warmup++) {
+            measurement.measureMillis(arguments);
+        }
+        List<Long> samples = new ArrayList<>(iterations);
+        ArrayNode samplesNode = result.putArray("samplesMillis");
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            long sample = measurement.measureMillis(arguments);
+            samples.add(sample);
+            samplesNode.add(sample);
+        }
+        samples.sort(Long::compare);
+        long median = samples.get(samples.size() / 2);
+        result.put("medianMillis", median)
+                .put("minMillis", samples.get(0))
+                .put("maxMillis", samples.get(samples.size() - 1));
+        return median;
+    }
+
+    private long measureBuildDuration(List<String> arguments) {
+        long start = System.nanoTime();
+        runner(arguments).build();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private long measureEndOfBuildLatency(List<String> arguments) throws IOException {
+        runner(arguments).buildAndFail();
+        long buildReturned = System.currentTimeMillis();
+        String lastTaskFinished = Files.readString(
+                        projectDir.resolve(SyntheticBuild.LAST_TASK_FINISHED_FILE), StandardCharsets.UTF_8)
+                .trim();
+        return buildReturned - Long.parseLong(lastTaskFinished);
+    }
+
+    private GradleRunner runner(List<String> arguments) {
+        // the same daemon is reused by every build, the warmups absorbing its startup
+        return GradleRunner.create()
+                .withProjectDir(projectDir.toFile())
+                .withGradleVersion(gradleVersion)
+                .withPluginClasspath(pluginClasspath)
+                .withArguments(arguments);
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.getInteger(PROPERTY_PREFIX + name, defaultValue);
+    }
+
+    private static String requiredProperty(String name) {
+        String value = System.getProperty(PROPERTY_PREFIX + name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing system property " + PROPERTY_PREFIX + name);
+        }
+        return value;
+    }
+
+    private interface Measurement {
+        long measureMillis(List<String> arguments) throws IOException;
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.benchmarks.overhead;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generates a multi-project Java build with the given number of projects and source files per project.
+ *
+ * <p>The same build is used with and without the plugin, and with and without failures, so that the scenarios only
+ * differ in their gradle properties:
+ * <ul>
+ *     <li>{@value #APPLY_PLUGIN_PROPERTY} applies {@code com.palantir.failure-reports} to the root project.</li>
+ *     <li>{@value #INJECT_FAILURES_PROPERTY} adds the injected sources: a compile error to the first
+ *     compileFailures projects, and a checkstyle violation to the following checkstyleFailures projects.</li>
+ * </ul>
+ * The root project also records in {@value #LAST_TASK_FINISHED_FILE} when the last task of the build finished, which
+ * is used to measure how long the build takes to complete after its tasks are done.
+ */
+final class SyntheticBuild {
+
+    static final String APPLY_PLUGIN_PROPERTY = "applyFailureReports";
+    static final String INJECT_FAILURES_PROPERTY = "injectFailures";
+    static final String LAST_TASK_FINISHED_FILE = "build/last-task-finished";
+
+    private static final String PROJECT_BUILD_FILE = String.join(
+            "\n",
+            "apply plugin: 'java'",
+            "apply plugin: 'checkstyle'",
+            "",
+            "repositories {",
+            "    mavenCentral()",
+            "}",
+            "",
+            "checkstyle {",
+            "    configFile = rootProject.file('config/checkstyle/checkstyle.xml')",
+            "}",
+            "",
+            "if (providers.gradleProperty('" + INJECT_FAILURES_PROPERTY + "').isPresent()) {",
+            "    sourceSets.main.java.srcDir('src/injected/java')",
+            "}",
+            "");
+
+    private static final String CHECKSTYLE_CONFIG = String.join(
+            "\n",
+            "<?xml version=\"1.0\"?>",
+            "<!DOCTYPE module PUBLIC \"-//Checkstyle//DTD Checkstyle Configuration 1.3//EN\"",
+            "        \"https://checkstyle.org/dtds/configuration_1_3.dtd\">",
+            "<module name=\"Checker\">",
+            "    <property name=\"severity\" value=\"error\"/>",
+            "    <module name=\"TreeWalker\">",
+            "        <module name=\"ConstantName\"/>",
+            "    </module>",
+            "</module>",
+            "");
+
+    private static final String SOURCE_FILE = String.join(
+            "\n",
+            "package %1$s;",
+            "",
+            "import java.util.ArrayList;",
+            "import java.util.List;",
+            "",
+            "public final class Class%2$d {",
+            "    private static final int LIMIT = %2$d;",
+            "",
+            "    public static List<String> values(String prefix) {",
+            "        List<String> values = new ArrayList<>();",
+            "        for (int i = 0; i < LIMIT; i++) {",
+            "            values.add(prefix + i);",
+            "        }",
+            "        return values;",
+            "    }",
+            "",
+            "    private Class%2$d() {}",
+            "}",
+            "");
+
+    private static final String COMPILE_FAILURE = String.join(
+            "\n",
+            "package %s;",
+            "",
+            "public final class CompileFailure {",
+            "    public static int value() {",
+            "        return missingSymbol;",
+            "    }",
+            "",
+            "    private CompileFailure() {}",
+            "}",
+            "");
+
+    private static final String CHECKSTYLE_FAILURE = String.join(
+            "\n",
+            "package %s;",
+            "",
+            "public final class CheckstyleFailure {",
+            "    public static final int notAConstantName = 1;",
+            "",
+            "    private CheckstyleFailure() {}",
+            "}",
+            "");
+
+    private final int projects;
+    private final int sourceFilesPerProject;
+    private final int compileFailures;
+    private final int checkstyleFailures;
+
+    SyntheticBuild(int projects, int sourceFilesPerProject, int compileFailures, int checkstyleFailures) {
+        if (compileFailures + checkstyleFailures > projects) {
+            throw new IllegalArgumentException(String.format(
+                    "Cannot inject %d compile failures and %d checkstyle failures in %d projects",
+                    compileFailures, checkstyleFailures, projects));
+        }
+        this.projects = projects;
+        this.sourceFilesPerProject = sourceFilesPerProject;
+        this.compileFailures = compileFailures;
+        this.checkstyleFailures = checkstyleFailures;
+    }
+
+    int projects() {
+        return projects;
+    }
+
+    int sourceFilesPerProject() {
+        return sourceFilesPerProject;
+    }
+
+    int compileFailures() {
+        return compileFailures;
+    }
+
+    int checkstyleFailures() {
+        return checkstyleFailures;
+    }
+
+    boolean hasFailures() {
+        return compileFailures + checkstyleFailures > 0;
+    }
+
+    void writeTo(Path rootDir) throws IOException {
+        StringBuilder settings = new StringBuilder("rootProject.name = 'synthetic'\n");
+        for (int project = 0; project < projects; project++) {
+            settings.append(String.format("include 'project%d'\n", project));
+        }
+        write(rootDir.resolve("settings.gradle"), settings.toString());
+        write(rootDir.resolve("build.gradle"), rootBuildFile());
+        // the plugin only reports the failures on CI
+        write(
+                rootDir.resolve("gradle.properties"),
+                "org.gradle.jvmargs=-Xmx2g\n__TESTING=true\n__TESTING_CI=true\n__TESTING_CIRCLE_NODE_INDEX=0\n");
+        write(rootDir.resolve("config/checkstyle/checkstyle.xml"), CHECKSTYLE_CONFIG);
+        for (int project = 0; project < projects; project++) {
+            writeProject(rootDir.resolve("project" + project), project);
+        }
+    }
+
+    private void writeProject(Path projectDir, int project) throws IOException {
+        write(projectDir.resolve("build.gradle"), PROJECT_BUILD_FILE);
+        String packageName = "com.palantir.synthetic.project" + project;
+        Path packageDir = Path.of(packageName.replace('.', '/'));
+        for (int sourceFile = 0; sourceFile < sourceFilesPerProject; sourceFile++) {
+            write(
+                    projectDir.resolve("src/main/java").resolve(packageDir).resolve("Class" + sourceFile + ".java"),
+                    String.format(SOURCE_FILE, packageName, sourceFile));
+        }
+        Path injectedDir = projectDir.resolve("src/injected/java").resolve(packageDir);
+        if (project < compileFailures) {
+            write(injectedDir.resolve("CompileFailure.java"), String.format(COMPILE_FAILURE, packageName));
+        } else if (project < compileFailures + checkstyleFailures) {
+            write(injectedDir.resolve("CheckstyleFailure.java"), String.format(CHECKSTYLE_FAILURE, packageName));
+        }
+    }
+
+    private static String rootBuildFile() {
+        return String.join(
+                "\n",
+                "plugins {",
+                "    id 'com.palantir.failure-reports' apply false",
+                "}",
+                "",
+                "if (providers.gradleProperty('" + APPLY_PLUGIN_PROPERTY + "').isPresent()) {",
+                "    apply plugin: 'com.palantir.failure-reports'",
+                "    failureReports {",
+                "        failureReportOutputFile = file('build/failure-reports/build-TEST.xml')",
+                "    }",
+                "}",
+                "",
+                "// the harness compares this to the time the build returned to measure the end of build latency",
+                "def lastTaskFinished = file('" + LAST_TASK_FINISHED_FILE + "')",
+                "gradle.taskGraph.afterTask {",
+                "    lastTaskFinished.parentFile.mkdirs()",
+                "    lastTaskFinished.text = String.valueOf(System.currentTimeMillis())",
+                "}",
+                "");
+    }
+
+    private static void write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.common;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Runs the {@link Appendable} based formatting of the reports on a {@link StringBuilder}, for the callers that need
+ * the formatted {@link String}.
+ */
+final class Appendables {
+
+    interface AppendAction {
+        void appendTo(Appendable output) throws IOException;
+    }
+
+    static String format(AppendAction appendAction) {
+        return format(appendAction, Integer.MAX_VALUE);
+    }
+
+    static String format(AppendAction appendAction, int maxLength) {
+        StringBuilder output = new StringBuilder();
+        try {
+            appendAction.appendTo(maxLength == Integer.MAX_VALUE ? output : new BoundedAppendable(output, maxLength));
+        } catch (IOException e) {
+            throw new UncheckedIOException("A StringBuilder does not throw", e);
+        }
+        return output.toString();
+    }
+
+    private Appendables() {}
+}
@@ -0,0 +1,89 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.common;
+
+import java.io.IOException;
+
+/**
+ * An {@link Appendable} writing at most maxLength characters to its delegate. The characters over the limit are
+ * dropped while writing, and replaced by a single {@link #TRUNCATED_MARKER}.
+ */
+public final class BoundedAppendable implements Appendable {
+
+    public static final String TRUNCATED_MARKER = "...[truncated]";
+
+    private final Appendable delegate;
+    private final int maxLength;
+    private int length;
+    private boolean truncated;
+
+    public BoundedAppendable(Appendable delegate, int maxLength) {
+        this.delegate = delegate;
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public BoundedAppendable append(CharSequence charSequence) throws IOException {
+        CharSequence nonNullCharSequence = charSequence == null ? "null" : charSequence;
+        return append(nonNullCharSequence, 0, nonNullCharSequence.length());
+    }
+
+    @Override
+    public BoundedAppendable append(CharSequence charSequence, int start, int end) throws IOException {
+        CharSequence nonNullCharSequence = charSequence == null ? "null" : charSequence;
+        if (truncated) {
+            return this;
+        }
+        int remaining = maxLength - length;
+        if (end - start <= remaining) {
+            delegate.append(nonNullCharSequence, start, end);
+            length += end - start;
+            return this;
+        }
+        int truncatedEnd = start + remaining;
+        if (remaining > 0 && Character.isHighSurrogate(nonNullCharSequence.charAt(truncatedEnd - 1))) {
+            // not splitting a surrogate pair
+            truncatedEnd--;
+        }
+        delegate.append(nonNullCharSequence, start, truncatedEnd).append(TRUNCATED_MARKER);
+        length = maxLength;
+        truncated = true;
+        return this;
+    }
+
+    @Override
+    public BoundedAppendable append(char character) throws IOException {
+        if (truncated) {
+            return this;
+        }
+        if (length < maxLength) {
+            delegate.append(character);
+            length++;
+            return this;
+        }
+        delegate.append(TRUNCATED_MARKER);
+        truncated = true;
+        return this;
+    }
+
+    /**
+     * Whether some characters were dropped.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
@@ -18,6 +18,7 @@ package com.palantir.gradle.failurereports.common;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.util.Optional;
 import org.immutables.value.Value;
 
 @ImmutablesStyle
@@ -32,6 +33,11 @@ public interface FailureReport {
 
     String errorMessage();
 
+    /**
+     * The path of the task that failed, if the failure is tied to a task.
+     */
+    Optional<String> taskPath();
+
     static FailureReport.Builder builder() {
         return new FailureReport.Builder();
     }
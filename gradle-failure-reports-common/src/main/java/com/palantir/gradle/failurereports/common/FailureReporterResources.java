@@ -17,7 +17,7 @@
 package com.palantir.gradle.failurereports.common;
 
 import com.google.common.base.Throwables;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Locale;
 import java.util.Optional;
@@ -63,43 +63,97 @@ public final class FailureReporterResources {
     }
 
     public static String getTaskErrorHeader(String taskPath, String errorDescription, String severity) {
-        return String.format(
-                "[%s] %s: %s", taskPath, severity.toLowerCase(Locale.ROOT), getTruncatedErrorMessage(errorDescription));
+        return Appendables.format(output -> appendTaskErrorHeader(output, taskPath, errorDescription, severity));
+    }
+
+    /**
+     * Appends the header returned by {@link #getTaskErrorHeader(String, String, String)} to the output, without
+     * copying the errorDescription.
+     */
+    public static void appendTaskErrorHeader(
+            Appendable output, String taskPath, String errorDescription, String severity) throws IOException {
+        output.append('[')
+                .append(taskPath)
+                .append("] ")
+                .append(severity.toLowerCase(Locale.ROOT))
+                .append(": ");
+        appendTruncatedErrorMessage(output, errorDescription);
     }
 
     public static String sourceFileWithErrorMessage(String sourceFile, Integer lineNumber, String errorMessage) {
-        return String.format("%s:%d: %s", sourceFile, lineNumber, errorMessage);
+        return Appendables.format(
+                output -> appendSourceFileWithErrorMessage(output, sourceFile, lineNumber, errorMessage));
     }
 
     public static String sourceFileWithErrorMessage(
             String sourceFile, Integer lineNumber, String errorMessage, String severity) {
-        return String.format("%s:%d: %s: %s", sourceFile, lineNumber, severity, errorMessage);
+        return Appendables.format(
+                output -> appendSourceFileWithErrorMessage(output, sourceFile, lineNumber, errorMessage, severity));
+    }
+
+    public static void appendSourceFileWithErrorMessage(
+            Appendable output, String sourceFile, Integer lineNumber, String errorMessage) throws IOException {
+        output.append(sourceFile)
+                .append(':')
+                .append(String.valueOf(lineNumber))
+                .append(": ")
+                .append(errorMessage);
     }
 
-    private static String getTruncatedErrorMessage(String errorMessage) {
+    public static void appendSourceFileWithErrorMessage(
+            Appendable output, String sourceFile, Integer lineNumber, String errorMessage, String severity)
+            throws IOException {
+        output.append(sourceFile)
+                .append(':')
+                .append(String.valueOf(lineNumber))
+                .append(": ")
+                .append(severity)
+                .append(": ")
+                .append(errorMessage);
+    }
+
+    private static void appendTruncatedErrorMessage(Appendable output, String errorMessage) throws IOException {
         if (errorMessage.length() > MAX_TITLE_ERROR_LENGTH) {
             // trying not to truncate in the middle of a word
             int truncatedAtIndex = errorMessage.indexOf(EMPTY_SPACE, MAX_TITLE_ERROR_LENGTH);
             int endIndex = truncatedAtIndex < 0 ? MAX_TITLE_ERROR_LENGTH : truncatedAtIndex;
-            return errorMessage.substring(0, endIndex) + "...";
+            output.append(errorMessage, 0, endIndex).append("...");
+            return;
         }
-        return errorMessage;
+        output.append(errorMessage);
     }
 
     /**
-     * Keeps the last @param bytesSize of the fullString.
+     * Keeps the last @param bytesSize of the fullString, without cutting a character in half.
      * @param fullString the string that should be truncated if it exceeds the bytesSize.
      * @param bytesSize the size in bytes of the fullString that needs to be preserved.
      * @return the truncated string prefixed by `...[truncated]` if it exceeds bytesSize, otherwise the fullString
      */
     public static String keepLastBytesSizeOutput(String fullString, int bytesSize) {
-        byte[] bytes = fullString.getBytes(StandardCharsets.UTF_8);
-        if (bytes.length > bytesSize) {
-            int startIndex = bytes.length - bytesSize;
-            return "...[truncated]" + new String(bytes, startIndex, bytesSize, StandardCharsets.UTF_8);
+        // counting the UTF-8 bytes from the end instead of encoding the whole string
+        long tailBytes = 0;
+        int startIndex = fullString.length();
+        while (startIndex > 0) {
+            int codePoint = fullString.codePointBefore(startIndex);
+            tailBytes += getUtf8Length(codePoint);
+            if (tailBytes > bytesSize) {
+                return BoundedAppendable.TRUNCATED_MARKER + fullString.substring(startIndex);
+            }
+            startIndex -= Character.charCount(codePoint);
         }
         return fullString;
     }
 
+    private static int getUtf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        } else if (codePoint < 0x800) {
+            return 2;
+        } else if (codePoint < 0x10000) {
+            return 3;
+        }
+        return 4;
+    }
+
     private FailureReporterResources() {}
 }
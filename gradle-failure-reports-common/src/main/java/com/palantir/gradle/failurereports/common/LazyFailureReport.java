@@ -0,0 +1,103 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.gradle.failurereports.common;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.Optional;
+import org.immutables.value.Value;
+
+/**
+ * A {@link FailureReport} whose error message is only formatted when it is needed, so that a report can be streamed to
+ * the JUNIT XML report without ever holding its message, e.g. the logs of an {@code ExceptionWithLogs}.
+ *
+ * <p>Two reports are equal when their rendered error messages are, so comparing reports formats their messages.
+ */
+@ImmutablesStyle
+@Value.Immutable
+public abstract class LazyFailureReport {
+
+    public abstract String header();
+
+    public abstract String clickableSource();
+
+    /**
+     * The path of the task that failed, if the failure is tied to a task.
+     */
+    public abstract Optional<String> taskPath();
+
+    @Value.Auxiliary
+    public abstract ErrorMessageWriter errorMessageWriter();
+
+    /**
+     * The error message, formatted once on first access.
+     */
+    @Value.Lazy
+    public String errorMessage() {
+        return Appendables.format(errorMessageWriter()::writeTo);
+    }
+
+    /**
+     * Writes the error message to the output, without keeping it in memory.
+     */
+    public final void writeErrorMessage(Appendable output) throws IOException {
+        errorMessageWriter().writeTo(output);
+    }
+
+    public final FailureReport toFailureReport() {
+        return FailureReport.builder()
+                .header(header())
+                .clickableSource(clickableSource())
+                .errorMessage(errorMessage())
+                .taskPath(taskPath())
+                .build();
+    }
+
+    @Override
+    public final boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof LazyFailureReport)) {
+            return false;
+        }
+        LazyFailureReport that = (LazyFailureReport) other;
+        return header().equals(that.header())
+                && clickableSource().equals(that.clickableSource())
+                && taskPath().equals(that.taskPath())
+                && errorMessage().equals(that.errorMessage());
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(header(), clickableSource(), taskPath(), errorMessage());
+    }
+
+    public static LazyFailureReport of(FailureReport failureReport) {
+        return builder()
+                .header(failureReport.header())
+                .clickableSource(failureReport.clickableSource())
+                .taskPath(failureReport.taskPath())
+                .errorMessageWriter(output -> output.append(failureReport.errorMessage()))
+                .build();
+    }
+
+    public static LazyFailureReport.Builder builder() {
+        return new LazyFailureReport.Builder();
+    }
+
+    public static final class Builder extends ImmutableLazyFailureReport.Builder {}
+}
@@ -0,0 +1,198 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.common;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Formats stack traces like {@link Throwable#printStackTrace()}, including the {@code ... N more} folding of the
+ * frames shared with the enclosing trace, but smaller:
+ * <ul>
+ *     <li>runs of frames from the elided package prefixes, e.g. the Gradle internals or the reflection calls, are
+ *     collapsed into a single {@code ... N frames from <prefixes>} line.
+ *     <li>once the frame budget of the report is spent, the remaining frames of every trace are summarized as
+ *     {@code ... N frames omitted}. The headers of the causes and of the suppressed exceptions are always written.
+ * </ul>
+ */
+@SuppressWarnings("SafeLoggingPropagation")
+public final class StackTraceFormatter {
+
+    public static final List<String> DEFAULT_ELIDED_PACKAGE_PREFIXES = ImmutableList.of(
+            "org.gradle.internal.",
+            "org.gradle.api.internal.",
+            "org.gradle.execution.",
+            "org.gradle.launcher.",
+            "org.gradle.tooling.internal.",
+            "org.codehaus.groovy.",
+            "groovy.lang.",
+            "java.lang.reflect.",
+            "jdk.internal.reflect.",
+            "sun.reflect.",
+            "jdk.proxy");
+    public static final int DEFAULT_MAX_FRAMES = 100;
+    public static final StackTraceFormatter DEFAULT =
+            new StackTraceFormatter(DEFAULT_ELIDED_PACKAGE_PREFIXES, DEFAULT_MAX_FRAMES);
+
+    private static final String CAUSE_CAPTION = "Caused by: ";
+    private static final String SUPPRESSED_CAPTION = "Suppressed: ";
+    private static final int MIN_ELIDED_FRAMES = 2;
+
+    private final List<String> elidedPackagePrefixes;
+    private final List<String> elidedPackages;
+    private final int maxFrames;
+
+    /**
+     * Creates a formatter collapsing the frames whose class name starts with one of the elidedPackagePrefixes, and
+     * writing at most maxFrames frames per formatted throwable.
+     */
+    public StackTraceFormatter(List<String> elidedPackagePrefixes, int maxFrames) {
+        this.elidedPackagePrefixes = ImmutableList.copyOf(elidedPackagePrefixes);
+        this.elidedPackages = this.elidedPackagePrefixes.stream()
+                .map(prefix -> prefix.endsWith(".") ? prefix.substring(0, prefix.length() - 1) : prefix)
+                .collect(ImmutableList.toImmutableList());
+        this.maxFrames = maxFrames;
+    }
+
+    public String format(Throwable throwable) {
+        return Appendables.format(output -> appendTo(output, throwable));
+    }
+
+    public void appendTo(Appendable output, Throwable throwable) throws IOException {
+        new Formatting(output).appendTrace(throwable, new StackTraceElement[0], "", "");
+    }
+
+    private final class Formatting {
+        private final Appendable output;
+        private final Set<Throwable> visitedThrowables = Collections.newSetFromMap(new IdentityHashMap<>());
+        private int remainingFrames = maxFrames;
+
+        private Formatting(Appendable output) {
+            this.output = output;
+        }
+
+        private void appendTrace(
+                Throwable throwable, StackTraceElement[] enclosingTrace, String caption, String prefix)
+                throws IOException {
+            if (!visitedThrowables.add(throwable)) {
+                output.append(prefix)
+                        .append(caption)
+                        .append("[CIRCULAR REFERENCE: ")
+                        .append(throwable.toString())
+                        .append("]\n");
+                return;
+            }
+            StackTraceElement[] trace = throwable.getStackTrace();
+            int uniqueFrames = countUniqueFrames(trace, enclosingTrace);
+            output.append(prefix).append(caption).append(throwable.toString()).append('\n');
+            appendFrames(trace, uniqueFrames, prefix);
+            int framesInCommon = trace.length - uniqueFrames;
+            if (framesInCommon != 0) {
+                output.append(prefix)
+                        .append("\t... ")
+                        .append(String.valueOf(framesInCommon))
+                        .append(" more\n");
+            }
+            for (Throwable suppressed : throwable.getSuppressed()) {
+                appendTrace(suppressed, trace, SUPPRESSED_CAPTION, prefix + "\t");
+            }
+            Throwable cause = throwable.getCause();
+            if (cause != null) {
+                appendTrace(cause, trace, CAUSE_CAPTION, prefix);
+            }
+        }
+
+        private void appendFrames(StackTraceElement[] trace, int uniqueFrames, String prefix) throws IOException {
+            int index = 0;
+            while (index < uniqueFrames) {
+                if (remainingFrames <= 0) {
+                    output.append(prefix)
+                            .append("\t... ")
+                            .append(String.valueOf(uniqueFrames - index))
+                            .append(" frames omitted\n");
+                    return;
+                }
+                int elidedRunEnd = findElidedRunEnd(trace, index, uniqueFrames);
+                if (elidedRunEnd - index >= MIN_ELIDED_FRAMES) {
+                    appendElidedFrames(trace, index, elidedRunEnd, prefix);
+                    index = elidedRunEnd;
+                } else {
+                    output.append(prefix)
+                            .append("\tat ")
+                            .append(trace[index].toString())
+                            .append('\n');
+                    index++;
+                }
+                remainingFrames--;
+            }
+        }
+
+        private int findElidedRunEnd(StackTraceElement[] trace, int start, int end) {
+            int index = start;
+            while (index < end && findElidedPrefix(trace[index]) >= 0) {
+                index++;
+            }
+            return index;
+        }
+
+        private void appendElidedFrames(StackTraceElement[] trace, int start, int end, String prefix)
+                throws IOException {
+            Set<String> packages = new LinkedHashSet<>();
+            for (int index = start; index < end; index++) {
+                packages.add(elidedPackages.get(findElidedPrefix(trace[index])));
+            }
+            output.append(prefix)
+                    .append("\t... ")
+                    .append(String.valueOf(end - start))
+                    .append(" frames from ")
+                    .append(String.join(", ", packages))
+                    .append('\n');
+        }
+
+        /**
+         * The index of the first elided package prefix matching the frame, or -1.
+         */
+        private int findElidedPrefix(StackTraceElement frame) {
+            String className = frame.getClassName();
+            for (int index = 0; index < elidedPackagePrefixes.size(); index++) {
+                if (className.startsWith(elidedPackagePrefixes.get(index))) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * The number of frames of the trace before the frames it shares with the enclosing trace, as computed by
+     * {@link Throwable#printStackTrace()}.
+     */
+    private static int countUniqueFrames(StackTraceElement[] trace, StackTraceElement[] enclosingTrace) {
+        int traceIndex = trace.length - 1;
+        int enclosingIndex = enclosingTrace.length - 1;
+        while (traceIndex >= 0 && enclosingIndex >= 0 && trace[traceIndex].equals(enclosingTrace[enclosingIndex])) {
+            traceIndex--;
+            enclosingIndex--;
+        }
+        return traceIndex + 1;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.common;
+
+import com.google.common.base.Preconditions;
+import java.io.OutputStream;
+
+/**
+ * An {@link OutputStream} keeping only the last bytes written to it in a ring buffer, e.g. to capture the output of a
+ * subprocess without holding all of it in memory.
+ */
+public final class TailOutputStream extends OutputStream {
+
+    private final byte[] buffer;
+    private int position;
+    private long written;
+
+    public TailOutputStream(int maxBytes) {
+        Preconditions.checkArgument(maxBytes > 0, "maxBytes must be positive");
+        this.buffer = new byte[maxBytes];
+    }
+
+    @Override
+    public synchronized void write(int value) {
+        buffer[position] = (byte) value;
+        position = (position + 1) % buffer.length;
+        written++;
+    }
+
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) {
+        if (length >= buffer.length) {
+            System.arraycopy(bytes, offset + length - buffer.length, buffer, 0, buffer.length);
+            position = 0;
+        } else {
+            int firstLength = Math.min(length, buffer.length - position);
+            System.arraycopy(bytes, offset, buffer, position, firstLength);
+            System.arraycopy(bytes, offset + firstLength, buffer, 0, length - firstLength);
+            position = (position + length) % buffer.length;
+        }
+        written += length;
+    }
+
+    /**
+     * Whether some of the bytes written were dropped.
+     */
+    public synchronized boolean isTruncated() {
+        return written > buffer.length;
+    }
+
+    /**
+     * The last bytes written, cut at a UTF-8 character boundary and prefixed by
+     * {@link BoundedAppendable#TRUNCATED_MARKER} if some bytes were dropped.
+     */
+    public synchronized String getTail() {
+        if (written < buffer.length) {
+            return TailReader.decodeTail(buffer, 0, (int) written, false);
+        }
+        byte[] tail = new byte[buffer.length];
+        System.arraycopy(buffer, position, tail, 0, buffer.length - position);
+        System.arraycopy(buffer, 0, tail, buffer.length - position, position);
+        return TailReader.decodeTail(tail, 0, tail.length, isTruncated());
+    }
+}
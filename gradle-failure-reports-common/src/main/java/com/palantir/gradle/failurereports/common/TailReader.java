@@ -0,0 +1,86 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.common;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the last bytes of large logs, without holding more than these bytes in memory. The tails are cut at a UTF-8
+ * character boundary and prefixed by {@link BoundedAppendable#TRUNCATED_MARKER} when some of the log was dropped.
+ */
+public final class TailReader {
+
+    private static final int UTF8_MAX_CONTINUATION_BYTES = 3;
+
+    /**
+     * Reads the last maxBytes of the file, seeking to them instead of reading the whole file.
+     */
+    public static String readTail(Path file, int maxBytes) throws IOException {
+        Preconditions.checkArgument(maxBytes > 0, "maxBytes must be positive");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int tailSize = (int) Math.min(size, maxBytes);
+            ByteBuffer tail = ByteBuffer.allocate(tailSize);
+            long position = size - tailSize;
+            while (tail.hasRemaining()) {
+                int read = channel.read(tail, position + tail.position());
+                if (read < 0) {
+                    // the file was truncated while reading it
+                    break;
+                }
+            }
+            return decodeTail(tail.array(), 0, tail.position(), position > 0);
+        }
+    }
+
+    /**
+     * Reads the inputStream to its end, keeping only its last maxBytes in a ring buffer.
+     */
+    public static String readTail(InputStream inputStream, int maxBytes) throws IOException {
+        TailOutputStream tailOutputStream = new TailOutputStream(maxBytes);
+        inputStream.transferTo(tailOutputStream);
+        return tailOutputStream.getTail();
+    }
+
+    /**
+     * Decodes the bytes, skipping the continuation bytes of a character cut by the start of the tail.
+     */
+    static String decodeTail(byte[] bytes, int offset, int length, boolean truncated) {
+        if (!truncated) {
+            return new String(bytes, offset, length, StandardCharsets.UTF_8);
+        }
+        int start = offset;
+        int end = offset + length;
+        while (start < end && start - offset < UTF8_MAX_CONTINUATION_BYTES && isContinuationByte(bytes[start])) {
+            start++;
+        }
+        return BoundedAppendable.TRUNCATED_MARKER + new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isContinuationByte(byte value) {
+        return (value & 0xC0) == 0x80;
+    }
+
+    private TailReader() {}
+}
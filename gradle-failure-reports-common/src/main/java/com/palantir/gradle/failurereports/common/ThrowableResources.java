@@ -17,7 +17,7 @@
 package com.palantir.gradle.failurereports.common;
 
 import com.google.common.base.Throwables;
-import java.util.stream.Collectors;
+import java.io.IOException;
 
 @SuppressWarnings("SafeLoggingPropagation")
 public final class ThrowableResources {
@@ -25,35 +25,79 @@ public final class ThrowableResources {
     public static final String CAUSAL_CHAIN = "* Causal chain is:";
     public static final String EXCEPTION_MESSAGE = "* Full exception is:";
 
+    /**
+     * The maximum length of a formatted throwable, enforced while formatting.
+     */
+    public static final int MAX_FORMATTED_LENGTH = 1024 * 1024;
+
     public static String formatThrowable(Throwable throwable) {
-        return String.format("%s\n\n%s", formatCausalChain(throwable), formatStacktrace(throwable));
+        return Appendables.format(
+                output -> appendThrowable(output, throwable, StackTraceFormatter.DEFAULT), MAX_FORMATTED_LENGTH);
     }
 
     public static String formatThrowableWithMessage(Throwable throwable) {
+        return formatThrowableWithMessage(throwable, StackTraceFormatter.DEFAULT);
+    }
+
+    public static String formatThrowableWithMessage(Throwable throwable, StackTraceFormatter stackTraceFormatter) {
         String errorMessage = getFormattedErrorMessage(Throwables.getRootCause(throwable));
-        return formatThrowableWithMessage(throwable, errorMessage);
+        return formatThrowableWithMessage(throwable, errorMessage, stackTraceFormatter);
     }
 
     public static String formatThrowableWithMessage(Throwable throwable, String errorMessage) {
-        return String.format("%s\n\n%s\n\n%s", errorMessage, formatCausalChain(throwable), formatStacktrace(throwable));
+        return formatThrowableWithMessage(throwable, errorMessage, StackTraceFormatter.DEFAULT);
+    }
+
+    public static String formatThrowableWithMessage(
+            Throwable throwable, String errorMessage, StackTraceFormatter stackTraceFormatter) {
+        return Appendables.format(
+                output -> appendThrowableWithMessage(output, throwable, errorMessage, stackTraceFormatter),
+                MAX_FORMATTED_LENGTH);
     }
 
-    private static String formatCausalChain(Throwable throwable) {
-        String causalChain = Throwables.getCausalChain(throwable).stream()
-                .map(ThrowableResources::printThrowableCause)
-                .collect(Collectors.joining("\n"));
-        return String.format("%s\n%s", CAUSAL_CHAIN, causalChain);
+    /**
+     * Appends the causal chain and the stack trace of the throwable to the output, like
+     * {@link #formatThrowable(Throwable)} but without any length limit other than the one of the output.
+     */
+    public static void appendThrowable(
+            Appendable output, Throwable throwable, StackTraceFormatter stackTraceFormatter) throws IOException {
+        appendCausalChain(output, throwable);
+        output.append("\n\n");
+        appendStacktrace(output, throwable, stackTraceFormatter);
     }
 
-    private static String formatStacktrace(Throwable throwable) {
-        return String.format("%s\n%s", EXCEPTION_MESSAGE, Throwables.getStackTraceAsString(throwable));
+    /**
+     * Appends the message of the root cause of the throwable, its causal chain and its stack trace to the output, like
+     * {@link #formatThrowableWithMessage(Throwable, StackTraceFormatter)} but without any length limit other than the
+     * one of the output.
+     */
+    public static void appendThrowableWithMessage(
+            Appendable output, Throwable throwable, StackTraceFormatter stackTraceFormatter) throws IOException {
+        appendThrowableWithMessage(
+                output, throwable, getFormattedErrorMessage(Throwables.getRootCause(throwable)), stackTraceFormatter);
     }
 
-    private static String printThrowableCause(Throwable throwableCause) {
-        if (throwableCause.getMessage() == null || throwableCause.getMessage().isEmpty()) {
-            return String.format("\t%s", throwableCause.getClass().getCanonicalName());
+    public static void appendThrowableWithMessage(
+            Appendable output, Throwable throwable, String errorMessage, StackTraceFormatter stackTraceFormatter)
+            throws IOException {
+        output.append(errorMessage).append("\n\n");
+        appendThrowable(output, throwable, stackTraceFormatter);
+    }
+
+    private static void appendCausalChain(Appendable output, Throwable throwable) throws IOException {
+        output.append(CAUSAL_CHAIN);
+        for (Throwable throwableCause : Throwables.getCausalChain(throwable)) {
+            output.append("\n\t").append(throwableCause.getClass().getCanonicalName());
+            if (throwableCause.getMessage() != null && !throwableCause.getMessage().isEmpty()) {
+                output.append(": ").append(throwableCause.getMessage());
+            }
         }
-        return String.format("\t%s: %s", throwableCause.getClass().getCanonicalName(), throwableCause.getMessage());
+    }
+
+    private static void appendStacktrace(
+            Appendable output, Throwable throwable, StackTraceFormatter stackTraceFormatter) throws IOException {
+        output.append(EXCEPTION_MESSAGE).append('\n');
+        stackTraceFormatter.appendTo(output, throwable);
     }
 
     private static String getFormattedErrorMessage(Throwable rootCauseThrowable) {
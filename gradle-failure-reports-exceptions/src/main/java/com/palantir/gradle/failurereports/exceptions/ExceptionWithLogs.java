@@ -16,9 +16,19 @@
 
 package com.palantir.gradle.failurereports.exceptions;
 
+import com.palantir.gradle.failurereports.common.BoundedAppendable;
 import com.palantir.gradle.failurereports.common.FailureReport;
 import com.palantir.gradle.failurereports.common.FailureReporterResources;
+import com.palantir.gradle.failurereports.common.LazyFailureReport;
+import com.palantir.gradle.failurereports.common.StackTraceFormatter;
+import com.palantir.gradle.failurereports.common.TailOutputStream;
+import com.palantir.gradle.failurereports.common.TailReader;
 import com.palantir.gradle.failurereports.common.ThrowableResources;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Path;
 
 /**
  * An exception type that allows passing an extra logs field which is rendered in the CircleCi failure report.
@@ -26,7 +36,15 @@ import com.palantir.gradle.failurereports.common.ThrowableResources;
  */
 public final class ExceptionWithLogs extends FailureReporterException {
 
-    private final String logs;
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The size of the end of the logs that is reported.
+     */
+    public static final int MAX_LOGS_BYTES = 100 * 1024;
+
+    // gzipped when serialized, see writeObject
+    private transient String logs;
     private final boolean includeStackTrace;
 
     public ExceptionWithLogs(String message, String logs, boolean includeStackTrace) {
@@ -42,20 +60,121 @@ public final class ExceptionWithLogs extends FailureReporterException {
     }
 
     public ExceptionWithLogs(String message, String logs, Throwable throwable, boolean includeStackTrace) {
-        super(message, throwable);
+        this(message, logs, throwable, includeStackTrace, true);
+    }
+
+    private ExceptionWithLogs(
+            String message, String logs, Throwable throwable, boolean includeStackTrace, boolean writableStackTrace) {
+        super(message, throwable, writableStackTrace);
         // keeping only the last 100kb of logs to avoid any potential OOM issues if the logs are really large.
-        this.logs = FailureReporterResources.keepLastBytesSizeOutput(logs, 100 * 1024);
+        this.logs = FailureReporterResources.keepLastBytesSizeOutput(logs, MAX_LOGS_BYTES);
         this.includeStackTrace = includeStackTrace;
     }
 
+    public static ExceptionWithLogs withoutStackTrace(String message, String logs) {
+        return withoutStackTrace(message, logs, null);
+    }
+
+    /**
+     * Creates an exception that does not capture its stack trace, so that it is cheap to create and to serialize. Its
+     * report still includes the causal chain and the stack trace of the throwable.
+     */
+    public static ExceptionWithLogs withoutStackTrace(String message, String logs, Throwable throwable) {
+        return new ExceptionWithLogs(message, logs, throwable, true, false);
+    }
+
+    public static ExceptionWithLogs fromLogFile(String message, Path logFile) {
+        return fromLogFile(message, logFile, null, true);
+    }
+
+    /**
+     * Reports the end of the logFile, seeking to it instead of reading the whole file.
+     */
+    public static ExceptionWithLogs fromLogFile(
+            String message, Path logFile, Throwable throwable, boolean includeStackTrace) {
+        String logs;
+        try {
+            logs = TailReader.readTail(logFile, MAX_LOGS_BYTES);
+        } catch (IOException e) {
+            logs = String.format("Unable to read the logs from %s: %s", logFile, e);
+        }
+        return new ExceptionWithLogs(message, logs, throwable, includeStackTrace);
+    }
+
+    public static ExceptionWithLogs fromLogStream(String message, InputStream logStream) {
+        return fromLogStream(message, logStream, null, true);
+    }
+
+    /**
+     * Reports the end of the logStream, which is read to its end but never held in memory as a whole. The stream is
+     * not closed.
+     */
+    public static ExceptionWithLogs fromLogStream(
+            String message, InputStream logStream, Throwable throwable, boolean includeStackTrace) {
+        String logs;
+        try {
+            logs = TailReader.readTail(logStream, MAX_LOGS_BYTES);
+        } catch (IOException e) {
+            logs = String.format("Unable to read the logs: %s", e);
+        }
+        return new ExceptionWithLogs(message, logs, throwable, includeStackTrace);
+    }
+
+    public static ExceptionWithLogs fromLogTail(String message, TailOutputStream logTail) {
+        return fromLogTail(message, logTail, null, true);
+    }
+
+    /**
+     * Reports the logs captured by a {@link TailOutputStream}, e.g. one created by {@link #newLogTail()} and used as
+     * the output of a subprocess.
+     */
+    public static ExceptionWithLogs fromLogTail(
+            String message, TailOutputStream logTail, Throwable throwable, boolean includeStackTrace) {
+        return new ExceptionWithLogs(message, logTail.getTail(), throwable, includeStackTrace);
+    }
+
+    /**
+     * A sink keeping as much of the logs as an {@link ExceptionWithLogs} reports.
+     */
+    public static TailOutputStream newLogTail() {
+        return new TailOutputStream(MAX_LOGS_BYTES);
+    }
+
     @Override
     public FailureReport getTaskFailureReport(String taskPath, Throwable initialThrowable) {
-        String maybeIncludeStacktrace =
-                includeStackTrace ? "\n" + ThrowableResources.formatThrowable(initialThrowable) : "";
-        return FailureReport.builder()
+        return getLazyTaskFailureReport(taskPath, initialThrowable).toFailureReport();
+    }
+
+    /**
+     * The logs and the throwable are only formatted once the report is written, straight to the report as the logs
+     * can be large.
+     */
+    @Override
+    public LazyFailureReport getLazyTaskFailureReport(String taskPath, Throwable initialThrowable) {
+        return LazyFailureReport.builder()
                 .header(FailureReporterResources.getTaskErrorHeader(taskPath, getMessage()))
                 .clickableSource(taskPath)
-                .errorMessage(String.join("\n", getMessage(), logs, maybeIncludeStacktrace))
+                .errorMessageWriter(output -> writeErrorMessage(output, initialThrowable))
                 .build();
     }
+
+    private void writeErrorMessage(Appendable output, Throwable initialThrowable) throws IOException {
+        output.append(getMessage()).append('\n').append(logs).append('\n');
+        if (includeStackTrace) {
+            ThrowableResources.appendThrowable(
+                    new BoundedAppendable(output.append('\n'), ThrowableResources.MAX_FORMATTED_LENGTH),
+                    initialThrowable,
+                    StackTraceFormatter.DEFAULT);
+        }
+    }
+
+    private void writeObject(ObjectOutputStream output) throws IOException {
+        output.defaultWriteObject();
+        CompressedStrings.write(output, logs);
+    }
+
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        logs = CompressedStrings.read(input);
+    }
 }
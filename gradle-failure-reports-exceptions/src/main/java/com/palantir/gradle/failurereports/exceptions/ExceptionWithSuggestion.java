@@ -16,8 +16,11 @@
 
 package com.palantir.gradle.failurereports.exceptions;
 
+import com.palantir.gradle.failurereports.common.BoundedAppendable;
 import com.palantir.gradle.failurereports.common.FailureReport;
 import com.palantir.gradle.failurereports.common.FailureReporterResources;
+import com.palantir.gradle.failurereports.common.LazyFailureReport;
+import com.palantir.gradle.failurereports.common.StackTraceFormatter;
 import com.palantir.gradle.failurereports.common.ThrowableResources;
 
 /**
@@ -28,6 +31,8 @@ import com.palantir.gradle.failurereports.common.ThrowableResources;
  */
 public final class ExceptionWithSuggestion extends FailureReporterException {
 
+    private static final long serialVersionUID = 1L;
+
     private final String suggestion;
 
     public ExceptionWithSuggestion(String message, String suggestion) {
@@ -36,16 +41,41 @@ public final class ExceptionWithSuggestion extends FailureReporterException {
     }
 
     public ExceptionWithSuggestion(String message, String suggestion, Throwable throwable) {
-        super(message, throwable);
+        this(message, suggestion, throwable, true);
+    }
+
+    private ExceptionWithSuggestion(
+            String message, String suggestion, Throwable throwable, boolean writableStackTrace) {
+        super(message, throwable, writableStackTrace);
         this.suggestion = suggestion;
     }
 
+    public static ExceptionWithSuggestion withoutStackTrace(String message, String suggestion) {
+        return withoutStackTrace(message, suggestion, null);
+    }
+
+    /**
+     * Creates an exception that does not capture its stack trace, so that it is cheap to create and to serialize.
+     */
+    public static ExceptionWithSuggestion withoutStackTrace(String message, String suggestion, Throwable throwable) {
+        return new ExceptionWithSuggestion(message, suggestion, throwable, false);
+    }
+
     @Override
     public FailureReport getTaskFailureReport(String taskPath, Throwable initialThrowable) {
-        return FailureReport.builder()
+        return getLazyTaskFailureReport(taskPath, initialThrowable).toFailureReport();
+    }
+
+    @Override
+    public LazyFailureReport getLazyTaskFailureReport(String taskPath, Throwable initialThrowable) {
+        return LazyFailureReport.builder()
                 .header(FailureReporterResources.getTaskErrorHeader(taskPath, getMessage()))
                 .clickableSource(suggestion)
-                .errorMessage(ThrowableResources.formatThrowableWithMessage(initialThrowable, getMessage()))
+                .errorMessageWriter(output -> ThrowableResources.appendThrowableWithMessage(
+                        new BoundedAppendable(output, ThrowableResources.MAX_FORMATTED_LENGTH),
+                        initialThrowable,
+                        getMessage(),
+                        StackTraceFormatter.DEFAULT))
                 .build();
     }
 }
@@ -17,6 +17,7 @@
 package com.palantir.gradle.failurereports.exceptions;
 
 import com.palantir.gradle.failurereports.common.FailureReport;
+import com.palantir.gradle.failurereports.common.LazyFailureReport;
 
 /**
  * Subclass of RuntimeException that can display the exception as a Failure Report in Circle CI.
@@ -24,6 +25,8 @@ import com.palantir.gradle.failurereports.common.FailureReport;
  */
 public abstract class FailureReporterException extends RuntimeException {
 
+    private static final long serialVersionUID = 1L;
+
     public FailureReporterException(String message) {
         super(message);
     }
@@ -32,6 +35,14 @@ public abstract class FailureReporterException extends RuntimeException {
         super(message, cause);
     }
 
+    /**
+     * Without a writable stack trace, the exception skips capturing its stack, which is cheap enough to create the
+     * exception in a hot retry loop, and is serialized without any stack frames.
+     */
+    protected FailureReporterException(String message, Throwable cause, boolean writableStackTrace) {
+        super(message, cause, true, writableStackTrace);
+    }
+
     /**
      * Rendering a FailureReporterException exception that is part of the causalChain of {@code initialThrowable} as
      * a FailureReport that can be shown in the CircleCI `Tests` tab.
@@ -40,4 +51,15 @@ public abstract class FailureReporterException extends RuntimeException {
      * @return the FailureReport object
      */
     public abstract FailureReport getTaskFailureReport(String taskPath, Throwable initialThrowable);
+
+    /**
+     * Like {@link #getTaskFailureReport(String, Throwable)}, but the error message is only formatted once the report is
+     * written. Defaults to the eager report, exceptions with expensive error messages should override it.
+     * @param taskPath The Gradle task that caused the exception
+     * @param initialThrowable the throwable that contains the FailureReporterException exception in the casualChain
+     * @return the LazyFailureReport object
+     */
+    public LazyFailureReport getLazyTaskFailureReport(String taskPath, Throwable initialThrowable) {
+        return LazyFailureReport.of(getTaskFailureReport(taskPath, initialThrowable));
+    }
 }
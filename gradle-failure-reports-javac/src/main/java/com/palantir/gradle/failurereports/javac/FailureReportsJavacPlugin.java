@@ -0,0 +1,70 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.javac;
+
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.Plugin;
+import com.sun.tools.javac.api.BasicJavacTask;
+import com.sun.tools.javac.util.Log;
+import java.net.URI;
+import java.nio.file.Path;
+
+/**
+ * A javac plugin recording the compile errors of a compile task as structured records, straight from the compiler
+ * log, so that they do not need to be parsed out of the compiler output.
+ *
+ * <p>It is loaded by javac from the annotation processor path and takes the URI of the diagnostics file as its only
+ * argument, e.g. {@code -Xplugin:FailureReports file:/repo/build/failure-reports/compileJava.diagnostics}. As it
+ * relies on the javac internals, it can only be loaded by a JVM exporting {@code com.sun.tools.javac.api} and
+ * {@code com.sun.tools.javac.util} from {@code jdk.compiler}.
+ *
+ * <p>Its jar is added as a whole to the annotation processor path and loaded in the compiler's class loader, so it
+ * must only hold the javac plugin and only depend on the JDK.
+ */
+public final class FailureReportsJavacPlugin implements Plugin {
+
+    public static final String NAME = "FailureReports";
+    public static final String[] REQUIRED_EXPORTS = {
+        "--add-exports=jdk.compiler/com.sun.tools.javac.api=ALL-UNNAMED",
+        "--add-exports=jdk.compiler/com.sun.tools.javac.util=ALL-UNNAMED"
+    };
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void init(JavacTask task, String... args) {
+        if (args.length != 1) {
+            throw new IllegalArgumentException(
+                    String.format("The %s javac plugin expects the diagnostics file URI as its only argument", NAME));
+        }
+        JavacDiagnosticsFile diagnosticsFile = new JavacDiagnosticsFile(Path.of(URI.create(args[0])));
+        try {
+            Log log = Log.instance(((BasicJavacTask) task).getContext());
+            new ReportingDiagnosticHandler(log, diagnosticsFile);
+        } catch (LinkageError e) {
+            throw new IllegalStateException(
+                    String.format(
+                            "Unable to install the %s javac plugin, the JVM running javac must be started with %s or"
+                                    + " failureReports.structuredCompileDiagnostics must be disabled",
+                            NAME, String.join(" ", REQUIRED_EXPORTS)),
+                    e);
+        }
+    }
+}
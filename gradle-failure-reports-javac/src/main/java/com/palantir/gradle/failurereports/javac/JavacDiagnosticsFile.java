@@ -0,0 +1,101 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.javac;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The file the {@link FailureReportsJavacPlugin} records the compile errors of a task in. Each error is appended as
+ * a record made of the line number followed by the length prefixed, UTF-8 encoded source path, message and text.
+ * The file is opened for every error, so that nothing is left open if javac does not complete.
+ */
+public final class JavacDiagnosticsFile {
+
+    private final Path path;
+
+    public JavacDiagnosticsFile(Path path) {
+        this.path = path;
+    }
+
+    public interface ErrorVisitor {
+        void visitError(String sourcePath, int lineNumber, String message, String text);
+    }
+
+    synchronized void appendError(String sourcePath, int lineNumber, String message, String text)
+            throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+                path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)))) {
+            output.writeInt(lineNumber);
+            writeString(output, sourcePath);
+            writeString(output, message);
+            writeString(output, text);
+        }
+    }
+
+    /**
+     * Visits all the recorded errors, in the order they were reported. Does nothing if no error was recorded.
+     */
+    public void read(ErrorVisitor errorVisitor) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                int lineNumber;
+                try {
+                    lineNumber = input.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                String sourcePath = readString(input);
+                String message = readString(input);
+                String text = readString(input);
+                errorVisitor.visitError(sourcePath, lineNumber, message, text);
+            }
+        }
+    }
+
+    public void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Override
+    public String toString() {
+        return path.toString();
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.javac;
+
+import com.sun.tools.javac.util.JCDiagnostic;
+import com.sun.tools.javac.util.Log;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Locale;
+import javax.tools.Diagnostic;
+
+/**
+ * Records every error reported to the javac {@link Log} before passing it on to the previous handler, so the
+ * compiler output is left untouched.
+ */
+final class ReportingDiagnosticHandler extends Log.DiagnosticHandler {
+
+    private final Log log;
+    private final JavacDiagnosticsFile diagnosticsFile;
+
+    ReportingDiagnosticHandler(Log log, JavacDiagnosticsFile diagnosticsFile) {
+        this.log = log;
+        this.diagnosticsFile = diagnosticsFile;
+        install(log);
+    }
+
+    @Override
+    public void report(JCDiagnostic diagnostic) {
+        if (diagnostic.getKind() == Diagnostic.Kind.ERROR
+                && diagnostic.getSource() != null
+                && diagnostic.getLineNumber() != Diagnostic.NOPOS) {
+            record(diagnostic);
+        }
+        prev.report(diagnostic);
+    }
+
+    private void record(JCDiagnostic diagnostic) {
+        URI sourceUri = diagnostic.getSource().toUri();
+        if (!"file".equals(sourceUri.getScheme())) {
+            return;
+        }
+        String sourcePath = Path.of(sourceUri).toString();
+        int lineNumber = (int) diagnostic.getLineNumber();
+        String text = log.getDiagnosticFormatter().format(diagnostic, Locale.getDefault());
+        try {
+            diagnosticsFile.appendError(
+                    sourcePath,
+                    lineNumber,
+                    getMessage(text, String.format("%s:%d: ", sourcePath, lineNumber)),
+                    text.endsWith("\n") ? text : text + "\n");
+        } catch (IOException e) {
+            // the failure report must never fail the compilation, the error is still printed by javac
+        }
+    }
+
+    /**
+     * The first line of the formatted diagnostic, starting from the severity, as in the compiler output.
+     */
+    private static String getMessage(String text, String position) {
+        int firstLineEnd = text.indexOf('\n');
+        String firstLine = firstLineEnd < 0 ? text : text.substring(0, firstLineEnd);
+        return firstLine.startsWith(position) ? firstLine.substring(position.length()) : firstLine;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.javac;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JavacDiagnosticsFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void reads_back_the_recorded_errors_in_order() throws IOException {
+        JavacDiagnosticsFile diagnosticsFile = new JavacDiagnosticsFile(tempDir.resolve("compileJava.diagnostics"));
+        diagnosticsFile.appendError("/project/Foo.java", 3, "error: cannot find symbol", "Foo.java:3\n  ^\n");
+        diagnosticsFile.appendError("/project/Bar.java", 12, "error: ';' expected", "Bar.java:12\n");
+
+        List<String> errors = new ArrayList<>();
+        diagnosticsFile.read((sourcePath, lineNumber, message, text) ->
+                errors.add(String.join("|", sourcePath, Integer.toString(lineNumber), message, text)));
+
+        assertThat(errors)
+                .containsExactly(
+                        "/project/Foo.java|3|error: cannot find symbol|Foo.java:3\n  ^\n",
+                        "/project/Bar.java|12|error: ';' expected|Bar.java:12\n");
+    }
+
+    @Test
+    public void reads_nothing_when_no_error_was_recorded() throws IOException {
+        List<String> sourcePaths = new ArrayList<>();
+        new JavacDiagnosticsFile(tempDir.resolve("missing.diagnostics"))
+                .read((sourcePath, _lineNumber, _message, _text) -> sourcePaths.add(sourcePath));
+
+        assertThat(sourcePaths).isEmpty();
+    }
+}
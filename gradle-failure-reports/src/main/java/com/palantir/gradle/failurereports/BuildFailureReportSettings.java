@@ -0,0 +1,61 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports;
+
+import com.palantir.gradle.failurereports.common.ImmutablesStyle;
+import com.palantir.gradle.failurereports.common.StackTraceFormatter;
+import com.palantir.gradle.failurereports.junit.JunitReportSharding;
+import java.io.File;
+import org.immutables.value.Value;
+
+/**
+ * Where and how {@link BuildFailureReporter} reports the failures of a build.
+ */
+@ImmutablesStyle
+@Value.Immutable
+public interface BuildFailureReportSettings {
+
+    File outputFile();
+
+    @Value.Default
+    default boolean prettyPrint() {
+        return false;
+    }
+
+    @Value.Default
+    default JunitReportSharding sharding() {
+        return JunitReportSharding.none();
+    }
+
+    CheckstyleReportsService checkstyleReportsService();
+
+    /**
+     * How the stack traces of the generic task failures are formatted.
+     */
+    @Value.Default
+    default StackTraceFormatter stackTraceFormatter() {
+        return StackTraceFormatter.DEFAULT;
+    }
+
+    FailureReportsMetrics metrics();
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    final class Builder extends ImmutableBuildFailureReportSettings.Builder {}
+}
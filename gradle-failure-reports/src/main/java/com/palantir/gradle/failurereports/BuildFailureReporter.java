@@ -18,14 +18,26 @@ package com.palantir.gradle.failurereports;
 
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.palantir.gradle.failurereports.common.FailureReport;
+import com.palantir.gradle.failurereports.common.LazyFailureReport;
 import com.palantir.gradle.failurereports.junit.JunitReporter;
-import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.gradle.api.Task;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -38,36 +50,108 @@ import org.gradle.execution.MultipleBuildFailures;
 public final class BuildFailureReporter {
 
     private static Logger log = Logging.getLogger(BuildFailureReporter.class);
+    private static final ThreadFactory REPORTING_THREAD_FACTORY = new ThreadFactoryBuilder()
+            .setNameFormat("failure-reports-%d")
+            .setDaemon(true)
+            .build();
 
-    public static void report(File outputFile, Throwable buildThrowable) {
+    public static void report(BuildFailureReportSettings settings, Throwable buildThrowable) {
         Optional.ofNullable(buildThrowable).ifPresent(failure -> {
             try {
-                reportFailures(outputFile, failure);
+                reportFailures(settings, failure);
             } catch (IOException e) {
                 log.error("Failed to report build failures", e);
             }
         });
     }
 
-    private static void reportFailures(File outputFile, Throwable buildThrowable) throws IOException {
-        ImmutableList.Builder<FailureReport> failureReports = ImmutableList.builder();
-        for (TaskExecutionException taskExecutionException : getTaskExecutionExceptions(buildThrowable)) {
-            Task task = taskExecutionException.getTask();
-            if (task instanceof JavaCompile) {
-                // TODO(crogoz): use compileFailuresService to report the errors once everything is on gradle >= 8.6
-                // for now this is a noop, once the {@link CompileFailuresService} is closed, it will report all the
-                // errors that were collected
-            } else if (task instanceof Checkstyle) {
-                failureReports.addAll(CheckstyleFailureReporter.collect(task.getProject(), (Checkstyle) task)
-                        .collect(Collectors.toList()));
-            } else if (!(task instanceof Test)) {
-                // test failures are already reported
-                failureReports.add(ThrowableFailureReporter.getFailureReport(task));
+    private static void reportFailures(BuildFailureReportSettings settings, Throwable buildThrowable)
+            throws IOException {
+        long start = System.nanoTime();
+        List<TaskExecutionException> taskExecutionExceptions = getTaskExecutionExceptions(buildThrowable);
+        List<LazyFailureReport> failureReports = FailureReportDeduplicator.deduplicateLazyReports(
+                collectFailureReports(taskExecutionExceptions, settings));
+        settings.metrics().recordFailedTasks(taskExecutionExceptions.size(), System.nanoTime() - start);
+        JunitReporter.reportLazyFailures(
+                settings.outputFile(), failureReports, settings.prettyPrint(), settings.sharding());
+        if (!failureReports.isEmpty()) {
+            settings.metrics().recordReport(settings.outputFile(), settings.sharding(), failureReports.size());
+        }
+    }
+
+    /**
+     * Collects the failure reports of the failed tasks on a bounded thread pool, as reading the checkstyle reports of
+     * hundreds of tasks adds up. The reports are returned in the order of the tasks. The exceptions are only formatted
+     * when the reports are written, see {@link LazyFailureReport}.
+     */
+    private static List<LazyFailureReport> collectFailureReports(
+            List<TaskExecutionException> taskExecutionExceptions, BuildFailureReportSettings settings)
+            throws IOException {
+        if (taskExecutionExceptions.size() <= 1) {
+            return taskExecutionExceptions.stream()
+                    .flatMap(exception -> collectFailureReports(exception, settings).stream())
+                    .collect(Collectors.toList());
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(
+                Math.min(taskExecutionExceptions.size(), Runtime.getRuntime().availableProcessors()),
+                REPORTING_THREAD_FACTORY);
+        try {
+            List<Future<List<LazyFailureReport>>> failureReportsOfTasks =
+                    executorService.invokeAll(taskExecutionExceptions.stream()
+                            .map(exception -> (Callable<List<LazyFailureReport>>)
+                                    () -> collectFailureReports(exception, settings))
+                            .collect(Collectors.toList()));
+            ImmutableList.Builder<LazyFailureReport> failureReports = ImmutableList.builder();
+            for (Future<List<LazyFailureReport>> failureReportsOfTask : failureReportsOfTasks) {
+                failureReports.addAll(failureReportsOfTask.get());
+            }
+            return failureReports.build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while collecting the failure reports", e);
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IOException("Unable to collect the failure reports", e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * The taskExecutionException is the failure recorded in the state of its task.
+     */
+    private static List<LazyFailureReport> collectFailureReports(
+            TaskExecutionException taskExecutionException, BuildFailureReportSettings settings) {
+        Task task = taskExecutionException.getTask();
+        if (task instanceof JavaCompile) {
+            // TODO(crogoz): use compileFailuresService to report the errors once everything is on gradle >= 8.6
+            // for now this is a noop, once the {@link CompileFailuresService} is closed, it will report all the
+            // errors that were collected
+            return List.of();
+        } else if (task instanceof Checkstyle) {
+            long start = System.nanoTime();
+            try (Stream<FailureReport> checkstyleFailureReports =
+                    settings.checkstyleReportsService().collectFailureReports((Checkstyle) task)) {
+                List<LazyFailureReport> failureReports =
+                        checkstyleFailureReports.map(LazyFailureReport::of).collect(Collectors.toList());
+                settings.metrics().recordCheckstyleReport(failureReports.size(), System.nanoTime() - start);
+                return failureReports;
+            } catch (UncheckedIOException e) {
+                log.error("Unable to read the checkstyleReport", e);
+                return List.of();
             }
+        } else if (!(task instanceof Test)) {
+            // test failures are already reported
+            return List.of(ThrowableFailureReporter.getLazyFailureReport(
+                    taskExecutionException, task.getPath(), settings.stackTraceFormatter()));
         }
-        JunitReporter.reportFailures(outputFile, failureReports.build());
+        return List.of();
     }
 
+    /**
+     * Returns the task failures in the order they are found, once each even if they are reachable from several of the
+     * failures of a {@link MultipleBuildFailures}.
+     */
     private static List<TaskExecutionException> getTaskExecutionExceptions(Throwable buildThrowable) {
         ImmutableList.Builder<Throwable> rootExceptions = ImmutableList.builder();
         if (buildThrowable instanceof MultipleBuildFailures) {
@@ -75,9 +159,11 @@ public final class BuildFailureReporter {
         } else {
             rootExceptions.add(buildThrowable);
         }
+        Set<Throwable> visitedExceptions = Collections.newSetFromMap(new IdentityHashMap<>());
         return rootExceptions.build().stream()
                 .map(Throwables::getCausalChain)
                 .flatMap(Collection::stream)
+                .filter(visitedExceptions::add)
                 .filter(throwable -> throwable instanceof TaskExecutionException)
                 .map(throwable -> (TaskExecutionException) throwable)
                 .collect(Collectors.toList());
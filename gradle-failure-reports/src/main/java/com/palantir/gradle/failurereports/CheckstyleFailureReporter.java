@@ -16,55 +16,48 @@
 
 package com.palantir.gradle.failurereports;
 
-import com.palantir.gradle.failurereports.checkstyle.CheckstyleOutput;
+import com.palantir.gradle.failurereports.checkstyle.CheckstyleError;
+import com.palantir.gradle.failurereports.checkstyle.CheckstyleReportParser;
 import com.palantir.gradle.failurereports.common.FailureReport;
 import com.palantir.gradle.failurereports.common.FailureReporterResources;
-import com.palantir.gradle.failurereports.util.XmlResources;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Optional;
 import java.util.stream.Stream;
-import org.gradle.api.Project;
 import org.gradle.api.Task;
-import org.gradle.api.plugins.quality.Checkstyle;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 
 public final class CheckstyleFailureReporter {
 
-    public static Stream<FailureReport> collect(Project project, Checkstyle checkstyleTask) {
-        if (!executedAndFailed(checkstyleTask)) {
-            return Stream.empty();
-        }
-        File checkstyleReportXml = checkstyleTask
-                .getReports()
-                .getXml()
-                .getOutputLocation()
-                .getAsFile()
-                .get();
+    private static final Logger log = Logging.getLogger(CheckstyleFailureReporter.class);
+
+    /**
+     * Lazily reads the failures out of the checkstyleReportXml of a task. The returned stream must be closed, and
+     * throws an {@link java.io.UncheckedIOException} if the report turns out to be malformed.
+     */
+    public static Stream<FailureReport> collect(Path rootDir, String taskPath, File checkstyleReportXml) {
         try {
-            CheckstyleOutput checkstyleOutputReport = XmlResources.readXml(checkstyleReportXml, CheckstyleOutput.class);
-            return from(project, checkstyleOutputReport);
+            return from(rootDir, taskPath, CheckstyleReportParser.readErrors(checkstyleReportXml));
         } catch (IOException e) {
-            project.getLogger().error("Unable to read the checkstyleReport", e);
+            log.error("Unable to read the checkstyleReport", e);
             return Stream.empty();
         }
     }
 
-    private static Stream<FailureReport> from(Project project, CheckstyleOutput checkstyleOutputReport) {
-        return checkstyleOutputReport.files().stream()
-                .flatMap(checkstyleFileFailure -> checkstyleFileFailure.errors().stream()
-                        .map(checkstyleError -> FailureReport.builder()
-                                .header(FailureReporterResources.sourceFileWithErrorMessage(
-                                        FailureReporterResources.getFileName(checkstyleFileFailure.name()),
-                                        checkstyleError.line(),
-                                        checkstyleError.message(),
-                                        checkstyleError.severity()))
-                                .clickableSource(FailureReporterResources.getRelativePathWithLineNumber(
-                                        project.getRootDir().toPath(),
-                                        Path.of(checkstyleFileFailure.name()),
-                                        checkstyleError.line()))
-                                .errorMessage(checkstyleError.message())
-                                .build()));
+    private static Stream<FailureReport> from(Path rootDir, String taskPath, Stream<CheckstyleError> checkstyleErrors) {
+        return checkstyleErrors.map(checkstyleError -> FailureReport.builder()
+                .header(FailureReporterResources.sourceFileWithErrorMessage(
+                        FailureReporterResources.getFileName(checkstyleError.fileName()),
+                        checkstyleError.line(),
+                        checkstyleError.message(),
+                        checkstyleError.severity()))
+                .clickableSource(FailureReporterResources.getRelativePathWithLineNumber(
+                        rootDir, Path.of(checkstyleError.fileName()), checkstyleError.line()))
+                .errorMessage(checkstyleError.message())
+                .taskPath(taskPath)
+                .build());
     }
 
     public static boolean executedAndFailed(Task task) {
@@ -0,0 +1,173 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.gradle.failurereports.CheckstyleReportsService.Parameters;
+import com.palantir.gradle.failurereports.common.FailureReport;
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.plugins.quality.Checkstyle;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.OperationCompletionListener;
+import org.gradle.tooling.events.task.TaskFailureResult;
+import org.gradle.tooling.events.task.TaskFinishEvent;
+
+/**
+ * Keeps track of the XML reports of the Checkstyle tasks that ran, so that their failures can be reported without
+ * going back to the task's project once the build finished, which the configuration cache does not allow.
+ *
+ * <p>As a task completion listener, the report of a failed task is read in the background as soon as the task
+ * finished, so that large {@code --continue} builds do not read all the reports one after the other once the build
+ * finished.
+ */
+public abstract class CheckstyleReportsService
+        implements BuildService<Parameters>, OperationCompletionListener, AutoCloseable {
+
+    private static final Logger log = Logging.getLogger(CheckstyleReportsService.class);
+    private static final Duration PREFETCH_TERMINATION_TIMEOUT = Duration.ofSeconds(10);
+    private static final ThreadFactory PREFETCH_THREAD_FACTORY = new ThreadFactoryBuilder()
+            .setNameFormat("failure-reports-checkstyle-%d")
+            .setDaemon(true)
+            .build();
+
+    interface Parameters extends BuildServiceParameters {
+        Property<File> getRootDir();
+    }
+
+    private final ConcurrentMap<String, File> checkstyleReportsByTaskPath = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Future<List<FailureReport>>> prefetchedFailureReportsByTaskPath =
+            new ConcurrentHashMap<>();
+    // only created once a checkstyle task failed, most builds never need it. Guarded by this
+    private ExecutorService prefetchExecutor;
+
+    public final void registerCheckstyleReport(String taskPath, File checkstyleReportXml) {
+        checkstyleReportsByTaskPath.put(taskPath, checkstyleReportXml);
+    }
+
+    @Override
+    public final void onFinish(FinishEvent event) {
+        if (!(event instanceof TaskFinishEvent) || !(event.getResult() instanceof TaskFailureResult)) {
+            return;
+        }
+        String taskPath = ((TaskFinishEvent) event).getDescriptor().getTaskPath();
+        File checkstyleReportXml = checkstyleReportsByTaskPath.get(taskPath);
+        if (checkstyleReportXml == null) {
+            return;
+        }
+        prefetchedFailureReportsByTaskPath.computeIfAbsent(
+                taskPath, _taskPath -> getPrefetchExecutor().submit(() -> {
+                    try (Stream<FailureReport> failureReports = readFailureReports(taskPath, checkstyleReportXml)) {
+                        return failureReports.collect(Collectors.toList());
+                    }
+                }));
+    }
+
+    /**
+     * Reads the failures out of the XML report of the checkstyleTask, if it ran and failed, or waits for them to be
+     * read if the report was read when the task finished. The returned stream must be closed, see
+     * {@link CheckstyleFailureReporter#collect}.
+     */
+    public final Stream<FailureReport> collectFailureReports(Checkstyle checkstyleTask) {
+        if (!CheckstyleFailureReporter.executedAndFailed(checkstyleTask)) {
+            return Stream.empty();
+        }
+        return collectFailureReports(checkstyleTask.getPath());
+    }
+
+    final Stream<FailureReport> collectFailureReports(String taskPath) {
+        File checkstyleReportXml = checkstyleReportsByTaskPath.get(taskPath);
+        if (checkstyleReportXml == null) {
+            return Stream.empty();
+        }
+        Future<List<FailureReport>> prefetchedFailureReports = prefetchedFailureReportsByTaskPath.get(taskPath);
+        if (prefetchedFailureReports == null) {
+            return readFailureReports(taskPath, checkstyleReportXml);
+        }
+        try {
+            return prefetchedFailureReports.get().stream();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading the checkstyle report", e);
+        } catch (ExecutionException e) {
+            // e.g. the UncheckedIOException of a malformed report
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException("Unable to read the checkstyle report", e.getCause());
+        }
+    }
+
+    Stream<FailureReport> readFailureReports(String taskPath, File checkstyleReportXml) {
+        return CheckstyleFailureReporter.collect(
+                getParameters().getRootDir().get().toPath(), taskPath, checkstyleReportXml);
+    }
+
+    private synchronized ExecutorService getPrefetchExecutor() {
+        if (prefetchExecutor == null) {
+            prefetchExecutor = Executors.newFixedThreadPool(
+                    Math.min(4, Runtime.getRuntime().availableProcessors()), PREFETCH_THREAD_FACTORY);
+        }
+        return prefetchExecutor;
+    }
+
+    /**
+     * Stops the reports still being read, which nothing is going to collect anymore, and waits for the prefetch
+     * threads to exit so that none outlives the build.
+     */
+    @Override
+    public final synchronized void close() {
+        if (prefetchExecutor == null) {
+            return;
+        }
+        prefetchExecutor.shutdownNow();
+        try {
+            if (!prefetchExecutor.awaitTermination(PREFETCH_TERMINATION_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn(
+                        "The checkstyle reports were still being read {} after the build finished",
+                        PREFETCH_TERMINATION_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static Provider<CheckstyleReportsService> getSharedCheckstyleReportsService(Project project) {
+        return project.getGradle()
+                .getSharedServices()
+                .registerIfAbsent("checkstyleReportsService", CheckstyleReportsService.class, spec -> {
+                    spec.getParameters().getRootDir().set(project.getRootDir());
+                });
+    }
+}
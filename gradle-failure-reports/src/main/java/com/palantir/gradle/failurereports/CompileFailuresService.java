@@ -16,147 +16,316 @@
 
 package com.palantir.gradle.failurereports;
 
-import com.google.common.base.Splitter;
+import com.google.common.base.Suppliers;
 import com.palantir.gradle.failurereports.CompileFailuresService.Parameters;
 import com.palantir.gradle.failurereports.common.FailureReport;
-import com.palantir.gradle.failurereports.common.FailureReporterResources;
+import com.palantir.gradle.failurereports.compile.CompileErrorsAccumulator;
+import com.palantir.gradle.failurereports.compile.CompileErrorsBudget;
+import com.palantir.gradle.failurereports.compile.SourceRootsIndex;
+import com.palantir.gradle.failurereports.junit.FailureReportJournal;
 import com.palantir.gradle.failurereports.junit.JunitReporter;
+import com.palantir.gradle.failurereports.junit.JunitReportSharding;
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
-import java.util.Optional;
-import java.util.Set;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.gradle.api.Project;
 import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.services.BuildService;
 import org.gradle.api.services.BuildServiceParameters;
-import org.gradle.api.tasks.compile.AbstractCompile;
+import org.gradle.api.services.BuildServiceRegistry;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.OperationCompletionListener;
+import org.gradle.tooling.events.task.TaskFinishEvent;
 
-public abstract class CompileFailuresService implements BuildService<Parameters>, AutoCloseable {
+/**
+ * Collects the errors of the compile tasks and reports them in the compile output file.
+ *
+ * <p>The errors of a task execution are collected by the {@link CompileErrorsAccumulator} of its stderr listener, and
+ * are only published to the service once the task finished, when the service receives its completion event.
+ *
+ * <p>By default, all the errors are reported when the service is closed at the end of the build. In incremental
+ * mode, the errors of a task are appended to the XML report and to a {@link FailureReportJournal} as soon as the task
+ * finished, and closing the service only completes the report. The journal of a build killed before that is recovered
+ * by the next build, to a separate report.
+ */
+public abstract class CompileFailuresService
+        implements BuildService<Parameters>, OperationCompletionListener, AutoCloseable {
+
+    private static final Logger log = Logging.getLogger(CompileFailuresService.class);
+    private static final String SERVICE_NAME = "compileFailuresService";
 
     interface Parameters extends BuildServiceParameters {
         RegularFileProperty getOutputFile();
 
         RegularFileProperty getCompileOutputFile();
 
+        RegularFileProperty getMetricsFile();
+
         Property<File> getRootDir();
+
+        Property<Boolean> getPrettyPrintReports();
+
+        Property<Long> getMaxReportShardBytes();
+
+        Property<Integer> getMaxReportShardTestCases();
+
+        Property<Boolean> getShardReportsByProject();
+
+        Property<Integer> getMaxCompileErrorsPerTask();
+
+        Property<Long> getMaxCompileErrorBytesPerTask();
+
+        Property<Integer> getMaxCompileErrors();
+
+        Property<Long> getMaxCompileErrorBytesInMemory();
+
+        RegularFileProperty getCompileErrorsSpillFile();
+
+        Property<Boolean> getIncrementalCompileReports();
+
+        Property<Boolean> getStructuredCompileDiagnostics();
     }
 
-    private static final Pattern COMPILE_ERROR_FIRST_LINE_PATTERN =
-            Pattern.compile("^(?<sourcePath>[^:]*):(?<lineNumber>\\d+): (?<errorMessage>error: .*)$");
-    private static final Pattern COMPILE_ERROR_LAST_LINE_PATTERN = Pattern.compile("^\\d+ errors?$");
-    private static final Pattern COMPILE_ERROR_PATTERN =
-            Pattern.compile("^(?<sourcePath>[^:]*):(?<lineNumber>\\d+): (?<errorMessage>error: [\\s\\S]*)$");
-
-    private final ConcurrentMap<String, Boolean> startedCompileErrorsByTaskPath = new ConcurrentHashMap<>();
-    private final ConcurrentMap<String, StringBuilder> compilerErrorsByTaskPath = new ConcurrentHashMap<>();
-
-    public final <T extends AbstractCompile> void maybeCollectErrorMessage(
-            T task, CharSequence charSequence, Set<String> taskCompiledSourcePaths) {
-        Matcher firstCompileErrorMatcher = COMPILE_ERROR_FIRST_LINE_PATTERN.matcher(charSequence);
-        if (firstCompileErrorMatcher.matches()) {
-            String sourcePathFromError = firstCompileErrorMatcher.group("sourcePath");
-
-            // When running in parallel, javaCompileTasks will see the output of other tasks,
-            // see: https://github.com/gradle/gradle/issues/6068 for context.
-            // If the matched sourcePath is not part of the current javaCompileTask's sourceSet, we need to
-            // ignore it.
-            if (!taskCompiledSourcePaths.contains(sourcePathFromError)) {
-                return;
-            }
-            markCompileErrorStarted(task.getPath());
-            compilerErrorsByTaskPath
-                    .computeIfAbsent(task.getPath(), _k -> new StringBuilder())
-                    .append(charSequence);
+    // the executions that did not finish yet, only looked up once by the completion event of their task
+    private final ConcurrentMap<String, CompileErrorsAccumulator> runningCompileErrorsByTaskPath =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompileErrorsAccumulator> compileErrorsByTaskPath = new ConcurrentHashMap<>();
+    private final SourceRootsIndex sourceRootsIndex = new SourceRootsIndex();
+    private final FailureReportsMetrics metrics = new FailureReportsMetrics();
+    private final Supplier<CompileErrorsBudget> compileErrorsBudget =
+            Suppliers.memoize(this::createCompileErrorsBudget);
+    // only opened on the first incremental report, guarded by this
+    private FailureReportJournal failureReportJournal;
+
+    /**
+     * Starts collecting the errors of a compile task execution, on the thread executing the task. The returned
+     * accumulator is owned by the task's stderr listener, and is only published to the service by the completion
+     * event of the task.
+     */
+    public final CompileErrorsAccumulator startCollectingCompileErrors(String taskPath, Collection<File> sourceRoots) {
+        sourceRootsIndex.register(taskPath, sourceRoots);
+        CompileErrorsAccumulator compileErrorsAccumulator =
+                new CompileErrorsAccumulator(taskPath, sourceRootsIndex, compileErrorsBudget.get());
+        runningCompileErrorsByTaskPath.put(taskPath, compileErrorsAccumulator);
+        return compileErrorsAccumulator;
+    }
+
+    /**
+     * The metrics of the whole build's failure reporting, written when the service is closed.
+     */
+    public final FailureReportsMetrics getMetrics() {
+        return metrics;
+    }
+
+    public final Stream<FailureReport> collectFailureReports(String taskPath) {
+        CompileErrorsAccumulator compileErrorsAccumulator = compileErrorsByTaskPath.get(taskPath);
+        if (compileErrorsAccumulator == null) {
+            return Stream.empty();
+        }
+        return toFailureReports(compileErrorsAccumulator);
+    }
+
+    @Override
+    public final void onFinish(FinishEvent event) {
+        if (!(event instanceof TaskFinishEvent)) {
             return;
         }
-        if (!isCompileErrorStarted(task.getPath())) {
+        CompileErrorsAccumulator compileErrorsAccumulator =
+                runningCompileErrorsByTaskPath.remove(((TaskFinishEvent) event).getDescriptor().getTaskPath());
+        if (compileErrorsAccumulator == null) {
             return;
         }
-        Matcher lastCompileErrorMatcher = COMPILE_ERROR_LAST_LINE_PATTERN.matcher(charSequence);
-        if (lastCompileErrorMatcher.matches()) {
-            markCompileErrorFinished(task.getPath());
+        if (!getParameters().getIncrementalCompileReports().get()) {
+            compileErrorsByTaskPath.put(compileErrorsAccumulator.getTaskPath(), compileErrorsAccumulator);
             return;
         }
-        compilerErrorsByTaskPath
-                .computeIfAbsent(task.getPath(), _k -> new StringBuilder())
-                .append(charSequence);
+        try {
+            appendFailureReports(toFailureReports(compileErrorsAccumulator).collect(Collectors.toList()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to report the compile failures", e);
+        } finally {
+            metrics.recordCompileTask(compileErrorsAccumulator.getTaskPath(), compileErrorsAccumulator.metrics());
+            compileErrorsAccumulator.discard();
+        }
     }
 
-    public final Stream<FailureReport> collectFailureReports(String taskPath) {
-        if (!compilerErrorsByTaskPath.containsKey(taskPath)) {
-            return Stream.empty();
+    private Stream<FailureReport> toFailureReports(CompileErrorsAccumulator compileErrorsAccumulator) {
+        Path rootDir = getParameters().getRootDir().get().toPath();
+        String taskPath = compileErrorsAccumulator.getTaskPath();
+        return Stream.concat(
+                compileErrorsAccumulator.finish().stream()
+                        .map(compileError -> compileError.toFailureReport(rootDir, taskPath)),
+                compileErrorsAccumulator.truncationReport().stream());
+    }
+
+    private synchronized void appendFailureReports(List<FailureReport> failureReports) throws IOException {
+        if (failureReports.isEmpty()) {
+            return;
+        }
+        if (failureReportJournal == null) {
+            failureReportJournal = FailureReportJournal.open(
+                    getParameters().getCompileOutputFile().getAsFile().get(),
+                    getParameters().getPrettyPrintReports().get(),
+                    getJunitReportSharding());
         }
-        return Splitter.on(COMPILE_ERROR_LAST_LINE_PATTERN)
-                .splitToStream(compilerErrorsByTaskPath.get(taskPath).toString())
-                .map(this::maybeGetFailureReport)
-                .filter(Optional::isPresent)
-                .map(Optional::get);
+        failureReportJournal.append(failureReports);
+        metrics.recordReport(
+                getParameters().getCompileOutputFile().getAsFile().get(),
+                getJunitReportSharding(),
+                failureReports.size());
+    }
+
+    private JunitReportSharding getJunitReportSharding() {
+        return JunitReportSharding.builder()
+                .maxBytesPerShard(getParameters().getMaxReportShardBytes().get())
+                .maxTestCasesPerShard(getParameters().getMaxReportShardTestCases().get())
+                .shardByProject(getParameters().getShardReportsByProject().get())
+                .build();
+    }
+
+    private CompileErrorsBudget createCompileErrorsBudget() {
+        return new CompileErrorsBudget(
+                getParameters().getMaxCompileErrorsPerTask().get(),
+                getParameters().getMaxCompileErrorBytesPerTask().get(),
+                getParameters().getMaxCompileErrors().get(),
+                getParameters().getMaxCompileErrorBytesInMemory().get(),
+                getParameters().getCompileErrorsSpillFile().getAsFile().get().toPath());
+    }
+
+    /**
+     * Looks up the service registered by the {@link FailureReportsRootPlugin}, which is always applied before the
+     * other projects get configured.
+     */
+    public static Provider<CompileFailuresService> getSharedCompileFailuresService(Project project) {
+        return project.getGradle()
+                .getSharedServices()
+                .registerIfAbsent(SERVICE_NAME, CompileFailuresService.class, _spec -> {});
+    }
+
+    /**
+     * Whether the compile errors are recorded by the javac plugin, read from the parameters of the registered service
+     * without creating it. The other projects cannot read the extension of the root project with isolated projects.
+     */
+    public static Provider<Boolean> getStructuredCompileDiagnostics(Project project) {
+        BuildServiceRegistry sharedServices = project.getGradle().getSharedServices();
+        return project.getProviders()
+                .provider(() ->
+                        (Parameters) sharedServices.getRegistrations().getByName(SERVICE_NAME).getParameters())
+                .flatMap(Parameters::getStructuredCompileDiagnostics);
     }
 
     public static Provider<CompileFailuresService> getSharedCompileFailuresService(
             Project project, FailureReportsExtension failureReportsExtension) {
         return project.getGradle()
                 .getSharedServices()
-                .registerIfAbsent("compileFailuresService", CompileFailuresService.class, spec -> {
+                .registerIfAbsent(SERVICE_NAME, CompileFailuresService.class, spec -> {
                     spec.getParameters().getOutputFile().set(failureReportsExtension.getFailureReportOutputFile());
                     spec.getParameters()
                             .getCompileOutputFile()
                             .set(failureReportsExtension.getFailureReportCompileOutputFile());
-                    spec.getParameters().getRootDir().set(project.provider(project::getRootDir));
+                    spec.getParameters().getMetricsFile().set(failureReportsExtension.getFailureReportMetricsFile());
+                    spec.getParameters().getRootDir().set(project.getRootDir());
+                    spec.getParameters().getPrettyPrintReports().set(failureReportsExtension.getPrettyPrintReports());
+                    spec.getParameters()
+                            .getMaxReportShardBytes()
+                            .set(failureReportsExtension.getMaxReportShardBytes());
+                    spec.getParameters()
+                            .getMaxReportShardTestCases()
+                            .set(failureReportsExtension.getMaxReportShardTestCases());
+                    spec.getParameters()
+                            .getShardReportsByProject()
+                            .set(failureReportsExtension.getShardReportsByProject());
+                    spec.getParameters()
+                            .getMaxCompileErrorsPerTask()
+                            .set(failureReportsExtension.getMaxCompileErrorsPerTask());
+                    spec.getParameters()
+                            .getMaxCompileErrorBytesPerTask()
+                            .set(failureReportsExtension.getMaxCompileErrorBytesPerTask());
+                    spec.getParameters().getMaxCompileErrors().set(failureReportsExtension.getMaxCompileErrors());
+                    spec.getParameters()
+                            .getMaxCompileErrorBytesInMemory()
+                            .set(failureReportsExtension.getMaxCompileErrorBytesInMemory());
+                    spec.getParameters()
+                            .getCompileErrorsSpillFile()
+                            .set(failureReportsExtension.getCompileErrorsSpillFile());
+                    spec.getParameters()
+                            .getIncrementalCompileReports()
+                            .set(failureReportsExtension.getIncrementalCompileReports());
+                    spec.getParameters()
+                            .getStructuredCompileDiagnostics()
+                            .set(failureReportsExtension.getStructuredCompileDiagnostics());
                 });
     }
 
-    private void markCompileErrorStarted(String taskPath) {
-        startedCompileErrorsByTaskPath.put(taskPath, true);
-    }
-
-    private void markCompileErrorFinished(String taskPath) {
-        startedCompileErrorsByTaskPath.put(taskPath, false);
-    }
-
-    private boolean isCompileErrorStarted(String taskPath) {
-        return startedCompileErrorsByTaskPath.getOrDefault(taskPath, false);
-    }
-
-    private Optional<FailureReport> maybeGetFailureReport(String multiLineError) {
-        Matcher matcher = COMPILE_ERROR_PATTERN.matcher(multiLineError);
-        if (!matcher.matches()) {
-            return Optional.empty();
+    @Override
+    public final void close() throws Exception {
+        try {
+            // the tasks that did not send a completion event, e.g. when the build got cancelled
+            runningCompileErrorsByTaskPath.forEach(compileErrorsByTaskPath::putIfAbsent);
+            runningCompileErrorsByTaskPath.clear();
+            List<FailureReport> failureReports = compileErrorsByTaskPath.keySet().stream()
+                    .flatMap(this::collectFailureReports)
+                    .collect(Collectors.toList());
+            compileErrorsByTaskPath.forEach((taskPath, compileErrorsAccumulator) ->
+                    metrics.recordCompileTask(taskPath, compileErrorsAccumulator.metrics()));
+            if (getParameters().getIncrementalCompileReports().get()) {
+                appendFailureReports(failureReports);
+                completeFailureReportJournal();
+            } else {
+                File compileOutputFile = getParameters().getCompileOutputFile().getAsFile().get();
+                // the failures of a killed incremental build are reported separately from the ones of this build
+                FailureReportJournal.recover(
+                        compileOutputFile, getParameters().getPrettyPrintReports().get(), getJunitReportSharding());
+                JunitReporter.reportFailures(
+                        compileOutputFile,
+                        failureReports,
+                        getParameters().getPrettyPrintReports().get(),
+                        getJunitReportSharding());
+                if (!failureReports.isEmpty()) {
+                    metrics.recordReport(compileOutputFile, getJunitReportSharding(), failureReports.size());
+                }
+            }
+            writeMetrics();
+        } finally {
+            compileErrorsBudget.get().close();
         }
-        String sourcePathFromError = matcher.group("sourcePath");
-        String errorMessage = matcher.group("errorMessage");
-        int lineNumber = Integer.parseInt(matcher.group("lineNumber"));
-
-        return Optional.of(FailureReport.builder()
-                .header(extractCompileErrorHeader(sourcePathFromError, lineNumber, errorMessage))
-                .clickableSource(FailureReporterResources.getRelativePathWithLineNumber(
-                        getParameters().getRootDir().get().toPath(), Path.of(sourcePathFromError), lineNumber))
-                .errorMessage(matcher.group())
-                .build());
     }
 
-    private static String extractCompileErrorHeader(String sourcePath, int lineNumber, String error) {
-        // the relevant compiler error header is the first line of the error message.
-        int errorExplanationIndex = error.indexOf("\n");
-        int maxIndex = errorExplanationIndex < 0 ? error.length() : errorExplanationIndex;
-        return FailureReporterResources.sourceFileWithErrorMessage(
-                FailureReporterResources.getFileName(sourcePath), lineNumber, error.substring(0, maxIndex));
+    /**
+     * Writes the metrics once everything else has been reported. Closing the service is the last step of the build
+     * for the plugin, the build failures are reported before the build services are closed.
+     */
+    private void writeMetrics() {
+        try {
+            log.lifecycle(metrics.write(getParameters().getMetricsFile().getAsFile().get().toPath()));
+        } catch (IOException e) {
+            // the metrics must never fail the build
+            log.warn("Unable to write the failure reports metrics", e);
+        }
     }
 
-    @Override
-    public final void close() throws Exception {
-        JunitReporter.reportFailures(
-                getParameters().getCompileOutputFile().getAsFile().get(),
-                compilerErrorsByTaskPath.keySet().stream()
-                        .flatMap(this::collectFailureReports)
-                        .collect(Collectors.toList()));
+    private synchronized void completeFailureReportJournal() throws IOException {
+        if (failureReportJournal == null) {
+            // no compile failure in this build, the journal of a killed build may still be pending
+            FailureReportJournal.recover(
+                    getParameters().getCompileOutputFile().getAsFile().get(),
+                    getParameters().getPrettyPrintReports().get(),
+                    getJunitReportSharding());
+            return;
+        }
+        failureReportJournal.complete();
+        failureReportJournal = null;
     }
 }
@@ -0,0 +1,231 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.palantir.gradle.failurereports.common.FailureReport;
+import com.palantir.gradle.failurereports.common.LazyFailureReport;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Merges the failure reports that only differ by their task path, e.g. when a broken shared configuration fails the
+ * same task in hundreds of projects. The first report of every failure is kept, and lists the other tasks that
+ * failed the same way.
+ *
+ * <p>The reports are matched on their contents, where the task path is replaced by a placeholder. Only the whole
+ * occurrences of the task path are replaced, so a report of {@code :a:compileJava} mentioning {@code :a:compileJavaX}
+ * or {@code :ab:compileJava} is kept apart. The hash codes of the contents are cached by the strings, so every report
+ * is only hashed once.
+ *
+ * <p>The error message of a {@link LazyFailureReport} is only formatted when another report has the same header and
+ * clickable source, so the reports that cannot be merged are formatted straight to the JUNIT XML report.
+ */
+public final class FailureReportDeduplicator {
+
+    private static final String TASK_PATH_PLACEHOLDER = "<task>";
+    private static final int MAX_LISTED_TASK_PATHS = 1000;
+
+    public static List<FailureReport> deduplicate(List<FailureReport> failureReports) {
+        List<LazyFailureReport> deduplicatedFailureReports =
+                deduplicateLazyReports(Lists.transform(failureReports, LazyFailureReport::of));
+        if (deduplicatedFailureReports.size() == failureReports.size()) {
+            return failureReports;
+        }
+        return deduplicatedFailureReports.stream()
+                .map(LazyFailureReport::toFailureReport)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    public static List<LazyFailureReport> deduplicateLazyReports(List<LazyFailureReport> failureReports) {
+        // in the order of the first report of every failure
+        List<DeduplicatedFailure> failures = new ArrayList<>();
+        Map<NormalizedHeader, FailuresWithHeader> failuresByHeader = new HashMap<>();
+        for (LazyFailureReport failureReport : failureReports) {
+            NormalizedHeader normalizedHeader = NormalizedHeader.of(failureReport);
+            FailuresWithHeader failuresWithHeader = failuresByHeader.get(normalizedHeader);
+            if (failuresWithHeader == null) {
+                DeduplicatedFailure failure = new DeduplicatedFailure(failureReport);
+                failures.add(failure);
+                failuresByHeader.put(normalizedHeader, new FailuresWithHeader(failure));
+                continue;
+            }
+            String normalizedErrorMessage = normalizeErrorMessage(failureReport);
+            DeduplicatedFailure failure = failuresWithHeader.get(normalizedErrorMessage);
+            if (failure == null) {
+                failure = new DeduplicatedFailure(failureReport);
+                failures.add(failure);
+                failuresWithHeader.put(normalizedErrorMessage, failure);
+            } else {
+                failure.duplicates++;
+                failureReport.taskPath().ifPresent(failure.otherTaskPaths::add);
+            }
+        }
+        if (failures.size() == failureReports.size()) {
+            return failureReports;
+        }
+        return failures.stream()
+                .map(DeduplicatedFailure::toFailureReport)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    private static String normalizeErrorMessage(LazyFailureReport failureReport) {
+        return failureReport
+                .taskPath()
+                .map(taskPath -> replaceTaskPath(failureReport.errorMessage(), taskPath))
+                .orElseGet(failureReport::errorMessage);
+    }
+
+    /**
+     * The failures sharing a normalized header and clickable source, by normalized error message. The error message
+     * of the first failure is only formatted once a second report has the same header.
+     */
+    private static final class FailuresWithHeader {
+        private final Map<String, DeduplicatedFailure> failuresByErrorMessage = new HashMap<>();
+        private DeduplicatedFailure firstFailure;
+
+        private FailuresWithHeader(DeduplicatedFailure firstFailure) {
+            this.firstFailure = firstFailure;
+        }
+
+        DeduplicatedFailure get(String normalizedErrorMessage) {
+            if (firstFailure != null) {
+                failuresByErrorMessage.put(normalizeErrorMessage(firstFailure.failureReport), firstFailure);
+                firstFailure = null;
+            }
+            return failuresByErrorMessage.get(normalizedErrorMessage);
+        }
+
+        void put(String normalizedErrorMessage, DeduplicatedFailure failure) {
+            failuresByErrorMessage.put(normalizedErrorMessage, failure);
+        }
+    }
+
+    private static final class NormalizedHeader {
+        private final String header;
+        private final String clickableSource;
+
+        private NormalizedHeader(String header, String clickableSource) {
+            this.header = header;
+            this.clickableSource = clickableSource;
+        }
+
+        static NormalizedHeader of(LazyFailureReport failureReport) {
+            return failureReport
+                    .taskPath()
+                    .map(taskPath -> new NormalizedHeader(
+                            replaceTaskPath(failureReport.header(), taskPath),
+                            replaceTaskPath(failureReport.clickableSource(), taskPath)))
+                    .orElseGet(() -> new NormalizedHeader(failureReport.header(), failureReport.clickableSource()));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof NormalizedHeader)) {
+                return false;
+            }
+            NormalizedHeader that = (NormalizedHeader) other;
+            return header.equals(that.header) && clickableSource.equals(that.clickableSource);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(header, clickableSource);
+        }
+    }
+
+    private static String replaceTaskPath(String text, String taskPath) {
+        int index = text.indexOf(taskPath);
+        if (index < 0) {
+            return text;
+        }
+        StringBuilder replaced = new StringBuilder(text.length());
+        int copiedUntil = 0;
+        while (index >= 0) {
+            int end = index + taskPath.length();
+            if (!isTaskPathCharacter(text, index - 1) && !isTaskPathCharacter(text, end)) {
+                replaced.append(text, copiedUntil, index).append(TASK_PATH_PLACEHOLDER);
+                copiedUntil = end;
+            }
+            index = text.indexOf(taskPath, index + 1);
+        }
+        return replaced.append(text, copiedUntil, text.length()).toString();
+    }
+
+    /**
+     * Whether the character at index continues a task path, a '.' only does when followed by a name, rather than
+     * ending a sentence.
+     */
+    private static boolean isTaskPathCharacter(String text, int index) {
+        if (index < 0 || index >= text.length()) {
+            return false;
+        }
+        char character = text.charAt(index);
+        if (character == '.') {
+            return index + 1 < text.length() && Character.isLetterOrDigit(text.charAt(index + 1));
+        }
+        return Character.isLetterOrDigit(character) || character == ':' || character == '-' || character == '_';
+    }
+
+    private static final class DeduplicatedFailure {
+        private final LazyFailureReport failureReport;
+        private final List<String> otherTaskPaths = new ArrayList<>();
+        private int duplicates = 0;
+
+        private DeduplicatedFailure(LazyFailureReport failureReport) {
+            this.failureReport = failureReport;
+        }
+
+        LazyFailureReport toFailureReport() {
+            if (duplicates == 0) {
+                return failureReport;
+            }
+            // the error message was formatted to match the duplicates
+            StringBuilder errorMessage = new StringBuilder(failureReport.errorMessage())
+                    .append(failureReport.errorMessage().endsWith("\n") ? "\n" : "\n\n")
+                    .append("* The same failure was reported ")
+                    .append(duplicates)
+                    .append(duplicates == 1 ? " more time" : " more times");
+            if (!otherTaskPaths.isEmpty()) {
+                errorMessage.append(", by:");
+                otherTaskPaths.stream()
+                        .limit(MAX_LISTED_TASK_PATHS)
+                        .forEach(taskPath -> errorMessage.append("\n\t").append(taskPath));
+                if (otherTaskPaths.size() > MAX_LISTED_TASK_PATHS) {
+                    errorMessage
+                            .append("\n\t... ")
+                            .append(otherTaskPaths.size() - MAX_LISTED_TASK_PATHS)
+                            .append(" more");
+                }
+            }
+            String mergedErrorMessage = errorMessage.append('\n').toString();
+            return LazyFailureReport.builder()
+                    .from(failureReport)
+                    .errorMessageWriter(output -> output.append(mergedErrorMessage))
+                    .build();
+        }
+    }
+
+    private FailureReportDeduplicator() {}
+}
@@ -16,10 +16,13 @@
 
 package com.palantir.gradle.failurereports;
 
+import com.palantir.gradle.failurereports.common.StackTraceFormatter;
+import com.palantir.gradle.failurereports.junit.JunitReportSharding;
 import java.io.File;
 import org.gradle.api.flow.BuildWorkResult;
 import org.gradle.api.flow.FlowAction;
 import org.gradle.api.flow.FlowParameters;
+import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.Input;
@@ -33,8 +36,29 @@ public final class FailureReportFlowAction implements FlowAction<FailureReportFl
         @Input
         Property<File> getOutputFile();
 
+        @Input
+        Property<Boolean> getPrettyPrint();
+
+        @Input
+        Property<Long> getMaxReportShardBytes();
+
+        @Input
+        Property<Integer> getMaxReportShardTestCases();
+
+        @Input
+        Property<Boolean> getShardReportsByProject();
+
+        @Input
+        ListProperty<String> getElidedStackFramePrefixes();
+
+        @Input
+        Property<Integer> getMaxStackFramesPerReport();
+
         @ServiceReference
         Property<CompileFailuresService> getCompileFailuresService();
+
+        @ServiceReference
+        Property<CheckstyleReportsService> getCheckstyleReportsService();
     }
 
     @Override
@@ -43,7 +67,21 @@ public final class FailureReportFlowAction implements FlowAction<FailureReportFl
                 .getBuildResult()
                 .get()
                 .getFailure()
-                .ifPresent(failure ->
-                        BuildFailureReporter.report(parameters.getOutputFile().get(), failure));
+                .ifPresent(failure -> BuildFailureReporter.report(
+                        BuildFailureReportSettings.builder()
+                                .outputFile(parameters.getOutputFile().get())
+                                .prettyPrint(parameters.getPrettyPrint().get())
+                                .sharding(JunitReportSharding.builder()
+                                        .maxBytesPerShard(parameters.getMaxReportShardBytes().get())
+                                        .maxTestCasesPerShard(parameters.getMaxReportShardTestCases().get())
+                                        .shardByProject(parameters.getShardReportsByProject().get())
+                                        .build())
+                                .checkstyleReportsService(parameters.getCheckstyleReportsService().get())
+                                .stackTraceFormatter(new StackTraceFormatter(
+                                        parameters.getElidedStackFramePrefixes().get(),
+                                        parameters.getMaxStackFramesPerReport().get()))
+                                .metrics(parameters.getCompileFailuresService().get().getMetrics())
+                                .build(),
+                        failure));
     }
 }
@@ -16,9 +16,12 @@
 
 package com.palantir.gradle.failurereports;
 
+import com.palantir.gradle.failurereports.common.StackTraceFormatter;
 import javax.inject.Inject;
 import org.gradle.api.file.ProjectLayout;
 import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
 
 public abstract class FailureReportsExtension {
 
@@ -26,13 +29,127 @@ public abstract class FailureReportsExtension {
 
     public abstract RegularFileProperty getFailureReportCompileOutputFile();
 
+    /**
+     * Where the counters and timers of the failure reporting are written once the build finished, see
+     * {@link FailureReportsMetrics}.
+     */
+    public abstract RegularFileProperty getFailureReportMetricsFile();
+
+    /**
+     * Whether the failure reports are indented, which makes them easier to read but larger.
+     */
+    public abstract Property<Boolean> getPrettyPrintReports();
+
+    /**
+     * The approximate maximum size of a failure report file, unlimited by default. When set, the reports are split
+     * into several {@code *-TEST.xml} shards in a directory named after the report file, e.g.
+     * {@code failure-reports/build-TEST/}.
+     */
+    public abstract Property<Long> getMaxReportShardBytes();
+
+    /**
+     * The maximum number of failures in a failure report file, unlimited by default. When set, the reports are split
+     * into shards like with {@link #getMaxReportShardBytes()}.
+     */
+    public abstract Property<Integer> getMaxReportShardTestCases();
+
+    /**
+     * Whether the failures of every Gradle project are written to separate shards of the failure reports.
+     */
+    public abstract Property<Boolean> getShardReportsByProject();
+
+    /**
+     * The package prefixes of the stack frames collapsed into a single line in the reported stack traces, the Gradle
+     * internals and the reflection calls by default.
+     */
+    public abstract ListProperty<String> getElidedStackFramePrefixes();
+
+    /**
+     * The maximum number of stack frames written in the report of a failed task.
+     */
+    public abstract Property<Integer> getMaxStackFramesPerReport();
+
+    /**
+     * The maximum number of compile errors reported for a single compile task.
+     */
+    public abstract Property<Integer> getMaxCompileErrorsPerTask();
+
+    /**
+     * The maximum size of the compile errors reported for a single compile task.
+     */
+    public abstract Property<Long> getMaxCompileErrorBytesPerTask();
+
+    /**
+     * The maximum number of compile errors reported for the whole build.
+     */
+    public abstract Property<Integer> getMaxCompileErrors();
+
+    /**
+     * The maximum size of the compile errors held in memory until the end of the build, the rest is spilled to
+     * {@link #getCompileErrorsSpillFile()}.
+     */
+    public abstract Property<Long> getMaxCompileErrorBytesInMemory();
+
+    public abstract RegularFileProperty getCompileErrorsSpillFile();
+
+    /**
+     * Whether the compile errors of a task are written to the compile report, and journaled next to it, as soon as the
+     * task finished, instead of being held until the end of the build. The report is completed at the end of the
+     * build, the journal is only converted to a report by the next build when this one got killed.
+     */
+    public abstract Property<Boolean> getIncrementalCompileReports();
+
+    /**
+     * Whether the compile errors are recorded by a javac plugin instead of being parsed out of the compiler output.
+     * The plugin relies on the javac internals, so a task compiling in-process only uses it when the Gradle daemon
+     * exports {@code com.sun.tools.javac.api} and {@code com.sun.tools.javac.util} from {@code jdk.compiler}, and
+     * otherwise falls back to parsing the compiler output. The plugin is added to the annotation processor
+     * configurations, a task with a custom annotation processor path must include the {@code failureReportsJavacPlugin}
+     * configuration.
+     */
+    public abstract Property<Boolean> getStructuredCompileDiagnostics();
+
     @Inject
     public abstract ProjectLayout getProjectLayout();
 
     public FailureReportsExtension() {
+        setReportFileConventions("");
+        getPrettyPrintReports().convention(true);
+        getMaxReportShardBytes().convention(Long.MAX_VALUE);
+        getMaxReportShardTestCases().convention(Integer.MAX_VALUE);
+        getShardReportsByProject().convention(false);
+        getElidedStackFramePrefixes().convention(StackTraceFormatter.DEFAULT_ELIDED_PACKAGE_PREFIXES);
+        getMaxStackFramesPerReport().convention(StackTraceFormatter.DEFAULT_MAX_FRAMES);
+        getMaxCompileErrorsPerTask().convention(500);
+        getMaxCompileErrorBytesPerTask().convention(1024L * 1024);
+        getMaxCompileErrors().convention(10_000);
+        getMaxCompileErrorBytesInMemory().convention(16L * 1024 * 1024);
+        getCompileErrorsSpillFile()
+                .convention(getProjectLayout().getBuildDirectory().file("failure-reports/compile-errors.spill"));
+        getIncrementalCompileReports().convention(false);
+        getStructuredCompileDiagnostics().convention(false);
+    }
+
+    /**
+     * Names the default report files after the CircleCI node writing them, e.g. {@code build-node-3-TEST.xml}, so
+     * that the reports of the nodes of a parallel job can be collected side by side and merged.
+     */
+    void useCircleNodeReportFiles(int circleNode) {
+        setReportFileConventions("-node-" + circleNode);
+    }
+
+    private void setReportFileConventions(String suffix) {
         getFailureReportOutputFile()
-                .convention(getProjectLayout().getBuildDirectory().file("failure-reports/build-TEST.xml"));
+                .convention(getProjectLayout()
+                        .getBuildDirectory()
+                        .file("failure-reports/build" + suffix + "-TEST.xml"));
         getFailureReportCompileOutputFile()
-                .convention(getProjectLayout().getBuildDirectory().file("failure-reports/build-compile-TEST.xml"));
+                .convention(getProjectLayout()
+                        .getBuildDirectory()
+                        .file("failure-reports/build-compile" + suffix + "-TEST.xml"));
+        getFailureReportMetricsFile()
+                .convention(getProjectLayout()
+                        .getBuildDirectory()
+                        .file("failure-reports/build-metrics" + suffix + ".json"));
     }
 }
@@ -17,7 +17,6 @@
 package com.palantir.gradle.failurereports;
 
 import com.palantir.gradle.failurereports.util.ExtensionUtils;
-import com.palantir.gradle.failurereports.util.PluginResources;
 import javax.inject.Inject;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
@@ -35,9 +34,6 @@ public abstract class FailureReportsFlowActionsPlugin implements Plugin<Project>
 
     @Override
     public final void apply(Project project) {
-        if (!PluginResources.shouldApplyPlugin(project)) {
-            return;
-        }
         FailureReportsExtension failureReportsExtension =
                 ExtensionUtils.maybeCreate(project, "failureReports", FailureReportsExtension.class);
         Provider<CompileFailuresService> compileFailuresService =
@@ -46,8 +42,23 @@ public abstract class FailureReportsFlowActionsPlugin implements Plugin<Project>
             spec.getParameters()
                     .getOutputFile()
                     .set(failureReportsExtension.getFailureReportOutputFile().getAsFile());
+            spec.getParameters().getPrettyPrint().set(failureReportsExtension.getPrettyPrintReports());
+            spec.getParameters().getMaxReportShardBytes().set(failureReportsExtension.getMaxReportShardBytes());
+            spec.getParameters()
+                    .getMaxReportShardTestCases()
+                    .set(failureReportsExtension.getMaxReportShardTestCases());
+            spec.getParameters().getShardReportsByProject().set(failureReportsExtension.getShardReportsByProject());
+            spec.getParameters()
+                    .getElidedStackFramePrefixes()
+                    .set(failureReportsExtension.getElidedStackFramePrefixes());
+            spec.getParameters()
+                    .getMaxStackFramesPerReport()
+                    .set(failureReportsExtension.getMaxStackFramesPerReport());
             spec.getParameters().getBuildResult().set(getFlowProviders().getBuildWorkResult());
             spec.getParameters().getCompileFailuresService().set(compileFailuresService);
+            spec.getParameters()
+                    .getCheckstyleReportsService()
+                    .set(CheckstyleReportsService.getSharedCheckstyleReportsService(project));
         });
     }
 }
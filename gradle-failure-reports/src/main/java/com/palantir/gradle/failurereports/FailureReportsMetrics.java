@@ -0,0 +1,172 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.palantir.gradle.failurereports.compile.CompileErrorsMetrics;
+import com.palantir.gradle.failurereports.junit.JunitReportSharding;
+import com.palantir.gradle.failurereports.junit.JunitReporter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and timers of what reporting the failures costs during a build: the compile tasks' stderr listeners, the
+ * checkstyle reports parsing, the collection of the build failures and the report files written.
+ *
+ * <p>Recording only adds to counters, from any thread. Once the build finished, the metrics are written as a compact
+ * JSON file next to the failure reports and summarized in a single line of the build log.
+ */
+public final class FailureReportsMetrics {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    // sorted, so that the metrics file is stable from one build to the next
+    private final ConcurrentMap<String, CompileErrorsMetrics> compileTasks = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, ReportFile> reportFiles = new ConcurrentSkipListMap<>();
+    private final LongAdder checkstyleReports = new LongAdder();
+    private final LongAdder checkstyleFailures = new LongAdder();
+    private final LongAdder checkstyleParseNanos = new LongAdder();
+    private final LongAdder failedTasks = new LongAdder();
+    private final LongAdder collectFailuresNanos = new LongAdder();
+
+    public void recordCompileTask(String taskPath, CompileErrorsMetrics compileErrorsMetrics) {
+        compileTasks.put(taskPath, compileErrorsMetrics);
+    }
+
+    public void recordCheckstyleReport(int failures, long parseNanos) {
+        checkstyleReports.increment();
+        checkstyleFailures.add(failures);
+        checkstyleParseNanos.add(parseNanos);
+    }
+
+    public void recordFailedTasks(int count, long collectNanos) {
+        failedTasks.add(count);
+        collectFailuresNanos.add(collectNanos);
+    }
+
+    /**
+     * Records that testCases were written to the junitXmlFile, the size of the files is only read once the metrics are
+     * written.
+     */
+    public void recordReport(File junitXmlFile, JunitReportSharding sharding, int testCases) {
+        reportFiles
+                .computeIfAbsent(junitXmlFile.getName(), _name -> new ReportFile(junitXmlFile, sharding))
+                .testCases
+                .add(testCases);
+    }
+
+    /**
+     * Writes the metrics to the metricsFile and returns their one line summary.
+     */
+    public String write(Path metricsFile) throws IOException {
+        ObjectNode metrics = JSON_MAPPER.createObjectNode();
+
+        long linesInspected = 0;
+        long listenerNanos = 0;
+        int matchedErrors = 0;
+        long bytesInMemory = 0;
+        int spilledErrors = 0;
+        int droppedErrors = 0;
+        ObjectNode tasks = JSON_MAPPER.createObjectNode();
+        for (Map.Entry<String, CompileErrorsMetrics> compileTask : compileTasks.entrySet()) {
+            CompileErrorsMetrics task = compileTask.getValue();
+            linesInspected += task.linesInspected();
+            listenerNanos += task.listenerNanos();
+            matchedErrors += task.matchedErrors();
+            bytesInMemory += task.bytesInMemory();
+            spilledErrors += task.spilledErrors();
+            droppedErrors += task.droppedErrors();
+            // a compact entry per task, most tasks of a large build have none
+            if (task.linesInspected() > 0 || task.matchedErrors() > 0) {
+                tasks.putObject(compileTask.getKey())
+                        .put("lines", task.linesInspected())
+                        .put("errors", task.matchedErrors())
+                        .put("listenerMicros", TimeUnit.NANOSECONDS.toMicros(task.listenerNanos()));
+            }
+        }
+        metrics.putObject("compile")
+                .put("tasks", compileTasks.size())
+                .put("linesInspected", linesInspected)
+                .put("matchedErrors", matchedErrors)
+                .put("listenerMicros", TimeUnit.NANOSECONDS.toMicros(listenerNanos))
+                .put("bytesInMemory", bytesInMemory)
+                .put("spilledErrors", spilledErrors)
+                .put("droppedErrors", droppedErrors)
+                .set("perTask", tasks);
+
+        metrics.putObject("checkstyle")
+                .put("reports", checkstyleReports.sum())
+                .put("failures", checkstyleFailures.sum())
+                .put("parseMicros", TimeUnit.NANOSECONDS.toMicros(checkstyleParseNanos.sum()));
+        metrics.putObject("build")
+                .put("failedTasks", failedTasks.sum())
+                .put("collectMicros", TimeUnit.NANOSECONDS.toMicros(collectFailuresNanos.sum()));
+
+        ObjectNode reports = metrics.putObject("reports");
+        long reportBytes = 0;
+        for (Map.Entry<String, ReportFile> reportFile : reportFiles.entrySet()) {
+            List<Path> files = JunitReporter.listReportFiles(
+                    reportFile.getValue().junitXmlFile, reportFile.getValue().sharding);
+            long bytes = 0;
+            for (Path file : files) {
+                bytes += Files.size(file);
+            }
+            reportBytes += bytes;
+            reports.putObject(reportFile.getKey())
+                    .put("files", files.size())
+                    .put("testCases", reportFile.getValue().testCases.sum())
+                    .put("bytes", bytes);
+        }
+
+        Files.createDirectories(metricsFile.getParent());
+        JSON_MAPPER.writeValue(metricsFile.toFile(), metrics);
+        return String.format(
+                "Failure reports: %d stderr lines inspected in %d ms over %d compile tasks, %d compile errors,"
+                        + " %d checkstyle reports parsed in %d ms, %d failed tasks collected in %d ms,"
+                        + " %d bytes of reports written. See %s",
+                linesInspected,
+                TimeUnit.NANOSECONDS.toMillis(listenerNanos),
+                compileTasks.size(),
+                matchedErrors,
+                checkstyleReports.sum(),
+                TimeUnit.NANOSECONDS.toMillis(checkstyleParseNanos.sum()),
+                failedTasks.sum(),
+                TimeUnit.NANOSECONDS.toMillis(collectFailuresNanos.sum()),
+                reportBytes,
+                metricsFile);
+    }
+
+    private static final class ReportFile {
+        private final File junitXmlFile;
+        private final JunitReportSharding sharding;
+        private final LongAdder testCases = new LongAdder();
+
+        private ReportFile(File junitXmlFile, JunitReportSharding sharding) {
+            this.junitXmlFile = junitXmlFile;
+            this.sharding = sharding;
+        }
+    }
+}
@@ -16,57 +16,183 @@
 
 package com.palantir.gradle.failurereports;
 
-import com.palantir.gradle.failurereports.util.ExtensionUtils;
-import com.palantir.gradle.failurereports.util.PluginResources;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.gradle.failurereports.compile.CompileErrorsAccumulator;
+import com.palantir.gradle.failurereports.compile.StructuredCompileDiagnostics;
+import com.palantir.gradle.failurereports.javac.JavacDiagnosticsFile;
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import org.gradle.api.Action;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
-import org.gradle.api.logging.StandardOutputListener;
+import org.gradle.api.Task;
+import org.gradle.api.file.Directory;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.plugins.quality.Checkstyle;
 import org.gradle.api.provider.Provider;
-import org.gradle.api.tasks.TaskCollection;
+import org.gradle.api.tasks.SourceSetContainer;
 import org.gradle.api.tasks.compile.JavaCompile;
 
 public final class FailureReportsProjectsPlugin implements Plugin<Project> {
 
+    /**
+     * Only applied once the {@link FailureReportsRootPlugin} or the {@link FailureReportsSettingsPlugin} decided that
+     * the failures of the build are reported, so every project shares the build services of the root project.
+     */
     @Override
     public void apply(Project project) {
-        if (!PluginResources.shouldApplyPlugin(project)) {
-            return;
-        }
-        FailureReportsExtension failureReportsExtension =
-                ExtensionUtils.maybeCreate(project, "failureReports", FailureReportsExtension.class);
-        Provider<CompileFailuresService> compileService =
-                CompileFailuresService.getSharedCompileFailuresService(project, failureReportsExtension);
         project.getPluginManager().withPlugin("java", _javaPlugin -> {
-            configureCompileTasks(project, compileService);
+            configureCompileTasks(project);
+        });
+        project.getPluginManager().withPlugin("checkstyle", _checkstylePlugin -> {
+            configureCheckstyleTasks(project);
         });
     }
 
-    private void configureCompileTasks(Project project, Provider<CompileFailuresService> compileService) {
-        TaskCollection<JavaCompile> tasksWithClassType = project.getTasks().withType(JavaCompile.class);
-        tasksWithClassType.configureEach(javaCompileTask -> {
-            javaCompileTask.usesService(compileService);
-            javaCompileTask.getLogging().addStandardErrorListener(new StandardOutputListener() {
-                private Optional<Set<String>> sourcePathsCache = Optional.empty();
+    private void configureCompileTasks(Project project) {
+        // most projects of a large build never realize their compile tasks, so nothing is looked up before that
+        Supplier<Provider<CompileFailuresService>> compileService =
+                Suppliers.memoize(() -> CompileFailuresService.getSharedCompileFailuresService(project));
+        // resolving the annotation processor paths must not create the build service
+        Provider<Boolean> structuredCompileDiagnostics =
+                CompileFailuresService.getStructuredCompileDiagnostics(project);
+        StructuredCompileDiagnostics.configureAnnotationProcessorPaths(project, structuredCompileDiagnostics);
+        project.getTasks().withType(JavaCompile.class).configureEach(javaCompileTask -> {
+            javaCompileTask.usesService(compileService.get());
+            StructuredCompileDiagnostics.configure(project, javaCompileTask, structuredCompileDiagnostics);
+            String taskName = javaCompileTask.getName();
+            javaCompileTask.doFirst(new CollectCompileErrorsAction(
+                    compileService.get(),
+                    structuredCompileDiagnostics,
+                    StructuredCompileDiagnostics.isForkedCompiler(project, javaCompileTask),
+                    project.getProviders()
+                            .provider(() -> getSourceSetRoots(
+                                    project.getExtensions().getByType(SourceSetContainer.class), taskName)),
+                    javaCompileTask.getSource(),
+                    javaCompileTask.getOptions().getGeneratedSourceOutputDirectory(),
+                    StructuredCompileDiagnostics.getDiagnosticsFile(project, javaCompileTask)));
+        });
+    }
 
-                @Override
-                public void onOutput(CharSequence charSequence) {
-                    compileService
-                            .get()
-                            .maybeCollectErrorMessage(
-                                    javaCompileTask, charSequence, sourcePathsCache.orElseGet(this::getSourcePaths));
-                }
+    private void configureCheckstyleTasks(Project project) {
+        Supplier<Provider<CheckstyleReportsService>> checkstyleReportsService =
+                Suppliers.memoize(() -> CheckstyleReportsService.getSharedCheckstyleReportsService(project));
+        project.getTasks().withType(Checkstyle.class).configureEach(checkstyleTask -> {
+            checkstyleTask.usesService(checkstyleReportsService.get());
+            checkstyleTask.doFirst(new RegisterCheckstyleReportAction(
+                    checkstyleReportsService.get(), checkstyleTask.getReports().getXml().getOutputLocation()));
+        });
+    }
+
+    /**
+     * Hands a new {@link CompileErrorsAccumulator} to the stderr listener for every execution of the task, or to the
+     * javac plugin recording the structured diagnostics. The listener is removed by Gradle once the task finished.
+     * Not a lambda, as these make the task not cacheable. Only holds on to providers and file collections, so that it
+     * can be stored in the configuration cache.
+     */
+    private static final class CollectCompileErrorsAction implements Action<Task> {
+        private final Provider<CompileFailuresService> compileService;
+        private final Provider<Boolean> structuredCompileDiagnostics;
+        private final Provider<Boolean> forkedCompiler;
+        private final Provider<Set<File>> sourceSetRoots;
+        private final FileCollection source;
+        private final Provider<Directory> generatedSourceOutputDirectory;
+        private final Provider<RegularFile> diagnosticsFile;
+
+        private CollectCompileErrorsAction(
+                Provider<CompileFailuresService> compileService,
+                Provider<Boolean> structuredCompileDiagnostics,
+                Provider<Boolean> forkedCompiler,
+                Provider<Set<File>> sourceSetRoots,
+                FileCollection source,
+                Provider<Directory> generatedSourceOutputDirectory,
+                Provider<RegularFile> diagnosticsFile) {
+            this.compileService = compileService;
+            this.structuredCompileDiagnostics = structuredCompileDiagnostics;
+            this.forkedCompiler = forkedCompiler;
+            this.sourceSetRoots = sourceSetRoots;
+            this.source = source;
+            this.generatedSourceOutputDirectory = generatedSourceOutputDirectory;
+            this.diagnosticsFile = diagnosticsFile;
+        }
 
-                private Set<String> getSourcePaths() {
-                    this.sourcePathsCache = Optional.of(javaCompileTask.getSource().getFiles().stream()
-                            .map(File::getAbsolutePath)
-                            .collect(Collectors.toSet()));
-                    return sourcePathsCache.get();
+        @Override
+        public void execute(Task task) {
+            CompileErrorsAccumulator compileErrorsAccumulator =
+                    compileService.get().startCollectingCompileErrors(task.getPath(), getSourceRoots());
+            if (structuredCompileDiagnostics.get()
+                    && StructuredCompileDiagnostics.canLoadJavacPlugin(forkedCompiler.get())) {
+                compileErrorsAccumulator.collectJavacDiagnostics(createDiagnosticsFile());
+            } else {
+                if (structuredCompileDiagnostics.get()) {
+                    StructuredCompileDiagnostics.warnMissingExports(task.getPath());
                 }
-            });
-        });
+                task.getLogging().addStandardErrorListener(compileErrorsAccumulator::onOutput);
+            }
+        }
+
+        private JavacDiagnosticsFile createDiagnosticsFile() {
+            Path diagnosticsFilePath = diagnosticsFile.get().getAsFile().toPath();
+            try {
+                // the diagnostics of the previous execution
+                Files.deleteIfExists(diagnosticsFilePath);
+                Files.createDirectories(diagnosticsFilePath.getParent());
+            } catch (IOException e) {
+                throw new UncheckedIOException(
+                        "Unable to prepare the javac diagnostics file " + diagnosticsFilePath, e);
+            }
+            return new JavacDiagnosticsFile(diagnosticsFilePath);
+        }
+
+        private Set<File> getSourceRoots() {
+            ImmutableSet.Builder<File> sourceRoots = ImmutableSet.builder();
+            Set<File> roots = sourceSetRoots.get();
+            if (roots.isEmpty()) {
+                // the task is not backed by a source set, the only way to find its roots is to look at its files
+                source.getFiles().stream().map(File::getParentFile).forEach(sourceRoots::add);
+            }
+            sourceRoots.addAll(roots);
+            Optional.ofNullable(generatedSourceOutputDirectory.map(Directory::getAsFile).getOrNull())
+                    .ifPresent(sourceRoots::add);
+            return sourceRoots.build();
+        }
+    }
+
+    /**
+     * Registers the XML report of the task to the {@link CheckstyleReportsService}, so that it can be reported if the
+     * task fails. Not a lambda, as these make the task not cacheable.
+     */
+    private static final class RegisterCheckstyleReportAction implements Action<Task> {
+        private final Provider<CheckstyleReportsService> checkstyleReportsService;
+        private final Provider<RegularFile> checkstyleReportXml;
+
+        private RegisterCheckstyleReportAction(
+                Provider<CheckstyleReportsService> checkstyleReportsService,
+                Provider<RegularFile> checkstyleReportXml) {
+            this.checkstyleReportsService = checkstyleReportsService;
+            this.checkstyleReportXml = checkstyleReportXml;
+        }
+
+        @Override
+        public void execute(Task task) {
+            checkstyleReportsService
+                    .get()
+                    .registerCheckstyleReport(task.getPath(), checkstyleReportXml.get().getAsFile());
+        }
+    }
+
+    private static Set<File> getSourceSetRoots(SourceSetContainer sourceSets, String compileTaskName) {
+        return sourceSets.stream()
+                .filter(sourceSet -> sourceSet.getCompileJavaTaskName().equals(compileTaskName))
+                .flatMap(sourceSet -> sourceSet.getJava().getSrcDirs().stream())
+                .collect(ImmutableSet.toImmutableSet());
     }
 }
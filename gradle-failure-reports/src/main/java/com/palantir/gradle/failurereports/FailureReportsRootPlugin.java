@@ -16,22 +16,31 @@
 
 package com.palantir.gradle.failurereports;
 
+import com.palantir.gradle.failurereports.common.StackTraceFormatter;
+import com.palantir.gradle.failurereports.junit.JunitReportSharding;
 import com.palantir.gradle.failurereports.util.ExtensionUtils;
 import com.palantir.gradle.failurereports.util.PluginResources;
+import javax.inject.Inject;
 import org.gradle.BuildListener;
 import org.gradle.BuildResult;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.initialization.Settings;
 import org.gradle.api.invocation.Gradle;
+import org.gradle.api.provider.Provider;
+import org.gradle.build.event.BuildEventsListenerRegistry;
 import org.gradle.util.GradleVersion;
 
-public final class FailureReportsRootPlugin implements Plugin<Project> {
+public abstract class FailureReportsRootPlugin implements Plugin<Project> {
 
     private static final GradleVersion GRADLE_FLOW_ACTIONS_ENABLED = GradleVersion.version("8.6");
 
+    @Inject
+    protected abstract BuildEventsListenerRegistry getBuildEventsListenerRegistry();
+
     @Override
-    public void apply(Project project) {
+    public final void apply(Project project) {
+        // the only place deciding whether the failures are reported, the other plugins are applied from here
         if (!PluginResources.shouldApplyPlugin(project)) {
             return;
         }
@@ -40,11 +49,33 @@ public final class FailureReportsRootPlugin implements Plugin<Project> {
         }
         FailureReportsExtension failureReportsExtension =
                 ExtensionUtils.maybeCreate(project, "failureReports", FailureReportsExtension.class);
-        CompileFailuresService.getSharedCompileFailuresService(project, failureReportsExtension);
+        if (PluginResources.reportsAllCircleNodes(project)) {
+            PluginResources.maybeGetCircleNode(project).ifPresent(failureReportsExtension::useCircleNodeReportFiles);
+        }
+        registerMergeFailureReportsTask(project, failureReportsExtension);
+        Provider<CompileFailuresService> compileFailuresService =
+                CompileFailuresService.getSharedCompileFailuresService(project, failureReportsExtension);
+        getBuildEventsListenerRegistry().onTaskCompletion(compileFailuresService);
+        Provider<CheckstyleReportsService> checkstyleReportsService =
+                CheckstyleReportsService.getSharedCheckstyleReportsService(project);
+        // reads the reports of the failed checkstyle tasks while the rest of the build runs
+        getBuildEventsListenerRegistry().onTaskCompletion(checkstyleReportsService);
 
-        project.allprojects(subproject -> subproject.getPluginManager().apply(FailureReportsProjectsPlugin.class));
-        if (GradleVersion.version(project.getGradle().getGradleVersion()).compareTo(GRADLE_FLOW_ACTIONS_ENABLED) >= 0) {
+        // the FailureReportsSettingsPlugin applies the projects plugin to every project itself, which isolated
+        // projects require, while this plugin applied on its own can only fall back to allprojects
+        if (!project.getPlugins().hasPlugin(FailureReportsProjectsPlugin.class)) {
+            project.allprojects(
+                    subproject -> subproject.getPluginManager().apply(FailureReportsProjectsPlugin.class));
+        }
+        GradleVersion gradleVersion = GradleVersion.version(project.getGradle().getGradleVersion());
+        if (gradleVersion.compareTo(GRADLE_FLOW_ACTIONS_ENABLED) >= 0) {
             project.getPluginManager().apply(FailureReportsFlowActionsPlugin.class);
+        } else if (project.getGradle().getStartParameter().isConfigurationCacheRequested()) {
+            // build listeners are not supported by the configuration cache
+            project.getLogger()
+                    .warn(
+                            "Only the compile failures are reported with the configuration cache before Gradle {}",
+                            GRADLE_FLOW_ACTIONS_ENABLED.getVersion());
         } else {
             project.getGradle().addBuildListener(new BuildListener() {
                 @Override
@@ -59,13 +90,54 @@ public final class FailureReportsRootPlugin implements Plugin<Project> {
                 @Override
                 public void buildFinished(BuildResult result) {
                     BuildFailureReporter.report(
-                            failureReportsExtension
-                                    .getFailureReportOutputFile()
-                                    .getAsFile()
-                                    .get(),
+                            BuildFailureReportSettings.builder()
+                                    .outputFile(failureReportsExtension
+                                            .getFailureReportOutputFile()
+                                            .getAsFile()
+                                            .get())
+                                    .prettyPrint(failureReportsExtension.getPrettyPrintReports().get())
+                                    .sharding(JunitReportSharding.builder()
+                                            .maxBytesPerShard(failureReportsExtension
+                                                    .getMaxReportShardBytes()
+                                                    .get())
+                                            .maxTestCasesPerShard(failureReportsExtension
+                                                    .getMaxReportShardTestCases()
+                                                    .get())
+                                            .shardByProject(failureReportsExtension
+                                                    .getShardReportsByProject()
+                                                    .get())
+                                            .build())
+                                    .checkstyleReportsService(checkstyleReportsService.get())
+                                    .stackTraceFormatter(new StackTraceFormatter(
+                                            failureReportsExtension
+                                                    .getElidedStackFramePrefixes()
+                                                    .get(),
+                                            failureReportsExtension
+                                                    .getMaxStackFramesPerReport()
+                                                    .get()))
+                                    .metrics(compileFailuresService.get().getMetrics())
+                                    .build(),
                             result.getFailure());
                 }
             });
         }
     }
+
+    private static void registerMergeFailureReportsTask(
+            Project project, FailureReportsExtension failureReportsExtension) {
+        project.getTasks().register(MergeFailureReportsTask.NAME, MergeFailureReportsTask.class, task -> {
+            // the node suffixed reports, and their shards
+            task.getNodeReports()
+                    .from(project.getLayout()
+                            .getBuildDirectory()
+                            .dir("failure-reports")
+                            .map(directory -> directory
+                                    .getAsFileTree()
+                                    .matching(patterns -> patterns.include(
+                                            "*-node-*-TEST.xml", "*-node-*-TEST/*-TEST.xml"))));
+            task.getMergedReport()
+                    .convention(project.getLayout().getBuildDirectory().file("failure-reports-merged/merged-TEST.xml"));
+            task.getPrettyPrint().convention(failureReportsExtension.getPrettyPrintReports());
+        });
+    }
 }
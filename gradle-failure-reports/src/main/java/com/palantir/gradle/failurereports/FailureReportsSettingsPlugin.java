@@ -0,0 +1,76 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports;
+
+import com.palantir.gradle.failurereports.util.PluginResources;
+import javax.inject.Inject;
+import org.gradle.api.IsolatedAction;
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.initialization.Settings;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.util.GradleVersion;
+
+/**
+ * Applies the {@link FailureReportsRootPlugin} to the root project and the {@link FailureReportsProjectsPlugin} to
+ * every project from the settings, so that no project configures another one, which isolated projects forbid. The
+ * lifecycle callbacks doing so can only be registered before the projects are loaded, hence a settings plugin.
+ *
+ * <p>Before Gradle 8.8, which has no lifecycle callbacks, the root plugin is applied on its own and falls back to
+ * applying the projects plugin to the other projects itself.
+ */
+public abstract class FailureReportsSettingsPlugin implements Plugin<Settings> {
+
+    private static final GradleVersion GRADLE_LIFECYCLE_ENABLED = GradleVersion.version("8.8");
+
+    @Inject
+    protected abstract ObjectFactory getObjectFactory();
+
+    @Override
+    public final void apply(Settings settings) {
+        if (!PluginResources.shouldApplyPlugin(getObjectFactory(), settings.getProviders())) {
+            return;
+        }
+        Gradle gradle = settings.getGradle();
+        if (GradleVersion.version(gradle.getGradleVersion()).compareTo(GRADLE_LIFECYCLE_ENABLED) >= 0) {
+            ApplyPluginsAction.register(gradle);
+        } else {
+            gradle.rootProject(rootProject -> rootProject.getPluginManager().apply(FailureReportsRootPlugin.class));
+        }
+    }
+
+    /**
+     * Applies the plugins to every project before it is evaluated, the projects plugin first so that the root plugin
+     * does not apply it to the other projects. Kept in its own class, as the lifecycle callbacks only exist since
+     * Gradle 8.8.
+     */
+    private static final class ApplyPluginsAction implements IsolatedAction<Project> {
+
+        static void register(Gradle gradle) {
+            gradle.getLifecycle().beforeProject(new ApplyPluginsAction());
+        }
+
+        @Override
+        public void execute(Project project) {
+            project.getPluginManager().apply(FailureReportsProjectsPlugin.class);
+            if (Project.PATH_SEPARATOR.equals(project.getPath())) {
+                project.getPluginManager().apply(FailureReportsRootPlugin.class);
+            }
+        }
+    }
+}
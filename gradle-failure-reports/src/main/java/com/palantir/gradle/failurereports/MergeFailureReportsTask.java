@@ -0,0 +1,82 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports;
+
+import com.palantir.gradle.failurereports.junit.JunitReportMerger;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.DisableCachingByDefault;
+
+/**
+ * Merges the failure reports written by the nodes of a parallel CircleCI job into a single report, see
+ * {@link JunitReportMerger}. Meant to run in a job collecting the reports of all the nodes, e.g. from a workspace.
+ */
+@DisableCachingByDefault(because = "Merging the reports is faster than downloading them from a cache")
+public abstract class MergeFailureReportsTask extends DefaultTask {
+
+    static final String NAME = "mergeFailureReports";
+
+    /**
+     * The JUNIT XML reports of the nodes, by default the node suffixed reports and their shards in the failure
+     * reports directory.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getNodeReports();
+
+    /**
+     * The merged JUNIT XML report, by default {@code failure-reports-merged/merged-TEST.xml} in the build directory.
+     * It is kept out of the failure reports directory, so that collecting the {@code *-TEST.xml} files of that
+     * directory does not count every failure twice.
+     */
+    @OutputFile
+    public abstract RegularFileProperty getMergedReport();
+
+    @Input
+    public abstract Property<Boolean> getPrettyPrint();
+
+    @TaskAction
+    public final void merge() {
+        File mergedReport = getMergedReport().getAsFile().get();
+        List<File> nodeReports = List.copyOf(getNodeReports().getFiles());
+        JunitReportMerger junitReportMerger = new JunitReportMerger();
+        try {
+            junitReportMerger.merge(nodeReports, mergedReport, getPrettyPrint().get());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to merge the failure reports", e);
+        }
+        getLogger()
+                .lifecycle(
+                        "Merged {} failures from {} reports into {}, dropping {} duplicates",
+                        junitReportMerger.getMergedTestCases(),
+                        nodeReports.size(),
+                        mergedReport,
+                        junitReportMerger.getDuplicateTestCases());
+    }
+}
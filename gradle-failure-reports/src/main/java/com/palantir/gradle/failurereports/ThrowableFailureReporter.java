@@ -17,8 +17,11 @@
 package com.palantir.gradle.failurereports;
 
 import com.google.common.base.Throwables;
+import com.palantir.gradle.failurereports.common.BoundedAppendable;
 import com.palantir.gradle.failurereports.common.FailureReport;
 import com.palantir.gradle.failurereports.common.FailureReporterResources;
+import com.palantir.gradle.failurereports.common.LazyFailureReport;
+import com.palantir.gradle.failurereports.common.StackTraceFormatter;
 import com.palantir.gradle.failurereports.common.ThrowableResources;
 import com.palantir.gradle.failurereports.exceptions.FailureReporterException;
 import java.util.Optional;
@@ -26,27 +29,46 @@ import org.gradle.api.Task;
 
 public final class ThrowableFailureReporter {
 
-    public static <T extends Task> FailureReport getFailureReport(T task) {
+    public static <T extends Task> FailureReport getFailureReport(T task, StackTraceFormatter stackTraceFormatter) {
         Throwable throwable = task.getState().getFailure();
-        return getFailureReport(throwable, task.getPath());
+        return getFailureReport(throwable, task.getPath(), stackTraceFormatter);
     }
 
     static FailureReport getFailureReport(Throwable throwable, String taskPath) {
+        return getFailureReport(throwable, taskPath, StackTraceFormatter.DEFAULT);
+    }
+
+    static FailureReport getFailureReport(
+            Throwable throwable, String taskPath, StackTraceFormatter stackTraceFormatter) {
+        return getLazyFailureReport(throwable, taskPath, stackTraceFormatter).toFailureReport();
+    }
+
+    /**
+     * The {@link FailureReporterException}s format their own report, so the stackTraceFormatter only applies to the
+     * generic exceptions. The error message is only formatted once the report is written.
+     */
+    static LazyFailureReport getLazyFailureReport(
+            Throwable throwable, String taskPath, StackTraceFormatter stackTraceFormatter) {
         // try to get the last FailureReporterException in the causal chain
         Optional<FailureReporterException> maybeFailureReporterException = Throwables.getCausalChain(throwable).stream()
                 .filter(FailureReporterException.class::isInstance)
                 .map(FailureReporterException.class::cast)
                 .findFirst();
-        return maybeFailureReporterException
-                .map(exception -> exception.getTaskFailureReport(taskPath, throwable))
-                .orElseGet(() -> getGenericExceptionReport(taskPath, throwable));
+        LazyFailureReport failureReport = maybeFailureReporterException
+                .map(exception -> exception.getLazyTaskFailureReport(taskPath, throwable))
+                .orElseGet(() -> getGenericExceptionReport(taskPath, throwable, stackTraceFormatter));
+        return LazyFailureReport.builder().from(failureReport).taskPath(taskPath).build();
     }
 
-    private static FailureReport getGenericExceptionReport(String taskPath, Throwable throwable) {
-        return FailureReport.builder()
+    private static LazyFailureReport getGenericExceptionReport(
+            String taskPath, Throwable throwable, StackTraceFormatter stackTraceFormatter) {
+        return LazyFailureReport.builder()
                 .header(FailureReporterResources.getTaskErrorHeader(taskPath, throwable))
                 .clickableSource(taskPath)
-                .errorMessage(ThrowableResources.formatThrowableWithMessage(throwable))
+                .errorMessageWriter(output -> ThrowableResources.appendThrowableWithMessage(
+                        new BoundedAppendable(output, ThrowableResources.MAX_FORMATTED_LENGTH),
+                        throwable,
+                        stackTraceFormatter))
                 .build();
     }
 
@@ -0,0 +1,42 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.checkstyle;
+
+import com.palantir.gradle.failurereports.common.ImmutablesStyle;
+import org.immutables.value.Value;
+
+/**
+ * A single {@code <error>} of a Checkstyle XML report, along with the {@code <file>} it was reported for.
+ */
+@ImmutablesStyle
+@Value.Immutable
+public interface CheckstyleError {
+
+    String fileName();
+
+    int line();
+
+    String severity();
+
+    String message();
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    final class Builder extends ImmutableCheckstyleError.Builder {}
+}
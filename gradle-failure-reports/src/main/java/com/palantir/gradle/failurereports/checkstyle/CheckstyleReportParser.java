@@ -0,0 +1,128 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.checkstyle;
+
+import com.ctc.wstx.stax.WstxInputFactory;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Streams the errors out of the XML report of a Checkstyle task (eg. build/checkstyle/main.xml), see:
+ * https://github.com/checkstyle/checkstyle/blob/253430250fe784998d1b9d8a1c1b54c452751154/
+ * src/main/java/com/puppycrawl/tools/checkstyle/XMLLogger.java#L157.
+ *
+ * <p>Checkstyle writes a {@code <file>} element for every checked file, so the report of a large module is mostly
+ * made of empty elements: the report is pulled one element at a time and only the errors are materialized.
+ */
+public final class CheckstyleReportParser {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    /**
+     * Lazily reads the errors of the checkstyleReportXml, in order. The returned stream must be closed.
+     */
+    public static Stream<CheckstyleError> readErrors(File checkstyleReportXml) throws IOException {
+        InputStream inputStream = new BufferedInputStream(Files.newInputStream(checkstyleReportXml.toPath()));
+        try {
+            XMLStreamReader xmlStreamReader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+            CheckstyleErrorSpliterator spliterator =
+                    new CheckstyleErrorSpliterator(checkstyleReportXml, xmlStreamReader);
+            return StreamSupport.stream(spliterator, false).onClose(() -> {
+                try {
+                    xmlStreamReader.close();
+                    inputStream.close();
+                } catch (XMLStreamException | IOException e) {
+                    throw new UncheckedIOException(
+                            new IOException("Unable to close the checkstyle report " + checkstyleReportXml, e));
+                }
+            });
+        } catch (XMLStreamException | RuntimeException e) {
+            inputStream.close();
+            throw new IOException("Unable to read the checkstyle report " + checkstyleReportXml, e);
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory xmlInputFactory = new WstxInputFactory();
+        xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        return xmlInputFactory;
+    }
+
+    private static final class CheckstyleErrorSpliterator extends Spliterators.AbstractSpliterator<CheckstyleError> {
+        private final File checkstyleReportXml;
+        private final XMLStreamReader xmlStreamReader;
+        private String fileName;
+
+        CheckstyleErrorSpliterator(File checkstyleReportXml, XMLStreamReader xmlStreamReader) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.checkstyleReportXml = checkstyleReportXml;
+            this.xmlStreamReader = xmlStreamReader;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super CheckstyleError> action) {
+            CheckstyleError checkstyleError;
+            try {
+                checkstyleError = readNextError();
+            } catch (XMLStreamException | RuntimeException e) {
+                throw new UncheckedIOException(
+                        new IOException("Unable to read the checkstyle report " + checkstyleReportXml, e));
+            }
+            if (checkstyleError == null) {
+                return false;
+            }
+            action.accept(checkstyleError);
+            return true;
+        }
+
+        private CheckstyleError readNextError() throws XMLStreamException {
+            while (xmlStreamReader.hasNext()) {
+                if (xmlStreamReader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String elementName = xmlStreamReader.getLocalName();
+                if (elementName.equals("file")) {
+                    fileName = xmlStreamReader.getAttributeValue(null, "name");
+                } else if (elementName.equals("error") && fileName != null) {
+                    return CheckstyleError.builder()
+                            .fileName(fileName)
+                            .line(Integer.parseInt(xmlStreamReader.getAttributeValue(null, "line")))
+                            .severity(xmlStreamReader.getAttributeValue(null, "severity"))
+                            .message(xmlStreamReader.getAttributeValue(null, "message"))
+                            .build();
+                }
+            }
+            return null;
+        }
+    }
+
+    private CheckstyleReportParser() {}
+}
@@ -0,0 +1,65 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.compile;
+
+import com.palantir.gradle.failurereports.common.FailureReport;
+import com.palantir.gradle.failurereports.common.FailureReporterResources;
+import com.palantir.gradle.failurereports.common.ImmutablesStyle;
+import java.nio.file.Path;
+import org.immutables.value.Value;
+
+/**
+ * A single javac error diagnostic, cut out of the compiler output by the {@link JavacOutputParser}.
+ */
+@ImmutablesStyle
+@Value.Immutable
+public interface CompileError {
+
+    /**
+     * The absolute path of the source file as printed by javac.
+     */
+    String sourcePath();
+
+    int lineNumber();
+
+    /**
+     * The first line of the diagnostic, starting from the {@code error:} severity.
+     */
+    String message();
+
+    /**
+     * The full diagnostic text: the header line followed by the source excerpt and any extra details.
+     */
+    String text();
+
+    default FailureReport toFailureReport(Path rootDir, String taskPath) {
+        return FailureReport.builder()
+                .header(FailureReporterResources.sourceFileWithErrorMessage(
+                        FailureReporterResources.getFileName(sourcePath()), lineNumber(), message()))
+                .clickableSource(FailureReporterResources.getRelativePathWithLineNumber(
+                        rootDir, Path.of(sourcePath()), lineNumber()))
+                .errorMessage(text())
+                .taskPath(taskPath)
+                .build();
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    final class Builder extends ImmutableCompileError.Builder {}
+}
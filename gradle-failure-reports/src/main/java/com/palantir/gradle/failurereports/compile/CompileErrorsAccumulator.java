@@ -0,0 +1,238 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.compile;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.gradle.failurereports.common.FailureReport;
+import com.palantir.gradle.failurereports.common.FailureReporterResources;
+import com.palantir.gradle.failurereports.javac.FailureReportsJavacPlugin;
+import com.palantir.gradle.failurereports.javac.JavacDiagnosticsFile;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Accumulates the javac errors of a single execution of a compile task.
+ *
+ * <p>It is created on the thread executing the task when it starts, and is owned by the task's stderr listener, so
+ * collecting the output does not go through any shared state. When running in parallel, the listener also receives
+ * the output of other tasks (see: https://github.com/gradle/gradle/issues/6068), which is parsed by the listeners of
+ * the tasks that printed it. The output of the task is told apart by the thread printing it: javac prints on the
+ * thread executing the task, unless it runs in a worker process, whose output Gradle prints from another thread. The
+ * accumulator then follows the first other thread printing a diagnostic of the task's sources. This way, a single
+ * {@link JavacOutputParser} is only ever fed by one thread, without locking.
+ *
+ * <p>The complete errors are kept within the limits of the {@link CompileErrorsBudget}, the dropped ones are
+ * reported by {@link #truncationReport()}.
+ */
+public final class CompileErrorsAccumulator {
+
+    // only one chunk out of LISTENER_TIMING_SAMPLE is timed, so that the timing does not cost more than the parsing
+    private static final int LISTENER_TIMING_SAMPLE = 64;
+
+    private final String taskPath;
+    private final CompileErrorsBudget compileErrorsBudget;
+    private final Predicate<String> isTaskSource;
+    private final JavacOutputParser javacOutputParser;
+    private final Thread taskThread;
+    private final AtomicReference<Thread> emittingThread;
+
+    // only accessed by the emitting thread, then by finish() once the task finished
+    private long chunks = 0;
+    private long sampledListenerNanos = 0;
+
+    // guarded by this, only updated once per complete error
+    private final List<CompileError> compileErrors = new ArrayList<>();
+    private final List<Long> spilledCompileErrorOffsets = new ArrayList<>();
+    private int keptErrors = 0;
+    private long keptBytes = 0;
+    private long bytesInMemory = 0;
+    private int droppedErrors = 0;
+    private JavacDiagnosticsFile javacDiagnosticsFile;
+
+    /**
+     * Must be created on the thread executing the task.
+     */
+    public CompileErrorsAccumulator(
+            String taskPath, SourceRootsIndex sourceRootsIndex, CompileErrorsBudget compileErrorsBudget) {
+        this.taskPath = taskPath;
+        this.compileErrorsBudget = compileErrorsBudget;
+        this.isTaskSource = sourcePath -> sourceRootsIndex.isCompiledBy(sourcePath, taskPath);
+        this.javacOutputParser = new JavacOutputParser(isTaskSource, this::onCompileError);
+        this.taskThread = Thread.currentThread();
+        this.emittingThread = new AtomicReference<>(taskThread);
+    }
+
+    public String getTaskPath() {
+        return taskPath;
+    }
+
+    public void onOutput(CharSequence charSequence) {
+        Thread thread = Thread.currentThread();
+        if (thread != emittingThread.get() && !maybeFollowWorkerOutput(thread, charSequence)) {
+            return;
+        }
+        if (chunks++ % LISTENER_TIMING_SAMPLE != 0) {
+            javacOutputParser.onOutput(charSequence);
+            return;
+        }
+        long start = System.nanoTime();
+        javacOutputParser.onOutput(charSequence);
+        sampledListenerNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Switches to the thread printing the output of the worker process running javac, the first time another thread
+     * than the task's prints a diagnostic of the task's sources, which the output of other tasks never holds.
+     */
+    private boolean maybeFollowWorkerOutput(Thread thread, CharSequence charSequence) {
+        return emittingThread.get() == taskThread
+                && JavacOutputParser.containsTaskDiagnostic(charSequence, isTaskSource)
+                && emittingThread.compareAndSet(taskThread, thread);
+    }
+
+    /**
+     * Reads the errors recorded by the {@link FailureReportsJavacPlugin} in javacDiagnosticsFile once the task
+     * finished, in addition to the ones parsed out of the output.
+     */
+    public synchronized void collectJavacDiagnostics(JavacDiagnosticsFile diagnosticsFile) {
+        this.javacDiagnosticsFile = diagnosticsFile;
+    }
+
+    /**
+     * Flushes the pending output and returns all the errors kept so far, including the spilled ones. Must be called
+     * once the task finished.
+     */
+    public List<CompileError> finish() {
+        javacOutputParser.finish();
+        synchronized (this) {
+            if (javacDiagnosticsFile != null) {
+                readJavacDiagnostics(javacDiagnosticsFile);
+                javacDiagnosticsFile = null;
+            }
+            ImmutableList.Builder<CompileError> allCompileErrors = ImmutableList.builder();
+            allCompileErrors.addAll(compileErrors);
+            for (long offset : spilledCompileErrorOffsets) {
+                allCompileErrors.add(readSpilled(offset));
+            }
+            return allCompileErrors.build();
+        }
+    }
+
+    /**
+     * What collecting the errors of the task cost so far, must be called once the task finished and before
+     * {@link #discard()}. The time spent in the listener is extrapolated from the timed chunks.
+     */
+    public synchronized CompileErrorsMetrics metrics() {
+        long timedChunks = (chunks + LISTENER_TIMING_SAMPLE - 1) / LISTENER_TIMING_SAMPLE;
+        return CompileErrorsMetrics.builder()
+                .linesInspected(javacOutputParser.getLinesInspected())
+                .listenerNanos(timedChunks == 0 ? 0 : sampledListenerNanos * chunks / timedChunks)
+                .matchedErrors(keptErrors + droppedErrors)
+                .bytesInMemory(bytesInMemory)
+                .spilledErrors(spilledCompileErrorOffsets.size())
+                .droppedErrors(droppedErrors)
+                .build();
+    }
+
+    /**
+     * Drops the errors kept so far and gives their memory back to the {@link CompileErrorsBudget}, once they have been
+     * reported.
+     */
+    public synchronized void discard() {
+        compileErrors.clear();
+        spilledCompileErrorOffsets.clear();
+        compileErrorsBudget.releaseMemory(bytesInMemory);
+        bytesInMemory = 0;
+    }
+
+    /**
+     * Reports how many errors were dropped because of the {@link CompileErrorsBudget} limits, if any.
+     */
+    public synchronized Optional<FailureReport> truncationReport() {
+        if (droppedErrors == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(FailureReport.builder()
+                .header(FailureReporterResources.getTaskErrorHeader(
+                        taskPath, String.format("%d more compile errors were not reported", droppedErrors)))
+                .clickableSource(taskPath)
+                .errorMessage(String.format(
+                        "%d compile errors were not reported, as the failure report keeps at most %d errors and %d"
+                                + " bytes of errors per task, and %d errors for the whole build. All the errors are"
+                                + " printed in the output of %s.",
+                        droppedErrors,
+                        compileErrorsBudget.maxErrorsPerTask(),
+                        compileErrorsBudget.maxBytesPerTask(),
+                        compileErrorsBudget.maxErrors(),
+                        taskPath))
+                .taskPath(taskPath)
+                .build());
+    }
+
+    private synchronized void onCompileError(CompileError compileError) {
+        long size = CompileErrorsBudget.estimateSize(compileError);
+        if (keptErrors >= compileErrorsBudget.maxErrorsPerTask()
+                || keptBytes + size > compileErrorsBudget.maxBytesPerTask()
+                || !compileErrorsBudget.tryReserveError()) {
+            droppedErrors++;
+            return;
+        }
+        keptErrors++;
+        keptBytes += size;
+        // once spilling, a smaller error may still fit in memory, spilling it too keeps the errors in order
+        if (spilledCompileErrorOffsets.isEmpty() && compileErrorsBudget.tryReserveMemory(size)) {
+            compileErrors.add(compileError);
+            bytesInMemory += size;
+            return;
+        }
+        try {
+            spilledCompileErrorOffsets.add(compileErrorsBudget.spill(compileError));
+        } catch (IOException e) {
+            // never fail the task because of the report, the error is only counted in the truncation report
+            keptErrors--;
+            keptBytes -= size;
+            compileErrorsBudget.releaseError();
+            droppedErrors++;
+        }
+    }
+
+    private void readJavacDiagnostics(JavacDiagnosticsFile diagnosticsFile) {
+        try {
+            diagnosticsFile.read((sourcePath, lineNumber, message, text) -> onCompileError(CompileError.builder()
+                    .sourcePath(sourcePath)
+                    .lineNumber(lineNumber)
+                    .message(message)
+                    .text(text)
+                    .build()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the javac diagnostics of " + taskPath, e);
+        }
+    }
+
+    private CompileError readSpilled(long offset) {
+        try {
+            return compileErrorsBudget.readSpilled(offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read a spilled compile error of " + taskPath, e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.compile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The limits on the compile errors kept for the failure report, shared by all the compile tasks of the build.
+ *
+ * <p>Errors over the per-task or the total limits are dropped and only counted. Errors within the limits are kept
+ * in memory until the in-memory budget is exhausted, and then spilled to a file, so that the memory held by the
+ * daemon stays bounded however broken the build is. Sizes are approximated by the number of characters.
+ */
+public final class CompileErrorsBudget implements Closeable {
+
+    private final int maxErrorsPerTask;
+    private final long maxBytesPerTask;
+    private final int maxErrors;
+    private final long maxBytesInMemory;
+    private final CompileErrorsSpillFile spillFile;
+    private final AtomicInteger errors = new AtomicInteger();
+    private final AtomicLong bytesInMemory = new AtomicLong();
+
+    public CompileErrorsBudget(
+            int maxErrorsPerTask, long maxBytesPerTask, int maxErrors, long maxBytesInMemory, Path spillFile) {
+        this.maxErrorsPerTask = maxErrorsPerTask;
+        this.maxBytesPerTask = maxBytesPerTask;
+        this.maxErrors = maxErrors;
+        this.maxBytesInMemory = maxBytesInMemory;
+        this.spillFile = new CompileErrorsSpillFile(spillFile);
+    }
+
+    int maxErrorsPerTask() {
+        return maxErrorsPerTask;
+    }
+
+    long maxBytesPerTask() {
+        return maxBytesPerTask;
+    }
+
+    int maxErrors() {
+        return maxErrors;
+    }
+
+    boolean tryReserveError() {
+        int current;
+        do {
+            current = errors.get();
+            if (current >= maxErrors) {
+                return false;
+            }
+        } while (!errors.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Gives back an error reserved by {@link #tryReserveError()} that could not be kept after all.
+     */
+    void releaseError() {
+        errors.decrementAndGet();
+    }
+
+    boolean tryReserveMemory(long bytes) {
+        long current;
+        do {
+            current = bytesInMemory.get();
+            if (current + bytes > maxBytesInMemory) {
+                return false;
+            }
+        } while (!bytesInMemory.compareAndSet(current, current + bytes));
+        return true;
+    }
+
+    void releaseMemory(long bytes) {
+        bytesInMemory.addAndGet(-bytes);
+    }
+
+    long spill(CompileError compileError) throws IOException {
+        return spillFile.append(compileError);
+    }
+
+    CompileError readSpilled(long offset) throws IOException {
+        return spillFile.read(offset);
+    }
+
+    static long estimateSize(CompileError compileError) {
+        return compileError.sourcePath().length()
+                + compileError.message().length()
+                + compileError.text().length();
+    }
+
+    @Override
+    public void close() throws IOException {
+        spillFile.close();
+    }
+}
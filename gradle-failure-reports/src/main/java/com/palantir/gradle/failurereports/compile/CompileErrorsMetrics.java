@@ -0,0 +1,56 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.compile;
+
+import com.palantir.gradle.failurereports.common.ImmutablesStyle;
+import org.immutables.value.Value;
+
+/**
+ * What collecting the compile errors of a single compile task cost, see {@link CompileErrorsAccumulator#metrics()}.
+ */
+@ImmutablesStyle
+@Value.Immutable
+public interface CompileErrorsMetrics {
+
+    /**
+     * The stderr lines printed by the task that its listener parsed, the ones printed by other tasks running in
+     * parallel are only parsed by their own listeners.
+     */
+    long linesInspected();
+
+    /**
+     * The time spent parsing the output of the task, extrapolated from a sample of the parsed chunks.
+     */
+    long listenerNanos();
+
+    /**
+     * The errors of the task, whether they are reported or dropped because of the {@link CompileErrorsBudget}.
+     */
+    int matchedErrors();
+
+    long bytesInMemory();
+
+    int spilledErrors();
+
+    int droppedErrors();
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    final class Builder extends ImmutableCompileErrorsMetrics.Builder {}
+}
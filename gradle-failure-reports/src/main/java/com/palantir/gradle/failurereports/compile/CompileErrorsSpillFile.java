@@ -0,0 +1,130 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.compile;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only file holding the compile errors that do not fit in the memory budget. Each error is written as a
+ * length prefixed record and read back from its offset once the task finished. The file is only created on the
+ * first spilled error and deleted when closed.
+ */
+final class CompileErrorsSpillFile implements Closeable {
+
+    private final Path path;
+    private FileChannel channel;
+    private long size;
+
+    CompileErrorsSpillFile(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Appends the compile error and returns the offset to read it back from.
+     */
+    synchronized long append(CompileError compileError) throws IOException {
+        byte[] sourcePath = compileError.sourcePath().getBytes(StandardCharsets.UTF_8);
+        byte[] message = compileError.message().getBytes(StandardCharsets.UTF_8);
+        byte[] text = compileError.text().getBytes(StandardCharsets.UTF_8);
+        int recordSize = Integer.BYTES * 4 + sourcePath.length + message.length + text.length;
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + recordSize)
+                .putInt(recordSize)
+                .putInt(compileError.lineNumber())
+                .putInt(sourcePath.length)
+                .put(sourcePath)
+                .putInt(message.length)
+                .put(message)
+                .putInt(text.length)
+                .put(text)
+                .flip();
+        long offset = size;
+        writeFully(getChannel(), record, offset);
+        size += record.limit();
+        return offset;
+    }
+
+    synchronized CompileError read(long offset) throws IOException {
+        FileChannel fileChannel = getChannel();
+        ByteBuffer recordSize = ByteBuffer.allocate(Integer.BYTES);
+        readFully(fileChannel, recordSize, offset);
+        ByteBuffer record = ByteBuffer.allocate(recordSize.flip().getInt());
+        readFully(fileChannel, record, offset + Integer.BYTES);
+        record.flip();
+        int lineNumber = record.getInt();
+        return CompileError.builder()
+                .sourcePath(readString(record))
+                .lineNumber(lineNumber)
+                .message(readString(record))
+                .text(readString(record))
+                .build();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        Files.deleteIfExists(path);
+    }
+
+    private FileChannel getChannel() throws IOException {
+        if (channel == null) {
+            Files.createDirectories(path.getParent());
+            channel = FileChannel.open(
+                    path,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            size = 0;
+        }
+        return channel;
+    }
+
+    private static String readString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getInt()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeFully(FileChannel fileChannel, ByteBuffer buffer, long position) throws IOException {
+        long currentPosition = position;
+        while (buffer.hasRemaining()) {
+            currentPosition += fileChannel.write(buffer, currentPosition);
+        }
+    }
+
+    private void readFully(FileChannel fileChannel, ByteBuffer buffer, long position) throws IOException {
+        long currentPosition = position;
+        while (buffer.hasRemaining()) {
+            int read = fileChannel.read(buffer, currentPosition);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of the compile errors spill file " + path);
+            }
+            currentPosition += read;
+        }
+    }
+}
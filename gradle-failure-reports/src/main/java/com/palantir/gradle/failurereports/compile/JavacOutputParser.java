@@ -0,0 +1,268 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.compile;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Incremental, line oriented parser for the javac output of a {@code JavaCompile} task.
+ *
+ * <p>The output is fed chunk by chunk as it is printed: a chunk may hold several lines or only part of a line.
+ * Each error diagnostic is cut as soon as the next diagnostic, a javac summary line (e.g. {@code 2 errors}) or the
+ * end of the output is reached, so nothing needs to be re-parsed once the task finished. Lines are classified with
+ * plain character comparisons; no regular expressions are involved.
+ *
+ * <p>This class is not thread-safe, callers need to make sure a parser only receives output from a single thread
+ * at a time.
+ */
+public final class JavacOutputParser {
+
+    private static final String ERROR_SEVERITY = "error: ";
+    private static final String WARNING_SEVERITY = "warning: ";
+    private static final String NOTE_PREFIX = "Note: ";
+    private static final String ERROR_SUMMARY_SUFFIX = " error";
+    private static final String ERRORS_SUMMARY_SUFFIX = " errors";
+    private static final String WARNING_SUMMARY_SUFFIX = " warning";
+    private static final String WARNINGS_SUMMARY_SUFFIX = " warnings";
+    // a single diagnostic is a handful of lines, anything longer than that is cut to keep the memory bounded
+    private static final int MAX_ERROR_TEXT_LENGTH = 64 * 1024;
+    private static final String TRUNCATED_ERROR_TEXT = "...[truncated]\n";
+
+    private final Predicate<String> isTaskSource;
+    private final Consumer<CompileError> compileErrorConsumer;
+    private final StringBuilder partialLine = new StringBuilder();
+    private final StringBuilder errorText = new StringBuilder();
+
+    private long linesInspected = 0;
+    private boolean collectingError = false;
+    private boolean errorTextTruncated = false;
+    private String errorSourcePath;
+    private int errorLineNumber;
+    private String errorMessage;
+
+    /**
+     * Creates a parser for the output of a single compile task.
+     * @param isTaskSource checks whether a source path printed by javac is compiled by the current task. When running
+     *     in parallel, javaCompileTasks will see the output of other tasks,
+     *     see: https://github.com/gradle/gradle/issues/6068 for context.
+     * @param compileErrorConsumer receives every complete error diagnostic of the current task
+     */
+    public JavacOutputParser(Predicate<String> isTaskSource, Consumer<CompileError> compileErrorConsumer) {
+        this.isTaskSource = isTaskSource;
+        this.compileErrorConsumer = compileErrorConsumer;
+    }
+
+    public void onOutput(CharSequence chunk) {
+        int lineStart = 0;
+        int length = chunk.length();
+        for (int i = 0; i < length; i++) {
+            if (chunk.charAt(i) != '\n') {
+                continue;
+            }
+            if (partialLine.length() == 0) {
+                onLine(chunk, lineStart, i);
+            } else {
+                partialLine.append(chunk, lineStart, i);
+                onLine(partialLine, 0, partialLine.length());
+                partialLine.setLength(0);
+            }
+            lineStart = i + 1;
+        }
+        if (lineStart < length) {
+            partialLine.append(chunk, lineStart, length);
+        }
+    }
+
+    /**
+     * Flushes the last incomplete line and the error diagnostic that is currently being collected.
+     */
+    public void finish() {
+        if (partialLine.length() > 0) {
+            onLine(partialLine, 0, partialLine.length());
+            partialLine.setLength(0);
+        }
+        maybeEmitError();
+    }
+
+    /**
+     * The number of complete lines seen so far, whether they belong to the current task or not.
+     */
+    public long getLinesInspected() {
+        return linesInspected;
+    }
+
+    /**
+     * Whether the chunk holds a complete diagnostic line, e.g. {@code Foo.java:3: error: cannot find symbol}, of a
+     * source compiled by the task. Unlike {@link #onOutput(CharSequence)}, it keeps no state, so it can be called from
+     * any thread.
+     */
+    public static boolean containsTaskDiagnostic(CharSequence chunk, Predicate<String> isTaskSource) {
+        int lineStart = 0;
+        for (int i = 0; i < chunk.length(); i++) {
+            if (chunk.charAt(i) != '\n') {
+                continue;
+            }
+            int end = i > lineStart && chunk.charAt(i - 1) == '\r' ? i - 1 : i;
+            int severityStart = findDiagnosticSeverity(chunk, lineStart, end);
+            if (severityStart >= 0) {
+                int sourcePathEnd = findLineNumberStart(chunk, severityStart) - 1;
+                if (isTaskSource.test(chunk.subSequence(lineStart, sourcePathEnd).toString())) {
+                    return true;
+                }
+            }
+            lineStart = i + 1;
+        }
+        return false;
+    }
+
+    private void onLine(CharSequence line, int start, int lineEnd) {
+        linesInspected++;
+        int end = lineEnd > start && line.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+        int severityStart = findDiagnosticSeverity(line, start, end);
+        if (severityStart >= 0) {
+            maybeEmitError();
+            if (regionStartsWith(line, severityStart, end, ERROR_SEVERITY)) {
+                maybeStartError(line, start, severityStart, end);
+            }
+            return;
+        }
+        if (!collectingError) {
+            return;
+        }
+        if (isSummaryOrNote(line, start, end)) {
+            maybeEmitError();
+            return;
+        }
+        if (errorText.length() + end - start < MAX_ERROR_TEXT_LENGTH) {
+            errorText.append(line, start, end).append('\n');
+        } else {
+            errorTextTruncated = true;
+        }
+    }
+
+    private void maybeStartError(CharSequence line, int start, int severityStart, int end) {
+        int lineNumberStart = findLineNumberStart(line, severityStart);
+        int lineNumberEnd = severityStart - 2;
+        String sourcePath = line.subSequence(start, lineNumberStart - 1).toString();
+        if (!isTaskSource.test(sourcePath)) {
+            return;
+        }
+        collectingError = true;
+        errorSourcePath = sourcePath;
+        errorLineNumber = parseInt(line, lineNumberStart, lineNumberEnd);
+        errorMessage = line.subSequence(severityStart, end).toString();
+        errorText.append(line, start, end).append('\n');
+    }
+
+    private void maybeEmitError() {
+        if (!collectingError) {
+            return;
+        }
+        compileErrorConsumer.accept(CompileError.builder()
+                .sourcePath(errorSourcePath)
+                .lineNumber(errorLineNumber)
+                .message(errorMessage)
+                .text(errorTextTruncated ? errorText + TRUNCATED_ERROR_TEXT : errorText.toString())
+                .build());
+        collectingError = false;
+        errorTextTruncated = false;
+        errorText.setLength(0);
+    }
+
+    /**
+     * Returns the index of the severity (e.g. {@code error: }) if the line is a javac diagnostic header of the form
+     * {@code <sourcePath>:<lineNumber>: <severity>: <message>}, otherwise -1.
+     */
+    private static int findDiagnosticSeverity(CharSequence line, int start, int end) {
+        // every diagnostic header needs at least one character for the path, a colon, a digit and ": "
+        for (int colon = start + 1; colon < end - 3; colon++) {
+            if (line.charAt(colon) != ':' || !isDigit(line.charAt(colon + 1))) {
+                continue;
+            }
+            int index = colon + 2;
+            while (index < end && isDigit(line.charAt(index))) {
+                index++;
+            }
+            if (index + 1 < end && line.charAt(index) == ':' && line.charAt(index + 1) == ' ') {
+                int severityStart = index + 2;
+                if (regionStartsWith(line, severityStart, end, ERROR_SEVERITY)
+                        || regionStartsWith(line, severityStart, end, WARNING_SEVERITY)) {
+                    return severityStart;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int findLineNumberStart(CharSequence line, int severityStart) {
+        // severityStart points right after "<sourcePath>:<lineNumber>: "
+        int lineNumberStart = severityStart - 2;
+        while (isDigit(line.charAt(lineNumberStart - 1))) {
+            lineNumberStart--;
+        }
+        return lineNumberStart;
+    }
+
+    private static boolean isSummaryOrNote(CharSequence line, int start, int end) {
+        if (start == end) {
+            return false;
+        }
+        if (isDigit(line.charAt(start))) {
+            // e.g. "1 error", "12 errors", "3 warnings"
+            int index = start;
+            while (index < end && isDigit(line.charAt(index))) {
+                index++;
+            }
+            return regionEquals(line, index, end, ERROR_SUMMARY_SUFFIX)
+                    || regionEquals(line, index, end, ERRORS_SUMMARY_SUFFIX)
+                    || regionEquals(line, index, end, WARNING_SUMMARY_SUFFIX)
+                    || regionEquals(line, index, end, WARNINGS_SUMMARY_SUFFIX);
+        }
+        return regionStartsWith(line, start, end, NOTE_PREFIX)
+                || regionStartsWith(line, start, end, ERROR_SEVERITY)
+                || regionStartsWith(line, start, end, WARNING_SEVERITY);
+    }
+
+    private static boolean regionEquals(CharSequence line, int start, int end, String expected) {
+        return end - start == expected.length() && regionStartsWith(line, start, end, expected);
+    }
+
+    private static boolean regionStartsWith(CharSequence line, int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (line.charAt(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int parseInt(CharSequence line, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (line.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
+}
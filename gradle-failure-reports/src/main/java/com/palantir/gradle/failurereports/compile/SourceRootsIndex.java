@@ -0,0 +1,150 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.compile;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Build wide index of the source directories compiled by each compile task.
+ *
+ * <p>It is used to attribute the javac diagnostics to the task that compiled the source file: when running in
+ * parallel, javaCompileTasks will see the output of other tasks, see: https://github.com/gradle/gradle/issues/6068.
+ * Only the source roots are indexed, the source files are never enumerated. A lookup is a binary search over the
+ * sorted roots of the task followed by a walk over the roots enclosing the match, without allocating.
+ *
+ * <p>Every task has its own sorted roots, so a registration only sorts the few roots of its task whatever the number
+ * of tasks already registered, and lookups never lock.
+ */
+public final class SourceRootsIndex {
+
+    private final ConcurrentMap<String, Roots> rootsByTaskPath = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the source directories compiled by {@code taskPath}.
+     */
+    public void register(String taskPath, Collection<File> sourceDirs) {
+        String[] roots = sourceDirs.stream().map(SourceRootsIndex::toRootPrefix).toArray(String[]::new);
+        rootsByTaskPath.merge(taskPath, Roots.of(roots), Roots::merge);
+    }
+
+    /**
+     * Checks whether {@code sourcePath} is located in one of the source directories registered for {@code taskPath}.
+     */
+    public boolean isCompiledBy(CharSequence sourcePath, String taskPath) {
+        Roots roots = rootsByTaskPath.get(taskPath);
+        if (roots == null) {
+            return false;
+        }
+        int index = roots.floor(sourcePath);
+        while (index >= 0) {
+            if (startsWith(sourcePath, roots.roots[index])) {
+                return true;
+            }
+            // any root containing sourcePath is either the floor root itself or one of its enclosing roots
+            index = roots.parents[index];
+        }
+        return false;
+    }
+
+    private static String toRootPrefix(File sourceDir) {
+        String absolutePath = sourceDir.getAbsolutePath();
+        return absolutePath.endsWith(File.separator) ? absolutePath : absolutePath + File.separator;
+    }
+
+    private static boolean startsWith(CharSequence value, String prefix) {
+        if (value.length() < prefix.length()) {
+            return false;
+        }
+        for (int i = prefix.length() - 1; i >= 0; i--) {
+            if (value.charAt(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int compare(String root, CharSequence value) {
+        int length = Math.min(root.length(), value.length());
+        for (int i = 0; i < length; i++) {
+            int difference = root.charAt(i) - value.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return root.length() - value.length();
+    }
+
+    private static final class Roots {
+        private final String[] roots;
+        // index of the closest root that is a prefix of the root at the same index, or -1
+        private final int[] parents;
+
+        private Roots(String[] roots, int[] parents) {
+            this.roots = roots;
+            this.parents = parents;
+        }
+
+        /**
+         * Sorts the roots in place and indexes their enclosing roots.
+         */
+        static Roots of(String[] roots) {
+            Arrays.sort(roots);
+            int[] parents = new int[roots.length];
+            Deque<Integer> enclosingRoots = new ArrayDeque<>();
+            for (int i = 0; i < roots.length; i++) {
+                while (!enclosingRoots.isEmpty() && !roots[i].startsWith(roots[enclosingRoots.peek()])) {
+                    enclosingRoots.pop();
+                }
+                parents[i] = enclosingRoots.isEmpty() ? -1 : enclosingRoots.peek();
+                enclosingRoots.push(i);
+            }
+            return new Roots(roots, parents);
+        }
+
+        /**
+         * Combines the roots of a task registered several times.
+         */
+        static Roots merge(Roots first, Roots second) {
+            String[] roots = Arrays.copyOf(first.roots, first.roots.length + second.roots.length);
+            System.arraycopy(second.roots, 0, roots, first.roots.length, second.roots.length);
+            return of(roots);
+        }
+
+        /**
+         * Returns the index of the greatest root that is lower than or equal to {@code value}, or -1.
+         */
+        int floor(CharSequence value) {
+            int low = 0;
+            int high = roots.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (compare(roots[middle], value) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return high;
+        }
+    }
+}
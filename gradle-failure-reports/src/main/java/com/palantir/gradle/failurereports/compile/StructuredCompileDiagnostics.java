@@ -0,0 +1,230 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.compile;
+
+import com.google.common.collect.ImmutableSet;
+import com.palantir.gradle.failurereports.javac.FailureReportsJavacPlugin;
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ConfigurationContainer;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.compile.CompileOptions;
+import org.gradle.api.tasks.compile.JavaCompile;
+import org.gradle.jvm.toolchain.JavaCompiler;
+import org.gradle.process.CommandLineArgumentProvider;
+
+/**
+ * Loads the {@link FailureReportsJavacPlugin} in a {@link JavaCompile} task, so that its compile errors are recorded
+ * as structured records instead of being parsed out of the compiler output. Everything is configured lazily and only
+ * takes effect when the structured diagnostics are enabled.
+ *
+ * <p>The plugin jar, which only holds the javac plugin, is a dependency of the {@value #CONFIGURATION_NAME}
+ * configuration, which the annotation processor configurations of all the source sets extend. The processor path of
+ * the tasks is never replaced, so it can still be set after the plugin is applied, though a processor path that is
+ * not resolved from these configurations must include {@value #CONFIGURATION_NAME}.
+ *
+ * <p>A forked compiler is started with the exports the plugin needs. A compiler running in the Gradle daemon only
+ * loads the plugin when the daemon was started with them, otherwise the task falls back to parsing the compiler
+ * output, as loading the plugin would fail every compilation.
+ */
+public final class StructuredCompileDiagnostics {
+
+    public static final String CONFIGURATION_NAME = "failureReportsJavacPlugin";
+    private static final Logger log = Logging.getLogger(StructuredCompileDiagnostics.class);
+    private static final String PLUGIN_SERVICE_FILE = "META-INF/services/com.sun.source.util.Plugin";
+    private static final List<String> REQUIRED_PACKAGES =
+            List.of("com.sun.tools.javac.api", "com.sun.tools.javac.util");
+
+    /**
+     * Adds the javac plugin to the annotation processor configurations of the project, once it has the java plugin.
+     */
+    public static void configureAnnotationProcessorPaths(Project project, Provider<Boolean> enabled) {
+        ConfigurationContainer configurations = project.getConfigurations();
+        Configuration javacPlugin = configurations.create(CONFIGURATION_NAME, configuration -> {
+            configuration.setDescription("The javac plugin recording the structured compile diagnostics");
+            configuration.setVisible(false);
+            configuration.setCanBeConsumed(false);
+            configuration.setCanBeResolved(false);
+        });
+        project.getDependencies()
+                .add(
+                        CONFIGURATION_NAME,
+                        project.files(enabled.map(isEnabled -> isEnabled ? getJavacPluginClasspath() : Set.of())));
+        project.getExtensions()
+                .getByType(SourceSetContainer.class)
+                .configureEach(sourceSet -> configurations
+                        .getByName(sourceSet.getAnnotationProcessorConfigurationName())
+                        .extendsFrom(javacPlugin));
+    }
+
+    public static void configure(Project project, JavaCompile javaCompileTask, Provider<Boolean> enabled) {
+        Provider<RegularFile> diagnosticsFile = getDiagnosticsFile(project, javaCompileTask);
+        CompileOptions options = javaCompileTask.getOptions();
+        options.getCompilerArgumentProviders()
+                .add(new JavacPluginArgumentProvider(
+                        enabled, isForkedCompiler(project, javaCompileTask), diagnosticsFile));
+        options.getForkOptions().getJvmArgumentProviders().add(new JavacPluginJvmArgumentProvider(enabled));
+    }
+
+    /**
+     * Whether the compiler of the task runs in a worker process rather than in the Gradle daemon, either because the
+     * task forks or because it compiles with a toolchain other than the JVM of the daemon.
+     */
+    public static Provider<Boolean> isForkedCompiler(Project project, JavaCompile javaCompileTask) {
+        CompileOptions options = javaCompileTask.getOptions();
+        Provider<JavaCompiler> javaCompiler = javaCompileTask.getJavaCompiler();
+        return project.getProviders()
+                .provider(() -> options.isFork()
+                        || Optional.ofNullable(javaCompiler.getOrNull())
+                                .map(compiler -> !isCurrentJvm(
+                                        compiler.getMetadata().getInstallationPath().getAsFile()))
+                                .orElse(false));
+    }
+
+    /**
+     * Whether the javac plugin can be loaded by the compiler, which is always the case for a forked compiler. When
+     * the compiler runs in the Gradle daemon, the daemon must export the javac internals the plugin relies on.
+     */
+    public static boolean canLoadJavacPlugin(boolean forkedCompiler) {
+        if (forkedCompiler) {
+            return true;
+        }
+        Module javacPluginModule = FailureReportsJavacPlugin.class.getModule();
+        return ModuleLayer.boot()
+                .findModule("jdk.compiler")
+                .map(javacModule -> REQUIRED_PACKAGES.stream()
+                        .allMatch(packageName -> javacModule.isExported(packageName, javacPluginModule)))
+                .orElse(false);
+    }
+
+    /**
+     * Warns that the compile errors of the task are parsed out of the compiler output, as the javac plugin cannot be
+     * loaded in the Gradle daemon.
+     */
+    public static void warnMissingExports(String taskPath) {
+        log.warn(
+                "The structured compile diagnostics of {} are disabled, as the task compiles in the Gradle daemon which"
+                        + " was not started with {} in org.gradle.jvmargs. The compile errors are parsed out of the"
+                        + " compiler output instead.",
+                taskPath,
+                String.join(" ", FailureReportsJavacPlugin.REQUIRED_EXPORTS));
+    }
+
+    private static boolean isCurrentJvm(File javaHome) {
+        Path currentJavaHome = Path.of(System.getProperty("java.home"));
+        return javaHome.toPath().toAbsolutePath().normalize().equals(currentJavaHome.toAbsolutePath().normalize());
+    }
+
+    public static Provider<RegularFile> getDiagnosticsFile(Project project, JavaCompile javaCompileTask) {
+        return project.getLayout()
+                .getBuildDirectory()
+                .file(String.format("failure-reports/javac/%s.diagnostics", javaCompileTask.getName()));
+    }
+
+    private static Set<File> getJavacPluginClasspath() {
+        // the classes and the resources of the javac plugin are in the same jar, except when running from the build
+        // directories
+        ImmutableSet.Builder<File> classpath = ImmutableSet.builder();
+        classpath.add(toFile(
+                FailureReportsJavacPlugin.class.getProtectionDomain().getCodeSource().getLocation()));
+        URL serviceFile = FailureReportsJavacPlugin.class.getClassLoader().getResource(PLUGIN_SERVICE_FILE);
+        if (serviceFile != null && "file".equals(serviceFile.getProtocol())) {
+            Path serviceFilePath = toFile(serviceFile).toPath();
+            // <root>/META-INF/services/com.sun.source.util.Plugin
+            classpath.add(serviceFilePath.getParent().getParent().getParent().toFile());
+        }
+        return classpath.build();
+    }
+
+    private static File toFile(URL url) {
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Unable to locate the failure reports javac plugin from " + url, e);
+        }
+    }
+
+    private static final class JavacPluginArgumentProvider implements CommandLineArgumentProvider {
+        private final Provider<Boolean> enabled;
+        private final Provider<Boolean> forkedCompiler;
+        private final Provider<RegularFile> diagnosticsFile;
+
+        private JavacPluginArgumentProvider(
+                Provider<Boolean> enabled, Provider<Boolean> forkedCompiler, Provider<RegularFile> diagnosticsFile) {
+            this.enabled = enabled;
+            this.forkedCompiler = forkedCompiler;
+            this.diagnosticsFile = diagnosticsFile;
+        }
+
+        @Input
+        public Provider<Boolean> getEnabled() {
+            return enabled;
+        }
+
+        @Internal
+        public Provider<Boolean> getForkedCompiler() {
+            return forkedCompiler;
+        }
+
+        @Internal
+        public Provider<RegularFile> getDiagnosticsFile() {
+            return diagnosticsFile;
+        }
+
+        @Override
+        public Iterable<String> asArguments() {
+            if (!enabled.get() || !canLoadJavacPlugin(forkedCompiler.get())) {
+                return List.of();
+            }
+            return List.of(String.format(
+                    "-Xplugin:%s %s", FailureReportsJavacPlugin.NAME, diagnosticsFile.get().getAsFile().toURI()));
+        }
+    }
+
+    private static final class JavacPluginJvmArgumentProvider implements CommandLineArgumentProvider {
+        private final Provider<Boolean> enabled;
+
+        private JavacPluginJvmArgumentProvider(Provider<Boolean> enabled) {
+            this.enabled = enabled;
+        }
+
+        @Input
+        public Provider<Boolean> getEnabled() {
+            return enabled;
+        }
+
+        @Override
+        public Iterable<String> asArguments() {
+            return enabled.get() ? List.of(FailureReportsJavacPlugin.REQUIRED_EXPORTS) : List.of();
+        }
+    }
+
+    private StructuredCompileDiagnostics() {}
+}
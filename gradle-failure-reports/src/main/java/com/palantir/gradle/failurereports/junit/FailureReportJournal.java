@@ -0,0 +1,358 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.junit;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.palantir.gradle.failurereports.common.FailureReport;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Appends failure reports to a JUNIT XML report as they are produced, and to a journal next to it, one json object per
+ * line. Completing the journal only completes the report, whose test suites were all written by {@link #append(List)}.
+ *
+ * <p>The reports are on disk as soon as {@link #append(List)} returns, so a build killed before completing the
+ * journal loses none of them: the journal left behind is converted by the next build opening or recovering it, to a
+ * separate {@code -recovered} report so that the failures of the killed build are neither taken for the ones of the
+ * next build nor overwritten by them. The report itself is only replaced once fully written, see
+ * {@link JunitXmlWriter}. When appending to the report fails, the report is discarded and converted from the journal
+ * once completed instead.
+ *
+ * <p>Every {@link #append(List)} is a batch of the journal, which is written exactly like
+ * {@link ShardedJunitXmlWriter#writeFailureReports(List)} would, so only one batch is in memory at a time.
+ */
+public final class FailureReportJournal implements Closeable {
+
+    private static final Logger log = Logging.getLogger(FailureReportJournal.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String JOURNAL_FILE_SUFFIX = ".journal";
+    private static final String REPORT_FILE_SUFFIX = "-TEST.xml";
+    private static final String RECOVERED_SUFFIX = "-recovered";
+    private static final String BATCH = "batch";
+    private static final String HEADER = "header";
+    private static final String CLICKABLE_SOURCE = "clickableSource";
+    private static final String ERROR_MESSAGE = "errorMessage";
+    private static final String TASK_PATH = "taskPath";
+
+    private final File junitXmlFile;
+    private final Path journalFile;
+    private final boolean prettyPrint;
+    private final JunitReportSharding sharding;
+    private final Writer writer;
+    private final JsonGenerator jsonGenerator;
+    private int batches;
+    // only created on the first batch, like the report written by convert
+    private ShardedJunitXmlWriter junitXmlWriter;
+    // set once appending to the report failed, so that the report is converted from the journal instead
+    private boolean junitXmlWriterFailed = false;
+
+    private FailureReportJournal(
+            File junitXmlFile,
+            Path journalFile,
+            boolean prettyPrint,
+            JunitReportSharding sharding,
+            Writer writer,
+            JsonGenerator jsonGenerator) {
+        this.junitXmlFile = junitXmlFile;
+        this.journalFile = journalFile;
+        this.prettyPrint = prettyPrint;
+        this.sharding = sharding;
+        this.writer = writer;
+        this.jsonGenerator = jsonGenerator;
+    }
+
+    /**
+     * Starts an empty journal for the junitXmlFile, after recovering the journal a previous build may have left.
+     */
+    public static FailureReportJournal open(File junitXmlFile, boolean prettyPrint, JunitReportSharding sharding)
+            throws IOException {
+        recover(junitXmlFile, prettyPrint, sharding);
+        Path journalFile = getJournalFile(junitXmlFile);
+        Files.createDirectories(journalFile.getParent());
+        Writer writer = Files.newBufferedWriter(
+                journalFile,
+                StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        // the reports are separated by new lines instead
+        JsonGenerator jsonGenerator = JSON_FACTORY.createGenerator(writer).setRootValueSeparator(null);
+        return new FailureReportJournal(junitXmlFile, journalFile, prettyPrint, sharding, writer, jsonGenerator);
+    }
+
+    /**
+     * Converts the journal a killed build left next to the junitXmlFile, if any, to the
+     * {@link #getRecoveredReportFile recovered report} of the junitXmlFile and deletes it. The reports are written with
+     * the settings of the current build. Returns whether there was a journal.
+     */
+    public static boolean recover(File junitXmlFile, boolean prettyPrint, JunitReportSharding sharding)
+            throws IOException {
+        Path journalFile = getJournalFile(junitXmlFile);
+        if (!Files.isRegularFile(journalFile)) {
+            return false;
+        }
+        File recoveredReportFile = getRecoveredReportFile(junitXmlFile);
+        log.lifecycle(
+                "Recovering the failure reports of a previous build from {} to {}", journalFile, recoveredReportFile);
+        convert(journalFile, recoveredReportFile, prettyPrint, sharding);
+        return true;
+    }
+
+    /**
+     * Where the failures of a killed build are recovered, e.g. {@code build-compile-recovered-TEST.xml} for
+     * {@code build-compile-TEST.xml}.
+     */
+    public static File getRecoveredReportFile(File junitXmlFile) {
+        String fileName = junitXmlFile.getName();
+        String recoveredFileName;
+        if (fileName.endsWith(REPORT_FILE_SUFFIX)) {
+            recoveredFileName = fileName.substring(0, fileName.length() - REPORT_FILE_SUFFIX.length())
+                    + RECOVERED_SUFFIX
+                    + REPORT_FILE_SUFFIX;
+        } else {
+            int extensionIndex = fileName.lastIndexOf('.');
+            recoveredFileName = extensionIndex > 0
+                    ? fileName.substring(0, extensionIndex) + RECOVERED_SUFFIX + fileName.substring(extensionIndex)
+                    : fileName + RECOVERED_SUFFIX;
+        }
+        return new File(junitXmlFile.getParentFile(), recoveredFileName);
+    }
+
+    static Path getJournalFile(File junitXmlFile) {
+        Path junitXmlPath = junitXmlFile.toPath();
+        return junitXmlPath.resolveSibling(junitXmlPath.getFileName() + JOURNAL_FILE_SUFFIX);
+    }
+
+    /**
+     * Appends the failureReports to the journal as a single batch, then to the report, and flushes them to the files.
+     */
+    public synchronized void append(List<FailureReport> failureReports) throws IOException {
+        if (failureReports.isEmpty()) {
+            return;
+        }
+        int batch = batches++;
+        for (FailureReport failureReport : failureReports) {
+            jsonGenerator.writeStartObject();
+            jsonGenerator.writeNumberField(BATCH, batch);
+            jsonGenerator.writeStringField(HEADER, failureReport.header());
+            jsonGenerator.writeStringField(CLICKABLE_SOURCE, failureReport.clickableSource());
+            jsonGenerator.writeStringField(ERROR_MESSAGE, failureReport.errorMessage());
+            if (failureReport.taskPath().isPresent()) {
+                jsonGenerator.writeStringField(TASK_PATH, failureReport.taskPath().get());
+            }
+            jsonGenerator.writeEndObject();
+            // the control characters of the values are escaped, so a report never spans several lines
+            jsonGenerator.writeRaw('\n');
+        }
+        jsonGenerator.flush();
+        appendToReport(failureReports);
+    }
+
+    private void appendToReport(List<FailureReport> failureReports) {
+        if (junitXmlWriterFailed) {
+            return;
+        }
+        try {
+            if (junitXmlWriter == null) {
+                junitXmlWriter = ShardedJunitXmlWriter.create(junitXmlFile, prettyPrint, sharding);
+            }
+            junitXmlWriter.writeFailureReports(failureReports);
+        } catch (IOException | RuntimeException e) {
+            // the batch is in the journal already
+            log.warn("Unable to append the failure reports to {}, converting the journal instead", junitXmlFile, e);
+            junitXmlWriterFailed = true;
+            if (junitXmlWriter != null) {
+                abort(junitXmlWriter, e);
+                junitXmlWriter = null;
+            }
+        }
+    }
+
+    /**
+     * Closes the journal and completes the JUNIT XML report, only writing its closing elements before moving it in
+     * place, and deletes the journal. Nothing is written when no failure report was appended, like
+     * {@link JunitReporter#reportFailures}.
+     */
+    public synchronized void complete() throws IOException {
+        closeJournal();
+        if (junitXmlWriterFailed) {
+            convert(journalFile, junitXmlFile, prettyPrint, sharding);
+            return;
+        }
+        if (junitXmlWriter != null) {
+            ShardedJunitXmlWriter completedJunitXmlWriter = junitXmlWriter;
+            junitXmlWriter = null;
+            completedJunitXmlWriter.close();
+        }
+        Files.delete(journalFile);
+    }
+
+    /**
+     * Closes the journal and discards the report, leaving the journal to be recovered by the next build.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            closeJournal();
+        } finally {
+            if (junitXmlWriter != null) {
+                ShardedJunitXmlWriter abortedJunitXmlWriter = junitXmlWriter;
+                junitXmlWriter = null;
+                abortedJunitXmlWriter.abort();
+            }
+        }
+    }
+
+    private void closeJournal() throws IOException {
+        try {
+            jsonGenerator.close();
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void convert(Path journalFile, File junitXmlFile, boolean prettyPrint, JunitReportSharding sharding)
+            throws IOException {
+        try (JsonParser jsonParser = JSON_FACTORY.createParser(journalFile.toFile())) {
+            ShardedJunitXmlWriter junitXmlWriter = null;
+            try {
+                List<FailureReport> batch = new ArrayList<>();
+                int currentBatch = -1;
+                JournalEntry journalEntry;
+                while ((journalEntry = readJournalEntry(jsonParser, journalFile)) != null) {
+                    if (journalEntry.batch != currentBatch) {
+                        junitXmlWriter = writeBatch(junitXmlWriter, batch, junitXmlFile, prettyPrint, sharding);
+                        batch.clear();
+                        currentBatch = journalEntry.batch;
+                    }
+                    batch.add(journalEntry.failureReport);
+                }
+                junitXmlWriter = writeBatch(junitXmlWriter, batch, junitXmlFile, prettyPrint, sharding);
+            } catch (IOException | RuntimeException e) {
+                // the journal is kept, to be converted again by the next build
+                if (junitXmlWriter != null) {
+                    abort(junitXmlWriter, e);
+                }
+                throw e;
+            }
+            if (junitXmlWriter != null) {
+                junitXmlWriter.close();
+            }
+        }
+        Files.delete(journalFile);
+    }
+
+    /**
+     * Reads the next failure report of the journal, or returns null at the end of the journal or at the report that
+     * was being appended when the build got killed.
+     */
+    private static JournalEntry readJournalEntry(JsonParser jsonParser, Path journalFile) throws IOException {
+        try {
+            JsonToken token = jsonParser.nextToken();
+            if (token == null) {
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected " + token + " in the journal " + journalFile);
+            }
+            int batch = -1;
+            FailureReport.Builder failureReport = FailureReport.builder();
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = jsonParser.currentName();
+                jsonParser.nextToken();
+                switch (fieldName) {
+                    case BATCH:
+                        batch = jsonParser.getIntValue();
+                        break;
+                    case HEADER:
+                        failureReport.header(jsonParser.getText());
+                        break;
+                    case CLICKABLE_SOURCE:
+                        failureReport.clickableSource(jsonParser.getText());
+                        break;
+                    case ERROR_MESSAGE:
+                        failureReport.errorMessage(jsonParser.getText());
+                        break;
+                    case TASK_PATH:
+                        failureReport.taskPath(jsonParser.getText());
+                        break;
+                    default:
+                        jsonParser.skipChildren();
+                }
+            }
+            if (jsonParser.currentToken() != JsonToken.END_OBJECT) {
+                // the end of the journal was reached in the middle of the report
+                log.warn("Ignoring the truncated end of the journal {}", journalFile);
+                return null;
+            }
+            return new JournalEntry(batch, failureReport.build());
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring the truncated end of the journal {}: {}", journalFile, e.getOriginalMessage());
+            return null;
+        }
+    }
+
+    private static void abort(ShardedJunitXmlWriter junitXmlWriter, Exception failure) {
+        try {
+            junitXmlWriter.abort();
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private static ShardedJunitXmlWriter writeBatch(
+            ShardedJunitXmlWriter junitXmlWriter,
+            List<FailureReport> batch,
+            File junitXmlFile,
+            boolean prettyPrint,
+            JunitReportSharding sharding)
+            throws IOException {
+        if (batch.isEmpty()) {
+            return junitXmlWriter;
+        }
+        ShardedJunitXmlWriter writer = junitXmlWriter;
+        if (writer == null) {
+            writer = ShardedJunitXmlWriter.create(junitXmlFile, prettyPrint, sharding);
+        }
+        writer.writeFailureReports(batch);
+        return writer;
+    }
+
+    private static final class JournalEntry {
+        private final int batch;
+        private final FailureReport failureReport;
+
+        private JournalEntry(int batch, FailureReport failureReport) {
+            this.batch = batch;
+            this.failureReport = failureReport;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.junit;
+
+import com.ctc.wstx.stax.WstxInputFactory;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.palantir.gradle.failurereports.common.FailureReport;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Merges the JUNIT XML reports written by the nodes of a parallel CI job into a single report, dropping the test
+ * cases reported by several nodes, e.g. the compile errors every node runs into.
+ *
+ * <p>The node reports are read in the order of their paths, so the merged report does not depend on the order in
+ * which they were collected, and every test suite is streamed to the merged report as soon as it was read. Only the
+ * test suite being read and a 128-bit fingerprint of every distinct test case are held in memory, the duplicates
+ * being matched on their fingerprint alone.
+ */
+public final class JunitReportMerger {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+    private static final HashFunction FINGERPRINT = Hashing.murmur3_128();
+
+    private final Set<HashCode> testCaseFingerprints = new HashSet<>();
+    private int mergedTestCases = 0;
+    private int duplicateTestCases = 0;
+
+    /**
+     * Replaces the mergedReport with the deduplicated test cases of the nodeReports.
+     */
+    public void merge(List<File> nodeReports, File mergedReport, boolean prettyPrint) throws IOException {
+        List<File> sortedNodeReports = nodeReports.stream()
+                // the merged report of a previous merge may match the same pattern as the node reports
+                .filter(nodeReport -> !nodeReport.getAbsoluteFile().equals(mergedReport.getAbsoluteFile()))
+                .sorted(Comparator.comparing(File::getPath))
+                .collect(Collectors.toList());
+        JunitXmlWriter junitXmlWriter = JunitXmlWriter.create(mergedReport, prettyPrint);
+        try {
+            for (File nodeReport : sortedNodeReports) {
+                try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(nodeReport.toPath()))) {
+                    mergeTestSuites(XML_INPUT_FACTORY.createXMLStreamReader(inputStream), junitXmlWriter);
+                } catch (XMLStreamException e) {
+                    throw new IOException("Unable to read the failure report " + nodeReport, e);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // a node report that cannot be read must not leave a merged report missing its failures
+            try {
+                junitXmlWriter.abort();
+            } catch (IOException abortFailure) {
+                e.addSuppressed(abortFailure);
+            }
+            throw e;
+        }
+        junitXmlWriter.close();
+    }
+
+    public int getMergedTestCases() {
+        return mergedTestCases;
+    }
+
+    public int getDuplicateTestCases() {
+        return duplicateTestCases;
+    }
+
+    private void mergeTestSuites(XMLStreamReader xmlStreamReader, JunitXmlWriter junitXmlWriter)
+            throws XMLStreamException, IOException {
+        try {
+            String testSuiteName = "";
+            List<FailureReport> testSuite = new ArrayList<>();
+            String testCaseName = "";
+            String testCaseClassName = "";
+            while (xmlStreamReader.hasNext()) {
+                int event = xmlStreamReader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (xmlStreamReader.getLocalName()) {
+                        case "testsuite":
+                            testSuiteName = getAttribute(xmlStreamReader, "name");
+                            testSuite.clear();
+                            break;
+                        case "testcase":
+                            testCaseName = getAttribute(xmlStreamReader, "name");
+                            testCaseClassName = getAttribute(xmlStreamReader, "className");
+                            break;
+                        case "failure":
+                            FailureReport failureReport = FailureReport.builder()
+                                    .header(testCaseName)
+                                    .clickableSource(testCaseClassName)
+                                    .errorMessage(xmlStreamReader.getElementText())
+                                    .build();
+                            if (testCaseFingerprints.add(fingerprint(testSuiteName, failureReport))) {
+                                testSuite.add(failureReport);
+                            } else {
+                                duplicateTestCases++;
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT
+                        && xmlStreamReader.getLocalName().equals("testsuite")
+                        && !testSuite.isEmpty()) {
+                    junitXmlWriter.writeTestSuite(testSuiteName, testSuite);
+                    mergedTestCases += testSuite.size();
+                    testSuite.clear();
+                }
+            }
+        } finally {
+            xmlStreamReader.close();
+        }
+    }
+
+    private static String getAttribute(XMLStreamReader xmlStreamReader, String name) {
+        String value = xmlStreamReader.getAttributeValue(null, name);
+        // the reports of other tools follow the JUNIT schema more closely
+        if (value == null) {
+            value = xmlStreamReader.getAttributeValue(null, name.toLowerCase(Locale.ROOT));
+        }
+        return value != null ? value : "";
+    }
+
+    private static HashCode fingerprint(String testSuiteName, FailureReport failureReport) {
+        return Hashing.combineOrdered(List.of(
+                FINGERPRINT.hashUnencodedChars(testSuiteName),
+                FINGERPRINT.hashUnencodedChars(failureReport.header()),
+                FINGERPRINT.hashUnencodedChars(failureReport.clickableSource()),
+                FINGERPRINT.hashUnencodedChars(failureReport.errorMessage())));
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory xmlInputFactory = new WstxInputFactory();
+        xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        return xmlInputFactory;
+    }
+}
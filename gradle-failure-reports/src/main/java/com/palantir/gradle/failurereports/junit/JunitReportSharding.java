@@ -0,0 +1,64 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.junit;
+
+import com.palantir.gradle.failurereports.common.ImmutablesStyle;
+import org.immutables.value.Value;
+
+/**
+ * How a JUNIT XML report is split into several files, so that CI systems don't have to ingest a single huge file.
+ * By default, the report is written to a single file.
+ */
+@ImmutablesStyle
+@Value.Immutable
+public interface JunitReportSharding {
+
+    /**
+     * The approximate maximum size of a shard, in bytes. A test case that is bigger than that gets its own shard.
+     */
+    @Value.Default
+    default long maxBytesPerShard() {
+        return Long.MAX_VALUE;
+    }
+
+    @Value.Default
+    default int maxTestCasesPerShard() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Whether the failures of every Gradle project are written to separate shards.
+     */
+    @Value.Default
+    default boolean shardByProject() {
+        return false;
+    }
+
+    default boolean isSharded() {
+        return maxBytesPerShard() < Long.MAX_VALUE || maxTestCasesPerShard() < Integer.MAX_VALUE || shardByProject();
+    }
+
+    static JunitReportSharding none() {
+        return builder().build();
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    final class Builder extends ImmutableJunitReportSharding.Builder {}
+}
@@ -0,0 +1,161 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.junit;
+
+import com.palantir.gradle.failurereports.common.LazyFailureReport;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Assigns failure reports to the shards of a JUNIT XML report following a {@link JunitReportSharding}, starting a
+ * new shard whenever the current one is full. A test suite that does not fit in a shard is continued in the next one.
+ *
+ * <p>The shards are written in a directory named after the report, e.g. {@code build-TEST/3-TEST.xml} for the third
+ * shard of {@code build-TEST.xml}, or {@code build-TEST/foo-bar-6061bde5-3-TEST.xml} when sharding the report of the
+ * {@code :foo:bar} project. The hash of the project path tells apart the projects whose paths read the same once
+ * flattened to a file name, like {@code :foo:bar} and {@code :foo-bar}.
+ */
+final class JunitReportShards {
+
+    private static final String SHARD_SUFFIX = "-TEST.xml";
+    private static final String ROOT_PROJECT_SHARD_NAME = "root";
+
+    private final Path junitXmlFile;
+    private final Path shardsDirectory;
+    private final JunitReportSharding sharding;
+    private final Map<String, Shard> currentShardsByName = new HashMap<>();
+
+    JunitReportShards(File junitXmlFile, JunitReportSharding sharding) {
+        this.junitXmlFile = junitXmlFile.toPath();
+        this.shardsDirectory = getShardsDirectory(junitXmlFile);
+        this.sharding = sharding;
+    }
+
+    /**
+     * Deletes the shards written by a previous build, and the unsharded report of a previous build that did not shard
+     * its reports, which would otherwise be reported again next to the shards.
+     */
+    void deleteStaleShards() throws IOException {
+        for (Path staleShard : listShards(shardsDirectory)) {
+            Files.delete(staleShard);
+        }
+        Files.deleteIfExists(junitXmlFile);
+    }
+
+    /**
+     * Assigns the failure reports to shards, in order, and returns the test suites to append to each shard file. The
+     * size of a report needs its error message, so the returned reports hold their formatted error messages, which are
+     * not formatted again when written.
+     */
+    Map<Path, Map<String, List<LazyFailureReport>>> assign(List<LazyFailureReport> failureReports) {
+        Map<Path, Map<String, List<LazyFailureReport>>> testSuitesByShard = new LinkedHashMap<>();
+        Map<String, List<LazyFailureReport>> failureReportsByClickableSources = failureReports.stream()
+                .collect(Collectors.groupingBy(
+                        LazyFailureReport::clickableSource, LinkedHashMap::new, Collectors.toList()));
+        for (Map.Entry<String, List<LazyFailureReport>> failureReportsBySource :
+                failureReportsByClickableSources.entrySet()) {
+            for (LazyFailureReport failureReport : failureReportsBySource.getValue()) {
+                Shard shard = addToShard(getShardName(failureReport), JunitXmlWriter.estimateSize(failureReport));
+                testSuitesByShard
+                        .computeIfAbsent(shard.file, _file -> new LinkedHashMap<>())
+                        .computeIfAbsent(failureReportsBySource.getKey(), _name -> new ArrayList<>())
+                        .add(LazyFailureReport.of(failureReport.toFailureReport()));
+            }
+        }
+        return testSuitesByShard;
+    }
+
+    boolean isCurrentShard(Path shardFile) {
+        return currentShardsByName.values().stream().anyMatch(shard -> shard.file.equals(shardFile));
+    }
+
+    private Shard addToShard(String shardName, long size) {
+        Shard shard = currentShardsByName.get(shardName);
+        if (shard == null || !hasRoom(shard, size)) {
+            int index = shard == null ? 1 : shard.index + 1;
+            String fileName = (shardName.isEmpty() ? "" : shardName + "-") + index + SHARD_SUFFIX;
+            shard = new Shard(shardsDirectory.resolve(fileName), index);
+            currentShardsByName.put(shardName, shard);
+        }
+        shard.testCases++;
+        shard.bytes += size;
+        return shard;
+    }
+
+    private boolean hasRoom(Shard shard, long size) {
+        // a shard always takes at least one test case, however big
+        return shard.testCases == 0
+                || (shard.testCases < sharding.maxTestCasesPerShard()
+                        && shard.bytes + size <= sharding.maxBytesPerShard());
+    }
+
+    private String getShardName(LazyFailureReport failureReport) {
+        if (!sharding.shardByProject()) {
+            return "";
+        }
+        // failures that are not tied to a task, hence to a project, go to the unnamed shards
+        return failureReport.taskPath().map(JunitReportShards::getProjectShardName).orElse("");
+    }
+
+    private static String getProjectShardName(String taskPath) {
+        String projectPath = taskPath.substring(0, Math.max(taskPath.lastIndexOf(':'), 0));
+        String readableName = projectPath.isEmpty()
+                ? ROOT_PROJECT_SHARD_NAME
+                : (projectPath.startsWith(":") ? projectPath.substring(1) : projectPath).replace(':', '-');
+        // the hash of a String is specified, so the shards keep their names from one build to the next
+        return String.format("%s-%08x", readableName, projectPath.hashCode());
+    }
+
+    static List<Path> listShards(Path shardsDirectory) throws IOException {
+        if (!Files.isDirectory(shardsDirectory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(shardsDirectory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SHARD_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    static Path getShardsDirectory(File junitXmlFile) {
+        String fileName = junitXmlFile.getName();
+        int extensionIndex = fileName.lastIndexOf('.');
+        String directoryName = extensionIndex > 0 ? fileName.substring(0, extensionIndex) : fileName + "-shards";
+        return junitXmlFile.toPath().resolveSibling(directoryName);
+    }
+
+    private static final class Shard {
+        private final Path file;
+        private final int index;
+        private int testCases = 0;
+        private long bytes = 0;
+
+        private Shard(Path file, int index) {
+            this.file = file;
+            this.index = index;
+        }
+    }
+}
@@ -16,18 +16,17 @@
 
 package com.palantir.gradle.failurereports.junit;
 
+import com.google.common.collect.Lists;
 import com.palantir.gradle.failurereports.common.FailureReport;
-import com.palantir.gradle.failurereports.junit.TestSuites.TestSuite;
-import com.palantir.gradle.failurereports.junit.TestSuites.TestSuite.TestCase;
-import com.palantir.gradle.failurereports.junit.TestSuites.TestSuite.TestCase.Failure;
-import com.palantir.gradle.failurereports.util.XmlResources;
+import com.palantir.gradle.failurereports.common.LazyFailureReport;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
-import one.util.streamex.EntryStream;
 
 /**
  * Helper class that writes all the failures encountered {@link FailureReport}s into a JUNIT XML format that can be
@@ -35,43 +34,76 @@ import one.util.streamex.EntryStream;
  */
 public final class JunitReporter {
 
-    public static void reportFailures(File junitXmlFile, List<FailureReport> failureReports) throws IOException {
+    /**
+     * Writes the failureReports to the junitXmlFile or, when the {@link JunitReportSharding} splits the report, to
+     * shards that are written in parallel.
+     */
+    public static void reportFailures(
+            File junitXmlFile, List<FailureReport> failureReports, boolean prettyPrint, JunitReportSharding sharding)
+            throws IOException {
+        reportLazyFailures(
+                junitXmlFile, Lists.transform(failureReports, LazyFailureReport::of), prettyPrint, sharding);
+    }
+
+    /**
+     * Like {@link #reportFailures}, formatting the error messages of the failureReports straight to the report. The
+     * messages are only held in memory when the report is sharded by size, which needs their length.
+     */
+    public static void reportLazyFailures(
+            File junitXmlFile,
+            List<LazyFailureReport> failureReports,
+            boolean prettyPrint,
+            JunitReportSharding sharding)
+            throws IOException {
         if (failureReports.isEmpty()) {
             return;
         }
-        createNewFile(junitXmlFile);
-        Map<String, List<FailureReport>> failureReportsByClickableSources =
-                failureReports.stream().collect(Collectors.groupingBy(FailureReport::clickableSource));
-        List<TestSuite> testSuites = EntryStream.of(failureReportsByClickableSources)
-                .map(failureReportBySource -> {
-                    List<TestCase> testCases = failureReportBySource.getValue().stream()
-                            .map(JunitReporter::from)
-                            .collect(Collectors.toList());
-                    return TestSuite.builder()
-                            .tests(testCases.size())
-                            .testcases(testCases)
-                            .name(failureReportBySource.getKey())
-                            .build();
-                })
-                .collect(Collectors.toList());
-        XmlResources.writeXml(
-                junitXmlFile, TestSuites.builder().testSuite(testSuites).build());
+        if (!sharding.isSharded()) {
+            writeTestSuites(
+                    junitXmlFile,
+                    prettyPrint,
+                    failureReports.stream()
+                            .collect(Collectors.groupingBy(
+                                    LazyFailureReport::clickableSource, LinkedHashMap::new, Collectors.toList())));
+            return;
+        }
+        JunitReportShards junitReportShards = new JunitReportShards(junitXmlFile, sharding);
+        junitReportShards.deleteStaleShards();
+        Map<Path, Map<String, List<LazyFailureReport>>> testSuitesByShard = junitReportShards.assign(failureReports);
+        try {
+            testSuitesByShard.entrySet().parallelStream().forEach(testSuitesOfShard -> {
+                try {
+                    writeTestSuites(testSuitesOfShard.getKey().toFile(), prettyPrint, testSuitesOfShard.getValue());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
-    private static TestCase from(FailureReport failureReport) {
-        return TestCase.builder()
-                .name(failureReport.header())
-                .className(failureReport.clickableSource())
-                .failure(Failure.builder().value(failureReport.errorMessage()).build())
-                .build();
+    /**
+     * Lists the report files written for the junitXmlFile: the file itself, or its shards.
+     */
+    public static List<Path> listReportFiles(File junitXmlFile, JunitReportSharding sharding) throws IOException {
+        if (sharding.isSharded()) {
+            return JunitReportShards.listShards(JunitReportShards.getShardsDirectory(junitXmlFile));
+        }
+        return junitXmlFile.isFile() ? List.of(junitXmlFile.toPath()) : List.of();
     }
 
-    private static void createNewFile(File file) throws IOException {
-        if (file.exists()) {
-            file.delete();
+    private static void writeTestSuites(
+            File junitXmlFile,
+            boolean prettyPrint,
+            Map<String, List<LazyFailureReport>> failureReportsByClickableSources)
+            throws IOException {
+        try (JunitXmlWriter junitXmlWriter = JunitXmlWriter.create(junitXmlFile, prettyPrint)) {
+            for (Map.Entry<String, List<LazyFailureReport>> failureReportsBySource :
+                    failureReportsByClickableSources.entrySet()) {
+                junitXmlWriter.writeLazyTestSuite(failureReportsBySource.getKey(), failureReportsBySource.getValue());
+            }
         }
-        Files.createDirectories(file.toPath().getParent());
-        Files.createFile(file.toPath());
     }
 
     private JunitReporter() {}
@@ -0,0 +1,370 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.junit;
+
+import com.ctc.wstx.stax.WstxOutputFactory;
+import com.google.common.collect.Lists;
+import com.palantir.gradle.failurereports.common.FailureReport;
+import com.palantir.gradle.failurereports.common.LazyFailureReport;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Streams a JUNIT XML report to a file: every test suite is written as soon as it is reported, without building the
+ * whole document in memory first, and the document is only completed by {@link #close()}.
+ *
+ * <p>The report is streamed to a temporary file next to it, and only moved in place once completed, so that a build
+ * killed while reporting never leaves a truncated report behind. When a test suite cannot be written, or the caller
+ * {@link #abort() aborts}, the temporary file is deleted instead.
+ *
+ * <p>The characters that are not allowed in XML 1.0 are dropped on the fly. When pretty printing, the output is the
+ * same as the one of Jackson's default pretty printer. The error messages of the {@link LazyFailureReport}s are
+ * streamed to the report as they are formatted, without being held in memory.
+ */
+public final class JunitXmlWriter implements Closeable {
+
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = new WstxOutputFactory();
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String INDENTATION = "  ";
+    // the markup and indentation around the values of a test case
+    private static final int TEST_CASE_OVERHEAD = 100;
+    // the characters of a streamed error message that are buffered before being written
+    private static final int CHARACTERS_BUFFER_SIZE = 8 * 1024;
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+    private final Path junitXmlFile;
+    private final Path temporaryFile;
+    private final OutputStream outputStream;
+    private final XMLStreamWriter xmlStreamWriter;
+    private final boolean prettyPrint;
+    // set once a write failed, so that closing the writer discards the partial report
+    private boolean failed = false;
+    private boolean closed = false;
+
+    private JunitXmlWriter(
+            Path junitXmlFile,
+            Path temporaryFile,
+            OutputStream outputStream,
+            XMLStreamWriter xmlStreamWriter,
+            boolean prettyPrint) {
+        this.junitXmlFile = junitXmlFile;
+        this.temporaryFile = temporaryFile;
+        this.outputStream = outputStream;
+        this.xmlStreamWriter = xmlStreamWriter;
+        this.prettyPrint = prettyPrint;
+    }
+
+    /**
+     * Deletes the junitXmlFile and starts an empty {@code testsuites} document, ready to be appended to, which
+     * replaces it when closed.
+     */
+    public static JunitXmlWriter create(File junitXmlFile, boolean prettyPrint) throws IOException {
+        Path junitXmlPath = junitXmlFile.toPath();
+        Files.createDirectories(junitXmlPath.getParent());
+        // the report of a previous build must not be mistaken for the one of this build if it does not complete
+        Files.deleteIfExists(junitXmlPath);
+        Path temporaryFile = junitXmlPath.resolveSibling(junitXmlPath.getFileName() + TEMPORARY_FILE_SUFFIX);
+        OutputStream outputStream = new BufferedOutputStream(
+                Channels.newOutputStream(FileChannel.open(
+                        temporaryFile,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE)),
+                BUFFER_SIZE);
+        try {
+            XMLStreamWriter xmlStreamWriter =
+                    XML_OUTPUT_FACTORY.createXMLStreamWriter(outputStream, StandardCharsets.UTF_8.name());
+            xmlStreamWriter.writeStartElement("testsuites");
+            return new JunitXmlWriter(junitXmlPath, temporaryFile, outputStream, xmlStreamWriter, prettyPrint);
+        } catch (XMLStreamException | RuntimeException e) {
+            outputStream.close();
+            throw new IOException("Unable to write " + junitXmlFile, e);
+        }
+    }
+
+    /**
+     * Appends one test suite per clickable source of the failureReports, in order, and flushes them to the file.
+     */
+    public synchronized void writeFailureReports(List<FailureReport> failureReports) throws IOException {
+        Map<String, List<FailureReport>> failureReportsByClickableSources = failureReports.stream()
+                .collect(Collectors.groupingBy(
+                        FailureReport::clickableSource, LinkedHashMap::new, Collectors.toList()));
+        for (Map.Entry<String, List<FailureReport>> failureReportsBySource :
+                failureReportsByClickableSources.entrySet()) {
+            writeTestSuite(failureReportsBySource.getKey(), failureReportsBySource.getValue());
+        }
+        flush();
+    }
+
+    /**
+     * Appends a test suite holding one test case per failure report.
+     */
+    public synchronized void writeTestSuite(String name, List<FailureReport> failureReports) throws IOException {
+        // a view, so that an invalid failure report fails the test suite like a lazy one
+        writeLazyTestSuite(name, Lists.transform(failureReports, LazyFailureReport::of));
+    }
+
+    /**
+     * Appends a test suite holding one test case per failure report, formatting their error messages straight to the
+     * report.
+     */
+    public synchronized void writeLazyTestSuite(String name, List<LazyFailureReport> failureReports)
+            throws IOException {
+        failed = true;
+        try {
+            writeIndentation(1);
+            xmlStreamWriter.writeStartElement("testsuite");
+            writeAttribute("name", name);
+            writeAttribute("tests", Integer.toString(failureReports.size()));
+            for (LazyFailureReport failureReport : failureReports) {
+                writeTestCase(failureReport);
+            }
+            writeIndentation(1);
+            xmlStreamWriter.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new IOException("Unable to write the test suite " + name, e);
+        }
+        failed = false;
+    }
+
+    public synchronized void flush() throws IOException {
+        failed = true;
+        try {
+            xmlStreamWriter.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException("Unable to flush the failure reports", e);
+        }
+        outputStream.flush();
+        failed = false;
+    }
+
+    /**
+     * Completes the document and moves it in place of the junitXmlFile, unless a write failed, in which case the
+     * partial report is discarded like with {@link #abort()}.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (failed) {
+            abort();
+            return;
+        }
+        try {
+            writeIndentation(0);
+            xmlStreamWriter.writeEndElement();
+            if (prettyPrint) {
+                xmlStreamWriter.writeCharacters("\n");
+            }
+            xmlStreamWriter.writeEndDocument();
+            xmlStreamWriter.close();
+        } catch (XMLStreamException e) {
+            abort();
+            throw new IOException("Unable to complete the failure reports", e);
+        }
+        closed = true;
+        outputStream.close();
+        moveAtomically(temporaryFile, junitXmlFile);
+    }
+
+    /**
+     * Discards the partial report, leaving the junitXmlFile missing.
+     */
+    public synchronized void abort() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            outputStream.close();
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Moves the source to the target in one step where the file system supports it, so that the target is either
+     * missing or complete.
+     */
+    static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void writeTestCase(LazyFailureReport failureReport) throws IOException, XMLStreamException {
+        writeIndentation(2);
+        xmlStreamWriter.writeStartElement("testcase");
+        writeAttribute("name", failureReport.header());
+        writeAttribute("className", failureReport.clickableSource());
+        writeIndentation(3);
+        xmlStreamWriter.writeStartElement("failure");
+        writeAttribute("type", "ERROR");
+        XmlCharacters errorMessage = new XmlCharacters();
+        failureReport.writeErrorMessage(errorMessage);
+        errorMessage.flush(true);
+        xmlStreamWriter.writeEndElement();
+        writeIndentation(2);
+        xmlStreamWriter.writeEndElement();
+    }
+
+    private void writeAttribute(String name, String value) throws XMLStreamException {
+        xmlStreamWriter.writeAttribute(name, sanitize(value));
+    }
+
+    private void writeIndentation(int depth) throws XMLStreamException {
+        if (prettyPrint) {
+            xmlStreamWriter.writeCharacters("\n" + INDENTATION.repeat(depth));
+        }
+    }
+
+    /**
+     * Writes the characters appended to it as the text of the current element, dropping the ones that are not allowed
+     * in XML 1.0. A high surrogate ending a chunk is held until the next chunk, so that a surrogate pair split between
+     * two appends is not taken for two invalid characters.
+     */
+    private final class XmlCharacters implements Appendable {
+        private final StringBuilder buffer = new StringBuilder();
+
+        @Override
+        public Appendable append(CharSequence charSequence) throws IOException {
+            buffer.append(charSequence);
+            return flushIfFull();
+        }
+
+        @Override
+        public Appendable append(CharSequence charSequence, int start, int end) throws IOException {
+            buffer.append(charSequence, start, end);
+            return flushIfFull();
+        }
+
+        @Override
+        public Appendable append(char character) throws IOException {
+            buffer.append(character);
+            return flushIfFull();
+        }
+
+        private Appendable flushIfFull() throws IOException {
+            if (buffer.length() >= CHARACTERS_BUFFER_SIZE) {
+                flush(false);
+            }
+            return this;
+        }
+
+        void flush(boolean complete) throws IOException {
+            int length = buffer.length();
+            if (!complete && length > 0 && Character.isHighSurrogate(buffer.charAt(length - 1))) {
+                length--;
+            }
+            try {
+                xmlStreamWriter.writeCharacters(sanitize(buffer.substring(0, length)));
+            } catch (XMLStreamException e) {
+                throw new IOException("Unable to write the error message", e);
+            }
+            buffer.delete(0, length);
+        }
+    }
+
+    /**
+     * Estimates the number of bytes taken by the test case of a failure report, ignoring the escaping. Formats the
+     * error message of the report.
+     */
+    static long estimateSize(LazyFailureReport failureReport) {
+        return TEST_CASE_OVERHEAD
+                + getUtf8Length(failureReport.header())
+                + getUtf8Length(failureReport.clickableSource())
+                + getUtf8Length(failureReport.errorMessage());
+    }
+
+    private static long getUtf8Length(String value) {
+        long length = 0;
+        for (int index = 0; index < value.length(); index++) {
+            char character = value.charAt(index);
+            if (character < 0x80) {
+                length += 1;
+            } else if (character < 0x800 || Character.isSurrogate(character)) {
+                // a surrogate pair takes 4 bytes
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Drops the characters that are not allowed in XML 1.0, e.g. the escape character of colored logs. Only
+     * copies the value when it contains one.
+     */
+    static String sanitize(String value) {
+        int firstInvalid = findFirstInvalidCharacter(value, 0);
+        if (firstInvalid < 0) {
+            return value;
+        }
+        StringBuilder sanitized = new StringBuilder(value.length());
+        int start = 0;
+        while (firstInvalid >= 0) {
+            sanitized.append(value, start, firstInvalid);
+            start = firstInvalid + Character.charCount(value.codePointAt(firstInvalid));
+            firstInvalid = findFirstInvalidCharacter(value, start);
+        }
+        return sanitized.append(value, start, value.length()).toString();
+    }
+
+    private static int findFirstInvalidCharacter(String value, int fromIndex) {
+        int index = fromIndex;
+        while (index < value.length()) {
+            int codePoint = value.codePointAt(index);
+            if (!isValidXmlCharacter(codePoint)) {
+                return index;
+            }
+            index += Character.charCount(codePoint);
+        }
+        return -1;
+    }
+
+    private static boolean isValidXmlCharacter(int codePoint) {
+        // see: https://www.w3.org/TR/xml/#charsets
+        return codePoint == '\t'
+                || codePoint == '\n'
+                || codePoint == '\r'
+                || (codePoint >= 0x20 && codePoint <= 0xD7FF)
+                || (codePoint >= 0xE000 && codePoint <= 0xFFFD)
+                || (codePoint >= 0x10000 && codePoint <= 0x10FFFF);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.junit;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Closer;
+import com.palantir.gradle.failurereports.common.FailureReport;
+import com.palantir.gradle.failurereports.common.LazyFailureReport;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams failure reports to a JUNIT XML report like the {@link JunitXmlWriter}, splitting it into shards following
+ * a {@link JunitReportSharding}. A shard file is completed as soon as the next shard is started. When writing the
+ * failure reports fails, or the caller {@link #abort() aborts}, the open shards are discarded.
+ */
+public final class ShardedJunitXmlWriter implements Closeable {
+
+    private final File junitXmlFile;
+    private final boolean prettyPrint;
+    private final JunitReportSharding sharding;
+    private final JunitReportShards junitReportShards;
+    private final Map<Path, JunitXmlWriter> openShardWriters = new HashMap<>();
+    // set once a write failed, so that closing the writer discards the open shards
+    private boolean failed = false;
+
+    private ShardedJunitXmlWriter(File junitXmlFile, boolean prettyPrint, JunitReportSharding sharding) {
+        this.junitXmlFile = junitXmlFile;
+        this.prettyPrint = prettyPrint;
+        this.sharding = sharding;
+        this.junitReportShards = new JunitReportShards(junitXmlFile, sharding);
+    }
+
+    /**
+     * Replaces the junitXmlFile, or the shards of a previous build, with an empty report ready to be appended to.
+     */
+    public static ShardedJunitXmlWriter create(File junitXmlFile, boolean prettyPrint, JunitReportSharding sharding)
+            throws IOException {
+        ShardedJunitXmlWriter shardedJunitXmlWriter = new ShardedJunitXmlWriter(junitXmlFile, prettyPrint, sharding);
+        if (sharding.isSharded()) {
+            shardedJunitXmlWriter.junitReportShards.deleteStaleShards();
+        } else {
+            shardedJunitXmlWriter.openShardWriters.put(
+                    junitXmlFile.toPath(), JunitXmlWriter.create(junitXmlFile, prettyPrint));
+        }
+        return shardedJunitXmlWriter;
+    }
+
+    /**
+     * Appends one test suite per clickable source of the failureReports, in order, and flushes them to the files.
+     */
+    public synchronized void writeFailureReports(List<FailureReport> failureReports) throws IOException {
+        failed = true;
+        if (sharding.isSharded()) {
+            writeShardedFailureReports(Lists.transform(failureReports, LazyFailureReport::of));
+        } else {
+            openShardWriters.get(junitXmlFile.toPath()).writeFailureReports(failureReports);
+        }
+        failed = false;
+    }
+
+    private void writeShardedFailureReports(List<LazyFailureReport> failureReports) throws IOException {
+        for (Map.Entry<Path, Map<String, List<LazyFailureReport>>> testSuitesOfShard :
+                junitReportShards.assign(failureReports).entrySet()) {
+            JunitXmlWriter junitXmlWriter = openShardWriters.get(testSuitesOfShard.getKey());
+            if (junitXmlWriter == null) {
+                junitXmlWriter = JunitXmlWriter.create(testSuitesOfShard.getKey().toFile(), prettyPrint);
+                openShardWriters.put(testSuitesOfShard.getKey(), junitXmlWriter);
+            }
+            for (Map.Entry<String, List<LazyFailureReport>> failureReportsBySource :
+                    testSuitesOfShard.getValue().entrySet()) {
+                junitXmlWriter.writeLazyTestSuite(failureReportsBySource.getKey(), failureReportsBySource.getValue());
+            }
+            junitXmlWriter.flush();
+        }
+        for (Path shardFile : new ArrayList<>(openShardWriters.keySet())) {
+            if (!junitReportShards.isCurrentShard(shardFile)) {
+                openShardWriters.remove(shardFile).close();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (failed) {
+            abort();
+            return;
+        }
+        Closer closer = Closer.create();
+        openShardWriters.values().forEach(closer::register);
+        openShardWriters.clear();
+        closer.close();
+    }
+
+    /**
+     * Discards the shards that are not completed yet.
+     */
+    public synchronized void abort() throws IOException {
+        Closer closer = Closer.create();
+        openShardWriters.values().forEach(junitXmlWriter -> closer.register(junitXmlWriter::abort));
+        openShardWriters.clear();
+        closer.close();
+    }
+}
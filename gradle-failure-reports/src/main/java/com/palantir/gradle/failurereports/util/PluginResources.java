@@ -19,17 +19,33 @@ package com.palantir.gradle.failurereports.util;
 import com.palantir.gradle.utils.environmentvariables.EnvironmentVariables;
 import java.util.Optional;
 import org.gradle.api.Project;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.ProviderFactory;
 
 public final class PluginResources {
 
     private static final String CIRCLE_NODE_INDEX = "CIRCLE_NODE_INDEX";
     private static final Integer INITIAL_CIRCLE_NODE = 0;
+    private static final String REPORT_ALL_CIRCLE_NODES_PROPERTY = "com.palantir.failure-reports.reportAllCircleNodes";
 
+    /**
+     * Whether the failures of the build are reported, decided by the root plugin.
+     */
     public static boolean shouldApplyPlugin(Project project) {
-        EnvironmentVariables environmentVariables = project.getObjects().newInstance(EnvironmentVariables.class);
+        return shouldApplyPlugin(project.getObjects(), project.getProviders());
+    }
+
+    /**
+     * Whether the failures of the build are reported, decided by the settings plugin before the projects are loaded.
+     */
+    public static boolean shouldApplyPlugin(ObjectFactory objectFactory, ProviderFactory providerFactory) {
+        EnvironmentVariables environmentVariables = objectFactory.newInstance(EnvironmentVariables.class);
         if (!environmentVariables.isCi().get()) {
             return false;
         }
+        if (reportsAllCircleNodes(providerFactory)) {
+            return true;
+        }
         return maybeGetCircleNode(environmentVariables)
                 // when parallelism is configured, we only run on the first node.
                 .map(circleNode -> circleNode.equals(INITIAL_CIRCLE_NODE))
@@ -37,6 +53,29 @@ public final class PluginResources {
                 .orElse(true);
     }
 
+    /**
+     * Whether every node of a parallel CircleCI job reports its failures, to its own node suffixed reports, instead
+     * of only the first node. Opted into with the {@value #REPORT_ALL_CIRCLE_NODES_PROPERTY} gradle property, as the
+     * extension is not configured yet when deciding whether to apply the plugin.
+     */
+    public static boolean reportsAllCircleNodes(Project project) {
+        return reportsAllCircleNodes(project.getProviders());
+    }
+
+    private static boolean reportsAllCircleNodes(ProviderFactory providerFactory) {
+        return providerFactory
+                .gradleProperty(REPORT_ALL_CIRCLE_NODES_PROPERTY)
+                .map(Boolean::parseBoolean)
+                .getOrElse(false);
+    }
+
+    /**
+     * The index of the CircleCI node running the build, if any.
+     */
+    public static Optional<Integer> maybeGetCircleNode(Project project) {
+        return maybeGetCircleNode(project.getObjects().newInstance(EnvironmentVariables.class));
+    }
+
     private static Optional<Integer> maybeGetCircleNode(EnvironmentVariables environmentVariables) {
         return Optional.ofNullable(environmentVariables
                         .envVarOrFromTestingProperty(CIRCLE_NODE_INDEX)
@@ -39,6 +39,7 @@ public final class CheckedInExpectedReports {
     private static final Path TEST_RESOURCES_PATH = Paths.get("src/test/resources/");
     private static final String PROJECT_DIR_PLACEHOLDER = "_PROJECT_DIR";
     private static final String OTHER_STACK_FRAMES_REGEX = "(?m)^\\sat (?!com\\.palantir\\.).*\n";
+    private static final String ELIDED_STACK_FRAMES_REGEX = "(?m)^\\t+\\.\\.\\. \\d+ frames .*\n";
     private static final String STACKFRAME_MORE_REGEX = "... \\d+ more";
 
     /**
@@ -87,6 +88,7 @@ public final class CheckedInExpectedReports {
 
     private static String maybeRedactStacktrace(String report) {
         return report.replaceAll(OTHER_STACK_FRAMES_REGEX, "")
+                .replaceAll(ELIDED_STACK_FRAMES_REGEX, "")
                 // the number of stacktrace frames might differ between local runs and CI runs
                 .replaceAll(STACKFRAME_MORE_REGEX, "... PLACEHOLDER_NUMBER more");
     }
@@ -19,13 +19,15 @@ package com.palantir.gradle.failurereports
 import nebula.test.IntegrationSpec
 import nebula.test.functional.ExecutionResult
 import org.assertj.core.util.Throwables
+import org.gradle.testkit.runner.BuildResult
+import org.gradle.testkit.runner.GradleRunner
 
 import java.nio.file.Path
 
 class FailureReportsProjectsPluginIntegrationSpec extends IntegrationSpec {
 
     public static final List<String> GRADLE_VERSIONS =
-            List.of("7.6", "8.6");
+            List.of("7.6", "8.6", "8.8");
 
     def '#gradleVersionNumber: javaCompile error is reported'() {
         setup:
@@ -66,6 +68,147 @@ class FailureReportsProjectsPluginIntegrationSpec extends IntegrationSpec {
         gradleVersionNumber << GRADLE_VERSIONS
     }
 
+    def '#gradleVersionNumber: javaCompile error is reported from structured diagnostics'() {
+        setup:
+        gradleVersion = gradleVersionNumber
+        // language=gradle
+        buildFile << '''
+            apply plugin: 'com.palantir.failure-reports'
+
+            failureReports {
+                structuredCompileDiagnostics = true
+            }
+        '''.stripIndent(true)
+
+        buildFile << setDefaultReportsOutputFiles(gradleVersionNumber)
+
+        def subProjectDir = addSubproject("myProject", '''
+            apply plugin: 'java'
+
+            tasks.withType(JavaCompile).configureEach {
+                // the exports needed by the javac plugin are only added to forked compilers
+                options.fork = true
+            }
+        '''.stripIndent(true))
+        // language=java
+        writeJavaSourceFile('''
+            package app;
+
+            public class ClassA {
+                public static void main() {
+                    return 0
+                }
+            }
+        '''.stripIndent(true), subProjectDir)
+
+        enableTestCiRun()
+
+        when:
+        ExecutionResult result = runTasksWithFailure('compileJava')
+
+        then:
+        result.standardError.contains('error: \';\' expected')
+        CheckedInExpectedReports.checkOrUpdateFor(projectDir, "javaCompile", getDefaultOutputFile(gradleVersionNumber))
+
+        where:
+        gradleVersionNumber << GRADLE_VERSIONS
+    }
+
+    def '#gradleVersionNumber: javaCompile error is parsed from the output when the daemon does not export javac'() {
+        setup:
+        gradleVersion = gradleVersionNumber
+        // language=gradle
+        buildFile << '''
+            apply plugin: 'com.palantir.failure-reports'
+
+            failureReports {
+                structuredCompileDiagnostics = true
+            }
+        '''.stripIndent(true)
+
+        buildFile << setDefaultReportsOutputFiles(gradleVersionNumber)
+
+        def subProjectDir = addSubproject("myProject", '''
+            apply plugin: 'java'
+        '''.stripIndent(true))
+        // language=java
+        writeJavaSourceFile('''
+            package app;
+
+            public class ClassA {
+                public static void main() {
+                    return 0
+                }
+            }
+        '''.stripIndent(true), subProjectDir)
+
+        enableTestCiRun()
+
+        when:
+        ExecutionResult result = runTasksWithFailure('compileJava')
+
+        then:
+        result.standardOutput.contains('The structured compile diagnostics of :myProject:compileJava are disabled')
+        result.standardError.contains('error: \';\' expected')
+        !result.standardError.contains('Unable to install the FailureReports javac plugin')
+        CheckedInExpectedReports.checkOrUpdateFor(projectDir, "javaCompile", getDefaultOutputFile(gradleVersionNumber))
+
+        where:
+        gradleVersionNumber << GRADLE_VERSIONS
+    }
+
+    def '#gradleVersionNumber: structured diagnostics are recorded when the annotation processor path is set later'() {
+        setup:
+        gradleVersion = gradleVersionNumber
+        // language=gradle
+        buildFile << '''
+            apply plugin: 'com.palantir.failure-reports'
+
+            failureReports {
+                structuredCompileDiagnostics = true
+            }
+        '''.stripIndent(true)
+
+        buildFile << setDefaultReportsOutputFiles(gradleVersionNumber)
+
+        def subProjectDir = addSubproject("myProject", '''
+            apply plugin: 'java'
+
+            tasks.withType(JavaCompile).configureEach {
+                options.fork = true
+                options.annotationProcessorPath = configurations.annotationProcessor
+                doFirst {
+                    options.annotationProcessorPath.files.each { println "processor path: ${it}" }
+                }
+            }
+        '''.stripIndent(true))
+        // language=java
+        writeJavaSourceFile('''
+            package app;
+
+            public class ClassA {
+                public static void main() {
+                    return 0
+                }
+            }
+        '''.stripIndent(true), subProjectDir)
+
+        enableTestCiRun()
+
+        when:
+        ExecutionResult result = runTasksWithFailure('compileJava')
+
+        then:
+        def processorPath = result.standardOutput.readLines().findAll { it.startsWith('processor path: ') }
+        processorPath.any { it.contains('gradle-failure-reports-javac') }
+        // only the javac plugin is added, not the Gradle plugin and its dependencies
+        processorPath.every { it.contains('gradle-failure-reports-javac') }
+        CheckedInExpectedReports.checkOrUpdateFor(projectDir, "javaCompile", getDefaultOutputFile(gradleVersionNumber))
+
+        where:
+        gradleVersionNumber << GRADLE_VERSIONS
+    }
+
     def 'dummyTest: generates a failure report to make sure CircleCi renders it correctly'() {
         setup:
         // language=gradle
@@ -189,6 +332,153 @@ class FailureReportsProjectsPluginIntegrationSpec extends IntegrationSpec {
         gradleVersionNumber << GRADLE_VERSIONS
     }
 
+    def '#gradleVersionNumber: incremental compile reports are appended as the tasks finish'() {
+        setup:
+        gradleVersion = gradleVersionNumber
+        // language=gradle
+        buildFile << '''
+            apply plugin: 'com.palantir.failure-reports'
+
+            failureReports {
+                incrementalCompileReports = true
+            }
+        '''.stripIndent(true)
+
+        buildFile << setReportsOutputFiles(gradleVersionNumber)
+
+        def projectDir1 = addSubproject('myProject1', '''
+            apply plugin: 'java'
+        '''.stripIndent(true))
+
+        writeJavaSourceFile('''
+            package app;
+
+            public class ClassFoo {
+                public static void main() {
+                    return 0
+                }
+            }
+        '''.stripIndent(true), projectDir1)
+
+        def projectDir2 = addSubproject('myProject2', '''
+            apply plugin: 'java'
+        '''.stripIndent(true))
+
+        writeJavaSourceFile('''
+            package app;
+
+            public class ClassA extends AnotherClass {
+            }
+        '''.stripIndent(true), projectDir2)
+
+        enableTestCiRun()
+
+        when:
+        runTasksWithFailure('compileJava', '--continue', '--parallel')
+
+        then:
+        def compileReport = getCompileOutputFile(gradleVersionNumber).toFile().text
+        compileReport.startsWith('<testsuites>')
+        compileReport.trim().endsWith('</testsuites>')
+        compileReport.contains('<testsuite name="myProject1/src/main/java/app/ClassFoo.java:6" tests="1">')
+        compileReport.contains('<testsuite name="myProject2/src/main/java/app/ClassA.java:4" tests="1">')
+
+        where:
+        gradleVersionNumber << GRADLE_VERSIONS
+    }
+
+    def '8.6: failures are reported when the configuration cache is enabled'() {
+        setup:
+        gradleVersion = '8.6'
+        // language=gradle
+        buildFile << '''
+            apply plugin: 'com.palantir.failure-reports'
+        '''.stripIndent(true)
+
+        buildFile << setReportsOutputFiles(gradleVersion)
+
+        // language=gradle
+        def subProjectDir = addSubproject("myProject", '''
+            apply plugin: 'java'
+
+            tasks.register('throwGradleException') {
+                doLast {
+                    throw new GradleException("This is a normal gradle exception")
+                }
+            }
+        '''.stripIndent(true))
+        // language=java
+        writeJavaSourceFile('''
+            package app;
+
+            public class ClassA {
+                public static void main() {
+                    return 0
+                }
+            }
+        '''.stripIndent(true), subProjectDir)
+
+        enableTestCiRun()
+
+        when:
+        ExecutionResult storingRun = runTasksWithFailure(
+                'compileJava', 'throwGradleException', '--continue', '--configuration-cache')
+        ExecutionResult reusingRun = runTasksWithFailure(
+                'compileJava', 'throwGradleException', '--continue', '--configuration-cache')
+
+        then:
+        storingRun.standardOutput.contains('Configuration cache entry stored.')
+        reusingRun.standardOutput.contains('Configuration cache entry reused.')
+        getDefaultOutputFile(gradleVersion).toFile().text
+                .contains('[:myProject:throwGradleException] error: This is a normal gradle exception')
+        getCompileOutputFile(gradleVersion).toFile().text.contains('ClassA.java')
+    }
+
+    def '8.8: failures are reported with isolated projects'() {
+        setup:
+        // the settings plugin is resolved from the plugin classpath of the test kit, as the classpath injected by
+        // nebula configures every project from the root project, which isolated projects forbid
+        // language=gradle
+        settingsFile.text = '''
+            plugins {
+                id 'com.palantir.failure-reports-settings'
+            }
+        '''.stripIndent(true) + settingsFile.text
+
+        buildFile << setReportsOutputFiles('8.8')
+
+        // language=gradle
+        def subProjectDir = addSubproject("myProject", '''
+            apply plugin: 'java'
+        '''.stripIndent(true))
+        // language=java
+        writeJavaSourceFile('''
+            package app;
+
+            public class ClassA {
+                public static void main() {
+                    return 0
+                }
+            }
+        '''.stripIndent(true), subProjectDir)
+
+        enableTestCiRun()
+
+        when:
+        BuildResult result = GradleRunner.create()
+                .withGradleVersion('8.8')
+                .withProjectDir(projectDir)
+                .withPluginClasspath()
+                .withArguments('compileJava', '-Dorg.gradle.unsafe.isolated-projects=true')
+                .buildAndFail()
+
+        then:
+        result.output.contains('Compilation failed; see the compiler error output for details.')
+        !result.output.contains('problem was found')
+        !result.output.contains('problems were found')
+        getCompileOutputFile('8.8').toFile().text.contains('ClassA.java')
+    }
+
     def '#gradleVersionNumber: successful build does not report failures ' () {
         setup:
         gradleVersion = gradleVersionNumber
@@ -0,0 +1,129 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.gradle.api.Task;
+import org.gradle.api.tasks.TaskExecutionException;
+import org.gradle.execution.MultipleBuildFailures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BuildFailureReporterTest {
+
+    private static final Pattern TEST_CASE_FAILURE_NUMBER =
+            Pattern.compile("<testcase name=\"\\[[^\\]]+] error: Failure number (\\d+) of the build\"");
+
+    @TempDir
+    Path tempDir;
+
+    private final CheckstyleReportsService checkstyleReportsService = new CheckstyleReportsService() {
+        @Override
+        public Parameters getParameters() {
+            throw new UnsupportedOperationException("No checkstyle task fails in these tests");
+        }
+    };
+
+    @AfterEach
+    public void after() {
+        checkstyleReportsService.close();
+    }
+
+    @Test
+    public void reports_the_failed_tasks_in_the_order_of_the_build_failures() throws IOException {
+        List<Throwable> taskFailures = IntStream.range(0, 200)
+                .mapToObj(BuildFailureReporterTest::taskFailure)
+                .collect(Collectors.toList());
+
+        List<Integer> reportedFailureNumbers = report(new MultipleBuildFailures(taskFailures));
+
+        assertThat(reportedFailureNumbers)
+                .isEqualTo(IntStream.range(0, 200).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void reports_the_task_failures_of_several_build_failures_once() throws IOException {
+        Throwable taskFailure = taskFailure(1);
+        Throwable otherTaskFailure = taskFailure(2);
+
+        List<Integer> reportedFailureNumbers = report(new MultipleBuildFailures(List.of(
+                new RuntimeException("Dependency failed", taskFailure),
+                taskFailure,
+                new RuntimeException("Dependencies failed", new RuntimeException(taskFailure)),
+                otherTaskFailure,
+                new RuntimeException("Dependency failed", otherTaskFailure))));
+
+        assertThat(reportedFailureNumbers).isEqualTo(List.of(1, 2));
+    }
+
+    /**
+     * Returns the failure numbers found in the report, in order.
+     */
+    private List<Integer> report(Throwable buildThrowable) throws IOException {
+        File outputFile = tempDir.resolve("build-TEST.xml").toFile();
+        BuildFailureReporter.report(
+                BuildFailureReportSettings.builder()
+                        .outputFile(outputFile)
+                        .checkstyleReportsService(checkstyleReportsService)
+                        .metrics(new FailureReportsMetrics())
+                        .build(),
+                buildThrowable);
+        Matcher matcher =
+                TEST_CASE_FAILURE_NUMBER.matcher(Files.readString(outputFile.toPath(), StandardCharsets.UTF_8));
+        ImmutableList.Builder<Integer> failureNumbers = ImmutableList.builder();
+        while (matcher.find()) {
+            failureNumbers.add(Integer.parseInt(matcher.group(1)));
+        }
+        return failureNumbers.build();
+    }
+
+    private static TaskExecutionException taskFailure(int failureNumber) {
+        String taskPath = String.format(Locale.ROOT, ":project%d:check", failureNumber);
+        Task task = (Task) Proxy.newProxyInstance(
+                BuildFailureReporterTest.class.getClassLoader(), new Class<?>[] {Task.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getPath":
+                            return taskPath;
+                        case "toString":
+                            return "task '" + taskPath + "'";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        return new TaskExecutionException(
+                task, new RuntimeException(String.format(Locale.ROOT, "Failure number %d of the build", failureNumber)));
+    }
+}
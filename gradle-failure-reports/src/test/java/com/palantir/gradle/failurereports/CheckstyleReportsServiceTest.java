@@ -0,0 +1,143 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.gradle.failurereports;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.gradle.failurereports.common.FailureReport;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.gradle.tooling.events.task.TaskFailureResult;
+import org.gradle.tooling.events.task.TaskFinishEvent;
+import org.gradle.tooling.events.task.TaskOperationDescriptor;
+import org.gradle.tooling.events.task.TaskSuccessResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CheckstyleReportsServiceTest {
+
+    private static final String TASK_PATH = ":checkstyleMain";
+
+    @TempDir
+    Path tempDir;
+
+    private final CountingCheckstyleReportsService service = new CountingCheckstyleReportsService();
+
+    @AfterEach
+    public void after() {
+        service.close();
+    }
+
+    @Test
+    public void collects_the_reports_read_when_the_task_failed() throws IOException {
+        service.registerCheckstyleReport(TASK_PATH, writeCheckstyleReport());
+
+        service.onFinish(taskFinishEvent(TASK_PATH, TaskFailureResult.class));
+
+        assertThat(collectFailureReports())
+                .extracting(FailureReport::clickableSource)
+                .containsExactly("src/main/java/app/ClassA.java:3");
+        assertThat(service.reads).hasValue(1);
+    }
+
+    @Test
+    public void reads_the_reports_when_collected_if_the_task_did_not_fail() throws IOException {
+        service.registerCheckstyleReport(TASK_PATH, writeCheckstyleReport());
+
+        service.onFinish(taskFinishEvent(TASK_PATH, TaskSuccessResult.class));
+        assertThat(service.reads).hasValue(0);
+
+        assertThat(collectFailureReports()).hasSize(1);
+        assertThat(service.reads).hasValue(1);
+    }
+
+    @Test
+    public void stops_the_prefetch_threads_when_closed() throws IOException {
+        service.registerCheckstyleReport(TASK_PATH, writeCheckstyleReport());
+        service.onFinish(taskFinishEvent(TASK_PATH, TaskFailureResult.class));
+        assertThat(collectFailureReports()).hasSize(1);
+
+        service.close();
+
+        assertThat(Thread.getAllStackTraces().keySet())
+                .noneMatch(thread -> thread.getName().startsWith("failure-reports-checkstyle-"));
+    }
+
+    private List<FailureReport> collectFailureReports() {
+        try (Stream<FailureReport> failureReports = service.collectFailureReports(TASK_PATH)) {
+            return failureReports.collect(Collectors.toList());
+        }
+    }
+
+    private File writeCheckstyleReport() throws IOException {
+        Path checkstyleReportXml = tempDir.resolve("checkstyle/main.xml");
+        Files.createDirectories(checkstyleReportXml.getParent());
+        Files.writeString(
+                checkstyleReportXml,
+                "<checkstyle version=\"10.12.1\">\n"
+                        + "<file name=\"" + tempDir.resolve("src/main/java/app/ClassA.java") + "\">\n"
+                        + "<error line=\"3\" severity=\"error\" message=\"Missing a Javadoc comment.\""
+                        + " source=\"JavadocMethodCheck\"/>\n"
+                        + "</file>\n"
+                        + "</checkstyle>\n",
+                StandardCharsets.UTF_8);
+        return checkstyleReportXml.toFile();
+    }
+
+    private static TaskFinishEvent taskFinishEvent(String taskPath, Class<?> resultType) {
+        TaskOperationDescriptor descriptor = proxy(TaskOperationDescriptor.class, Map.of("getTaskPath", taskPath));
+        return proxy(
+                TaskFinishEvent.class,
+                Map.of("getDescriptor", descriptor, "getResult", proxy(resultType, Map.of())));
+    }
+
+    /**
+     * Implements the tooling API interfaces, which only declare getters.
+     */
+    private static <T> T proxy(Class<T> type, Map<String, Object> returnValues) {
+        return type.cast(Proxy.newProxyInstance(
+                CheckstyleReportsServiceTest.class.getClassLoader(),
+                new Class<?>[] {type},
+                (_proxy, method, _args) -> returnValues.get(method.getName())));
+    }
+
+    private final class CountingCheckstyleReportsService extends CheckstyleReportsService {
+        private final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        Stream<FailureReport> readFailureReports(String taskPath, File checkstyleReportXml) {
+            reads.incrementAndGet();
+            return CheckstyleFailureReporter.collect(tempDir, taskPath, checkstyleReportXml);
+        }
+
+        @Override
+        public Parameters getParameters() {
+            throw new UnsupportedOperationException("Only the root directory of the build is a parameter");
+        }
+    }
+}
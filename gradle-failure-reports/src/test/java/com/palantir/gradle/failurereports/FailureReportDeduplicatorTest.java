@@ -0,0 +1,157 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.gradle.failurereports.common.FailureReport;
+import com.palantir.gradle.failurereports.common.LazyFailureReport;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+public class FailureReportDeduplicatorTest {
+
+    @Test
+    public void merges_the_failures_that_only_differ_by_task_path() {
+        List<FailureReport> failureReports = FailureReportDeduplicator.deduplicate(List.of(
+                getVerifyLocksFailure(":foo:verifyLocks"),
+                getVerifyLocksFailure(":bar:verifyLocks"),
+                getVerifyLocksFailure(":baz:verifyLocks")));
+
+        assertThat(failureReports).hasSize(1);
+        assertThat(failureReports.get(0).header()).isEqualTo("[:foo:verifyLocks] error: Locks are out of date");
+        assertThat(failureReports.get(0).errorMessage())
+                .isEqualTo("Execution failed for task ':foo:verifyLocks'.\n\n"
+                        + "* The same failure was reported 2 more times, by:\n"
+                        + "\t:bar:verifyLocks\n"
+                        + "\t:baz:verifyLocks\n");
+    }
+
+    @Test
+    public void keeps_the_distinct_failures_in_order() {
+        FailureReport otherFailure = FailureReport.builder()
+                .header("[:bar:verifyLocks] error: Lock file is missing")
+                .clickableSource(":bar:verifyLocks")
+                .errorMessage("Execution failed for task ':bar:verifyLocks'.")
+                .taskPath(":bar:verifyLocks")
+                .build();
+        List<FailureReport> failureReports = List.of(
+                getVerifyLocksFailure(":foo:verifyLocks"), otherFailure, getVerifyLocksFailure(":baz:verifyLocks"));
+
+        List<FailureReport> deduplicatedFailureReports = FailureReportDeduplicator.deduplicate(failureReports);
+
+        assertThat(deduplicatedFailureReports).hasSize(2);
+        assertThat(deduplicatedFailureReports.get(0).clickableSource()).isEqualTo(":foo:verifyLocks");
+        assertThat(deduplicatedFailureReports.get(1)).isEqualTo(otherFailure);
+    }
+
+    @Test
+    public void does_not_merge_failures_of_different_sources() {
+        FailureReport classA = getCheckstyleFailure("ClassA.java:3");
+        FailureReport classB = getCheckstyleFailure("ClassB.java:3");
+
+        assertThat(FailureReportDeduplicator.deduplicate(List.of(classA, classB))).containsExactly(classA, classB);
+    }
+
+    @Test
+    public void does_not_merge_failures_of_task_paths_that_share_a_prefix() {
+        FailureReport compileJava = getDependencyFailure(":a:compileJava", ":a:compileJavaX");
+        FailureReport otherCompileJava = getDependencyFailure(":b:compileJava", ":b:compileJavaX");
+        FailureReport project = getDependencyFailure(":a:verifyLocks", ":c:a:verifyLocks");
+        FailureReport otherProject = getDependencyFailure(":b:verifyLocks", ":c:b:verifyLocks");
+
+        assertThat(FailureReportDeduplicator.deduplicate(
+                        List.of(compileJava, otherCompileJava, project, otherProject)))
+                .containsExactly(compileJava, otherCompileJava, project, otherProject);
+    }
+
+    @Test
+    public void merges_the_failures_mentioning_the_task_path_at_the_end_of_a_sentence() {
+        List<FailureReport> failureReports = FailureReportDeduplicator.deduplicate(List.of(
+                getDependencyFailure(":a:compileJava", ":c:compileJava"),
+                getDependencyFailure(":b:compileJava", ":c:compileJava")));
+
+        assertThat(failureReports).hasSize(1);
+        assertThat(failureReports.get(0).errorMessage()).endsWith("1 more time, by:\n\t:b:compileJava\n");
+    }
+
+    @Test
+    public void formats_the_lazy_reports_only_when_their_headers_collide() {
+        List<String> formattedTaskPaths = new ArrayList<>();
+        List<LazyFailureReport> failureReports = Stream.of(":foo:verifyLocks", ":bar:verifyLocks", ":baz:verifyLocks")
+                .map(taskPath -> LazyFailureReport.builder()
+                        .header("[" + taskPath + "] error: Locks are out of date")
+                        .clickableSource(taskPath)
+                        .errorMessageWriter(output -> {
+                            formattedTaskPaths.add(taskPath);
+                            output.append("Execution failed for task '" + taskPath + "'.\n");
+                        })
+                        .taskPath(taskPath)
+                        .build())
+                .collect(Collectors.toList());
+        LazyFailureReport otherFailure = LazyFailureReport.builder()
+                .header("[:bar:verifyLocks] error: Lock file is missing")
+                .clickableSource(":bar:verifyLocks")
+                .errorMessageWriter(_output -> {
+                    throw new AssertionError("Formatted a failure report that cannot be merged");
+                })
+                .build();
+
+        List<LazyFailureReport> deduplicatedFailureReports = FailureReportDeduplicator.deduplicateLazyReports(
+                List.of(failureReports.get(0), otherFailure, failureReports.get(1), failureReports.get(2)));
+
+        assertThat(deduplicatedFailureReports).hasSize(2);
+        assertThat(deduplicatedFailureReports.get(1)).isSameAs(otherFailure);
+        assertThat(formattedTaskPaths).containsExactly(":bar:verifyLocks", ":foo:verifyLocks", ":baz:verifyLocks");
+        assertThat(deduplicatedFailureReports.get(0).errorMessage())
+                .isEqualTo("Execution failed for task ':foo:verifyLocks'.\n\n"
+                        + "* The same failure was reported 2 more times, by:\n"
+                        + "\t:bar:verifyLocks\n"
+                        + "\t:baz:verifyLocks\n");
+    }
+
+    private static FailureReport getVerifyLocksFailure(String taskPath) {
+        return FailureReport.builder()
+                .header("[" + taskPath + "] error: Locks are out of date")
+                .clickableSource(taskPath)
+                .errorMessage("Execution failed for task '" + taskPath + "'.\n")
+                .taskPath(taskPath)
+                .build();
+    }
+
+    private static FailureReport getDependencyFailure(String taskPath, String dependencyTaskPath) {
+        return FailureReport.builder()
+                .header("[" + taskPath + "] error: Dependency failed")
+                .clickableSource(taskPath)
+                .errorMessage("Task " + taskPath + " depends on " + dependencyTaskPath + ", which failed in " + taskPath
+                        + ".\n")
+                .taskPath(taskPath)
+                .build();
+    }
+
+    private static FailureReport getCheckstyleFailure(String clickableSource) {
+        return FailureReport.builder()
+                .header("Utility classes should not have a public or default constructor.")
+                .clickableSource(clickableSource)
+                .errorMessage("Utility classes should not have a public or default constructor.")
+                .taskPath(":checkstyleMain")
+                .build();
+    }
+}
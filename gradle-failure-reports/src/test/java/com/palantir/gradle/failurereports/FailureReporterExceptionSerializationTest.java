@@ -0,0 +1,71 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.gradle.failurereports.exceptions.ExceptionWithLogs;
+import com.palantir.gradle.failurereports.exceptions.ExceptionWithSuggestion;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import org.junit.jupiter.api.Test;
+
+public class FailureReporterExceptionSerializationTest {
+
+    private static final String LOGS = "Compiling module 42\n".repeat(5000);
+
+    @Test
+    public void exception_with_logs_survives_serialization() throws IOException, ClassNotFoundException {
+        ExceptionWithLogs exception = new ExceptionWithLogs("failed", LOGS, new IllegalStateException("cause"));
+        byte[] serialized = serialize(exception);
+
+        ExceptionWithLogs deserialized = (ExceptionWithLogs) deserialize(serialized);
+
+        assertThat(deserialized.getTaskFailureReport(":task", deserialized))
+                .isEqualTo(exception.getTaskFailureReport(":task", exception));
+        // the logs are written gzipped
+        assertThat(serialized.length).isLessThan(LOGS.length() / 10);
+    }
+
+    @Test
+    public void exceptions_without_stack_trace_do_not_capture_it() throws IOException, ClassNotFoundException {
+        ExceptionWithLogs exceptionWithLogs = ExceptionWithLogs.withoutStackTrace("failed", LOGS);
+        ExceptionWithSuggestion exceptionWithSuggestion =
+                ExceptionWithSuggestion.withoutStackTrace("failed", "./gradlew --write-locks");
+
+        assertThat(exceptionWithLogs.getStackTrace()).isEmpty();
+        assertThat(exceptionWithSuggestion.getStackTrace()).isEmpty();
+        assertThat(deserialize(serialize(exceptionWithSuggestion)).getStackTrace()).isEmpty();
+    }
+
+    private static byte[] serialize(Throwable throwable) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(throwable);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Throwable deserialize(byte[] serialized) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return (Throwable) input.readObject();
+        }
+    }
+}
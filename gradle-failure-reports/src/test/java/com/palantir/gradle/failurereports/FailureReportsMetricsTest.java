@@ -0,0 +1,81 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.palantir.gradle.failurereports.compile.CompileErrorsAccumulator;
+import com.palantir.gradle.failurereports.compile.CompileErrorsBudget;
+import com.palantir.gradle.failurereports.compile.SourceRootsIndex;
+import com.palantir.gradle.failurereports.junit.JunitReportSharding;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FailureReportsMetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void writes_the_metrics_and_their_summary() throws IOException {
+        FailureReportsMetrics metrics = new FailureReportsMetrics();
+        SourceRootsIndex sourceRootsIndex = new SourceRootsIndex();
+        sourceRootsIndex.register(":compileJava", List.of(new File("/project/src/main/java")));
+        try (CompileErrorsBudget budget =
+                new CompileErrorsBudget(500, 1024 * 1024, 10_000, 1024 * 1024, tempDir.resolve("spill"))) {
+            CompileErrorsAccumulator accumulator =
+                    new CompileErrorsAccumulator(":compileJava", sourceRootsIndex, budget);
+            accumulator.onOutput("/project/src/main/java/Foo.java:3: error: cannot find symbol\n        Baz baz;\n");
+            accumulator.onOutput("/project/other/src/main/java/Bar.java:1: error: cannot find symbol\n1 error\n");
+            accumulator.finish();
+            metrics.recordCompileTask(":compileJava", accumulator.metrics());
+        }
+        metrics.recordCheckstyleReport(2, 3_000_000);
+        metrics.recordFailedTasks(3, 5_000_000);
+        File junitXmlFile = tempDir.resolve("build-TEST.xml").toFile();
+        Files.writeString(junitXmlFile.toPath(), "<testsuites/>", StandardCharsets.UTF_8);
+        metrics.recordReport(junitXmlFile, JunitReportSharding.none(), 4);
+
+        Path metricsFile = tempDir.resolve("build-metrics.json");
+        String summary = metrics.write(metricsFile);
+
+        JsonNode json = new ObjectMapper().readTree(metricsFile.toFile());
+        assertThat(json.at("/compile/tasks").asInt()).isEqualTo(1);
+        assertThat(json.at("/compile/linesInspected").asLong()).isEqualTo(4);
+        assertThat(json.at("/compile/matchedErrors").asInt()).isEqualTo(1);
+        assertThat(json.at("/compile/perTask/:compileJava/lines").asLong()).isEqualTo(4);
+        assertThat(json.at("/checkstyle/reports").asLong()).isEqualTo(1);
+        assertThat(json.at("/checkstyle/failures").asLong()).isEqualTo(2);
+        assertThat(json.at("/checkstyle/parseMicros").asLong()).isEqualTo(3_000);
+        assertThat(json.at("/build/failedTasks").asLong()).isEqualTo(3);
+        assertThat(json.at("/reports/build-TEST.xml/testCases").asLong()).isEqualTo(4);
+        assertThat(json.at("/reports/build-TEST.xml/bytes").asLong()).isEqualTo(13);
+        assertThat(summary)
+                .startsWith("Failure reports: 4 stderr lines inspected in ")
+                .contains("1 compile errors", "1 checkstyle reports parsed in 3 ms", "3 failed tasks collected in 5 ms")
+                .contains("13 bytes of reports written")
+                .doesNotContain("\n");
+    }
+}
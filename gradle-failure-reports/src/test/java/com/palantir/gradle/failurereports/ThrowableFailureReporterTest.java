@@ -19,6 +19,8 @@ package com.palantir.gradle.failurereports;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.palantir.gradle.failurereports.common.FailureReport;
+import com.palantir.gradle.failurereports.common.LazyFailureReport;
+import com.palantir.gradle.failurereports.common.StackTraceFormatter;
 import com.palantir.gradle.failurereports.exceptions.ExceptionWithLogs;
 import com.palantir.gradle.failurereports.exceptions.ExceptionWithSuggestion;
 import org.junit.jupiter.api.Test;
@@ -64,4 +66,18 @@ public class ThrowableFailureReporterTest {
         assertThat(report.clickableSource()).isEqualTo("taskPath");
         assertThat(report.errorMessage()).isEqualTo(EXCEPTION_MESSAGE + "\n" + OUTPUT + "\n");
     }
+
+    @Test
+    public void exception_with_logs_is_formatted_when_its_lazy_report_is_written() {
+        RuntimeException cause = new RuntimeException("cause");
+        ExceptionWithLogs exception = new ExceptionWithLogs(EXCEPTION_MESSAGE, OUTPUT, cause);
+        LazyFailureReport lazyReport =
+                ThrowableFailureReporter.getLazyFailureReport(exception, "taskPath", StackTraceFormatter.DEFAULT);
+        cause.setStackTrace(new StackTraceElement[0]);
+
+        // the stack trace of the cause is read when the error message is formatted, not when the report is created
+        assertThat(lazyReport.errorMessage()).doesNotContain("Caused by: java.lang.RuntimeException: cause\n\tat");
+        assertThat(lazyReport.toFailureReport())
+                .isEqualTo(ThrowableFailureReporter.getFailureReport(exception, "taskPath"));
+    }
 }
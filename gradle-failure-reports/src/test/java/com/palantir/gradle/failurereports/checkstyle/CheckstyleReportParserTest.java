@@ -0,0 +1,105 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.checkstyle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CheckstyleReportParserTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void reads_the_errors_of_the_files_with_violations() throws IOException {
+        File checkstyleReportXml = writeCheckstyleReport("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<checkstyle version=\"10.12.1\">\n"
+                + "<file name=\"/project/src/main/java/app/Clean.java\">\n"
+                + "</file>\n"
+                + "<file name=\"/project/src/main/java/app/ClassA.java\">\n"
+                + "<error line=\"3\" severity=\"error\" message=\"Utility classes should not have a public"
+                + " or default constructor.\" source=\"HideUtilityClassConstructorCheck\"/>\n"
+                + "<error line=\"5\" column=\"9\" severity=\"warning\" message=\"Use log.info(&quot;Message&quot;)"
+                + " &amp; not System.out\" source=\"RegexpSinglelineJava\"/>\n"
+                + "</file>\n"
+                + "<file name=\"/project/src/main/java/app/AlsoClean.java\"/>\n"
+                + "</checkstyle>\n");
+
+        List<CheckstyleError> checkstyleErrors;
+        try (Stream<CheckstyleError> errors = CheckstyleReportParser.readErrors(checkstyleReportXml)) {
+            checkstyleErrors = errors.collect(Collectors.toList());
+        }
+
+        assertThat(checkstyleErrors)
+                .containsExactly(
+                        CheckstyleError.builder()
+                                .fileName("/project/src/main/java/app/ClassA.java")
+                                .line(3)
+                                .severity("error")
+                                .message("Utility classes should not have a public or default constructor.")
+                                .build(),
+                        CheckstyleError.builder()
+                                .fileName("/project/src/main/java/app/ClassA.java")
+                                .line(5)
+                                .severity("warning")
+                                .message("Use log.info(\"Message\") & not System.out")
+                                .build());
+    }
+
+    @Test
+    public void reads_no_errors_from_a_report_without_violations() throws IOException {
+        File checkstyleReportXml = writeCheckstyleReport("<checkstyle version=\"10.12.1\">\n"
+                + "<file name=\"/project/src/main/java/app/Clean.java\">\n"
+                + "</file>\n"
+                + "</checkstyle>\n");
+
+        try (Stream<CheckstyleError> errors = CheckstyleReportParser.readErrors(checkstyleReportXml)) {
+            assertThat(errors.count()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void fails_on_a_truncated_report() throws IOException {
+        File checkstyleReportXml = writeCheckstyleReport("<checkstyle version=\"10.12.1\">\n"
+                + "<file name=\"/project/src/main/java/app/ClassA.java\">\n"
+                + "<error line=\"3\" severity=\"error\" message=\"Missing javadoc.\"/>\n"
+                + "<error line=\"4\" sev");
+
+        try (Stream<CheckstyleError> errors = CheckstyleReportParser.readErrors(checkstyleReportXml)) {
+            assertThatThrownBy(() -> errors.collect(Collectors.toList()))
+                    .isInstanceOf(UncheckedIOException.class)
+                    .hasMessageContaining(checkstyleReportXml.toString());
+        }
+    }
+
+    private File writeCheckstyleReport(String content) throws IOException {
+        Path checkstyleReportXml = tempDir.resolve("main.xml");
+        Files.writeString(checkstyleReportXml, content);
+        return checkstyleReportXml.toFile();
+    }
+}
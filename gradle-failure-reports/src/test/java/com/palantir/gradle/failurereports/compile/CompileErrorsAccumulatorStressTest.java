@@ -0,0 +1,223 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.compile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Replays the generated javac output of many compile tasks running in parallel, where, like in Gradle (see:
+ * https://github.com/gradle/gradle/issues/6068), the stderr listener of every task receives the output of all the
+ * running tasks, and checks that every error ends up attributed to the task that printed it, and only to that one.
+ * Like in Gradle, the accumulator of a task is created on the thread running the task, and the threads run several
+ * tasks one after the other.
+ */
+public class CompileErrorsAccumulatorStressTest {
+
+    private static final long[] SEEDS = {1L, 42L, 6068L};
+    private static final int TASKS = 32;
+    private static final int THREADS = 8;
+    private static final int ERRORS_PER_TASK = 100;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void attributes_every_error_to_exactly_one_task(TestReporter testReporter) throws Exception {
+        for (long seed : SEEDS) {
+            long lines = replay(seed);
+            testReporter.publishEntry("seed " + seed + " lines", String.valueOf(lines));
+        }
+    }
+
+    @Test
+    public void measures_the_lines_per_second(TestReporter testReporter) throws Exception {
+        long start = System.nanoTime();
+        long lines = replay(System.nanoTime());
+        long elapsedNanos = System.nanoTime() - start;
+        testReporter.publishEntry("linesPerSecond", String.valueOf(lines * 1_000_000_000L / elapsedNanos));
+    }
+
+    /**
+     * Returns how many lines were printed, times the number of listeners.
+     */
+    private long replay(long seed) throws Exception {
+        Random random = new Random(seed);
+        SourceRootsIndex sourceRootsIndex = new SourceRootsIndex();
+        List<SimulatedTask> tasks = new ArrayList<>();
+        for (int task = 0; task < TASKS; task++) {
+            SimulatedTask simulatedTask = SimulatedTask.generate(task, random);
+            sourceRootsIndex.register(simulatedTask.taskPath, List.of(new File(simulatedTask.sourceRoot)));
+            tasks.add(simulatedTask);
+        }
+        // a small in-memory budget so that part of the errors get spilled concurrently
+        try (CompileErrorsBudget budget = new CompileErrorsBudget(
+                ERRORS_PER_TASK, 1024 * 1024, TASKS * ERRORS_PER_TASK, 64 * 1024, tempDir.resolve("spill-" + seed))) {
+            AtomicReferenceArray<CompileErrorsAccumulator> accumulators = new AtomicReferenceArray<>(TASKS);
+
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> emitters = new ArrayList<>();
+                for (int task = 0; task < TASKS; task++) {
+                    SimulatedTask simulatedTask = tasks.get(task);
+                    int index = task;
+                    emitters.add(executor.submit(() -> {
+                        start.await();
+                        accumulators.set(
+                                index,
+                                new CompileErrorsAccumulator(simulatedTask.taskPath, sourceRootsIndex, budget));
+                        simulatedTask.emit(accumulators);
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> emitter : emitters) {
+                    emitter.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            Map<String, Integer> attributions = new HashMap<>();
+            for (int task = 0; task < TASKS; task++) {
+                List<String> errorTexts = accumulators.get(task).finish().stream()
+                        .map(CompileError::text)
+                        .collect(Collectors.toList());
+                assertThat(errorTexts)
+                        .as("errors of %s with seed %d", tasks.get(task).taskPath, seed)
+                        .containsExactlyElementsOf(tasks.get(task).expectedErrorTexts);
+                assertThat(accumulators.get(task).truncationReport()).isEmpty();
+                errorTexts.forEach(text -> attributions.merge(text, 1, Integer::sum));
+            }
+            assertThat(attributions).hasSize(TASKS * ERRORS_PER_TASK);
+            assertThat(attributions.values()).as("seed %d", seed).containsOnly(1);
+            return tasks.stream().mapToLong(task -> task.lines).sum() * TASKS;
+        }
+    }
+
+    private static final class SimulatedTask {
+        private final String taskPath;
+        private final String sourceRoot;
+        private final List<String> chunks;
+        private final List<String> expectedErrorTexts;
+        private final long lines;
+
+        private SimulatedTask(
+                String taskPath, String sourceRoot, List<String> chunks, List<String> expectedErrorTexts, long lines) {
+            this.taskPath = taskPath;
+            this.sourceRoot = sourceRoot;
+            this.chunks = chunks;
+            this.expectedErrorTexts = expectedErrorTexts;
+            this.lines = lines;
+        }
+
+        /**
+         * Prints the output from the current thread, to the listeners of all the tasks that started.
+         */
+        void emit(AtomicReferenceArray<CompileErrorsAccumulator> accumulators) {
+            for (int chunk = 0; chunk < chunks.size(); chunk++) {
+                for (int task = 0; task < accumulators.length(); task++) {
+                    CompileErrorsAccumulator accumulator = accumulators.get(task);
+                    if (accumulator != null) {
+                        accumulator.onOutput(chunks.get(chunk));
+                    }
+                }
+                if (chunk % 64 == 0) {
+                    Thread.yield();
+                }
+            }
+        }
+
+        /**
+         * Generates the javac output of a task with errors and warnings in its own sources, using CRLF line
+         * separators for some tasks, and cuts it in chunks at random: parts of lines, single lines and runs of lines.
+         */
+        static SimulatedTask generate(int task, Random random) {
+            // project1 and project10 share a prefix, so roots must be matched up to the separator
+            String sourceRoot = String.format("/repo/project%d/src/main/java", task);
+            String lineSeparator = random.nextInt(4) == 0 ? "\r\n" : "\n";
+            List<String> lines = new ArrayList<>();
+            List<String> expectedErrorTexts = new ArrayList<>();
+            for (int error = 0; error < ERRORS_PER_TASK; error++) {
+                String sourceFile = String.format("%s/com/example/Class%d.java", sourceRoot, error % 10);
+                if (random.nextInt(5) == 0) {
+                    lines.add(String.format(
+                            "%s:%d: warning: [deprecation] Old in com.example is deprecated", sourceFile, error));
+                    lines.add("        Old old = null;");
+                    lines.add("        ^");
+                }
+                List<String> errorLines = new ArrayList<>();
+                errorLines.add(String.format(
+                        "%s:%d: error: cannot find symbol Task%dError%d", sourceFile, error + 1, task, error));
+                int contextLines = random.nextInt(6);
+                for (int line = 0; line < contextLines; line++) {
+                    errorLines.add(
+                            String.format("        Missing%d missing = new Missing%d(); // %d", line, line, task));
+                }
+                lines.addAll(errorLines);
+                expectedErrorTexts.add(errorLines.stream().map(line -> line + "\n").collect(Collectors.joining()));
+                if (random.nextInt(20) == 0) {
+                    lines.add("Note: Some input files use unchecked or unsafe operations.");
+                }
+            }
+            lines.add(String.format("%d errors", ERRORS_PER_TASK));
+
+            String output = lines.stream().map(line -> line + lineSeparator).collect(Collectors.joining());
+            List<String> chunks = new ArrayList<>();
+            int start = 0;
+            while (start < output.length()) {
+                int end;
+                int kind = random.nextInt(10);
+                if (kind < 3) {
+                    end = start + 1 + random.nextInt(40);
+                } else {
+                    end = start;
+                    int lineCount = kind < 7 ? 1 : 2 + random.nextInt(4);
+                    for (int line = 0; line < lineCount && end < output.length(); line++) {
+                        end = output.indexOf('\n', end) + 1;
+                    }
+                }
+                end = Math.min(end, output.length());
+                chunks.add(output.substring(start, end));
+                start = end;
+            }
+            return new SimulatedTask(
+                    String.format(":project%d:compileJava", task),
+                    sourceRoot,
+                    chunks,
+                    expectedErrorTexts,
+                    lines.size());
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.compile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CompileErrorsAccumulatorTest {
+
+    private static final String COMPILE_ERROR = "/project/src/main/java/Foo.java:3: error: cannot find symbol\n";
+
+    @TempDir
+    Path tempDir;
+
+    private final SourceRootsIndex sourceRootsIndex = new SourceRootsIndex();
+    private CompileErrorsBudget compileErrorsBudget;
+
+    @BeforeEach
+    public void before() {
+        sourceRootsIndex.register(":compileJava", List.of(new File("/project/src/main/java")));
+        compileErrorsBudget = new CompileErrorsBudget(500, 1024 * 1024, 10_000, 1024, tempDir.resolve("spill"));
+    }
+
+    @AfterEach
+    public void after() throws IOException {
+        compileErrorsBudget.close();
+    }
+
+    @Test
+    public void does_not_mix_lines_printed_from_different_threads() throws InterruptedException {
+        sourceRootsIndex.register(":other:compileJava", List.of(new File("/project/other/src/main/java")));
+        CompileErrorsAccumulator accumulator = newAccumulator(compileErrorsBudget);
+
+        accumulator.onOutput("/project/src/main/java/Foo.java:3: error: ");
+        Thread otherTask = new Thread(() -> accumulator.onOutput("/project/other/src/main/java/Bar.java:1: err"));
+        otherTask.start();
+        otherTask.join();
+        accumulator.onOutput("cannot find symbol\n        Baz baz;\n");
+
+        List<CompileError> compileErrors = accumulator.finish();
+        assertThat(compileErrors).hasSize(1);
+        assertThat(compileErrors.get(0).message()).isEqualTo("error: cannot find symbol");
+        assertThat(compileErrors.get(0).text())
+                .isEqualTo("/project/src/main/java/Foo.java:3: error: cannot find symbol\n        Baz baz;\n");
+    }
+
+    @Test
+    public void finish_is_idempotent() {
+        CompileErrorsAccumulator accumulator = newAccumulator(compileErrorsBudget);
+
+        accumulator.onOutput("/project/src/main/java/Foo.java:3: error: cannot find symbol");
+
+        assertThat(accumulator.finish()).hasSize(1);
+        assertThat(accumulator.finish()).hasSize(1);
+    }
+
+    @Test
+    public void only_parses_the_output_printed_by_the_task() throws InterruptedException {
+        CompileErrorsAccumulator accumulator = newAccumulator(compileErrorsBudget);
+
+        accumulator.onOutput(COMPILE_ERROR);
+        Thread otherTask = new Thread(() -> accumulator.onOutput("Note: Some input files use unchecked operations.\n"));
+        otherTask.start();
+        otherTask.join();
+        accumulator.finish();
+        accumulator.onOutput("warning: late output\n");
+        accumulator.finish();
+
+        assertThat(accumulator.metrics().linesInspected()).isEqualTo(2);
+    }
+
+    @Test
+    public void follows_the_output_of_the_worker_process() throws InterruptedException {
+        sourceRootsIndex.register(":other:compileJava", List.of(new File("/project/other/src/main/java")));
+        CompileErrorsAccumulator accumulator = newAccumulator(compileErrorsBudget);
+
+        Thread otherTask = new Thread(() -> accumulator.onOutput("/project/other/src/main/java/Bar.java:1: error: x\n"));
+        otherTask.start();
+        otherTask.join();
+        Thread worker = new Thread(() -> {
+            accumulator.onOutput("Note: Some input files use unchecked operations.\n");
+            accumulator.onOutput(COMPILE_ERROR);
+            accumulator.onOutput("        Baz baz;\n");
+        });
+        worker.start();
+        worker.join();
+        accumulator.onOutput("/project/src/main/java/Foo.java:4: error: printed by another task\n");
+
+        List<CompileError> compileErrors = accumulator.finish();
+        assertThat(compileErrors).hasSize(1);
+        assertThat(compileErrors.get(0).text()).isEqualTo(COMPILE_ERROR + "        Baz baz;\n");
+    }
+
+    @Test
+    public void spills_the_errors_over_the_memory_budget() {
+        CompileErrorsAccumulator accumulator = newAccumulator(compileErrorsBudget);
+
+        for (int i = 0; i < 100; i++) {
+            accumulator.onOutput(COMPILE_ERROR);
+        }
+
+        List<CompileError> compileErrors = accumulator.finish();
+        assertThat(compileErrors).hasSize(100);
+        assertThat(compileErrors.get(99).text()).isEqualTo(COMPILE_ERROR);
+        assertThat(tempDir.resolve("spill")).exists();
+        assertThat(accumulator.truncationReport()).isEmpty();
+    }
+
+    @Test
+    public void keeps_the_errors_in_order_once_spilling() {
+        CompileErrorsAccumulator accumulator = newAccumulator(compileErrorsBudget);
+        String largeError = COMPILE_ERROR + "        Baz baz;\n".repeat(100);
+
+        accumulator.onOutput(largeError);
+        accumulator.onOutput(COMPILE_ERROR);
+        accumulator.onOutput(largeError);
+
+        assertThat(accumulator.finish())
+                .extracting(CompileError::text)
+                .containsExactly(largeError, COMPILE_ERROR, largeError);
+    }
+
+    @Test
+    public void drops_the_errors_that_cannot_be_spilled() throws IOException {
+        // a directory cannot be opened as the spill file
+        Path spillFile = Files.createDirectory(tempDir.resolve("spill-directory"));
+        try (CompileErrorsBudget failingBudget = new CompileErrorsBudget(500, 1024 * 1024, 10, 200, spillFile)) {
+            CompileErrorsAccumulator accumulator = newAccumulator(failingBudget);
+
+            for (int i = 0; i < 10; i++) {
+                accumulator.onOutput(COMPILE_ERROR);
+            }
+
+            assertThat(accumulator.finish()).hasSize(1);
+            assertThat(accumulator.truncationReport().get().header())
+                    .isEqualTo("[:compileJava] error: 9 more compile errors were not reported");
+            CompileErrorsMetrics metrics = accumulator.metrics();
+            assertThat(metrics.matchedErrors()).isEqualTo(10);
+            assertThat(metrics.droppedErrors()).isEqualTo(9);
+            assertThat(metrics.spilledErrors()).isEqualTo(0);
+            // the dropped errors do not count towards the limit of the build
+            for (int i = 0; i < 9; i++) {
+                assertThat(failingBudget.tryReserveError()).isTrue();
+            }
+            assertThat(failingBudget.tryReserveError()).isFalse();
+        }
+    }
+
+    @Test
+    public void counts_the_errors_over_the_limits() throws IOException {
+        try (CompileErrorsBudget smallBudget =
+                new CompileErrorsBudget(3, 1024 * 1024, 5, 1024 * 1024, tempDir.resolve("small"))) {
+            CompileErrorsAccumulator accumulator = newAccumulator(smallBudget);
+            CompileErrorsAccumulator otherAccumulator = newAccumulator(smallBudget);
+
+            for (int i = 0; i < 10; i++) {
+                accumulator.onOutput(COMPILE_ERROR);
+                otherAccumulator.onOutput(COMPILE_ERROR);
+            }
+
+            assertThat(accumulator.finish()).hasSize(3);
+            assertThat(otherAccumulator.finish()).hasSize(2);
+            assertThat(accumulator.truncationReport().get().header())
+                    .isEqualTo("[:compileJava] error: 7 more compile errors were not reported");
+            assertThat(otherAccumulator.truncationReport().get().header())
+                    .isEqualTo("[:compileJava] error: 8 more compile errors were not reported");
+        }
+    }
+
+    private CompileErrorsAccumulator newAccumulator(CompileErrorsBudget budget) {
+        return new CompileErrorsAccumulator(":compileJava", sourceRootsIndex, budget);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.compile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class JavacOutputParserTest {
+
+    private static final String JAVAC_OUTPUT = "/project/src/main/java/Foo.java:6: error: illegal start of expression\n"
+            + "        / wrong\n"
+            + "        ^\n"
+            + "/project/src/main/java/Foo.java:6: error: ';' expected\n"
+            + "        / wrong\n"
+            + "               ^\n"
+            + "2 errors\n";
+
+    private final List<CompileError> compileErrors = new ArrayList<>();
+    private final JavacOutputParser parser =
+            new JavacOutputParser(sourcePath -> sourcePath.startsWith("/project/"), compileErrors::add);
+
+    @Test
+    public void cuts_each_diagnostic_separately() {
+        parser.onOutput(JAVAC_OUTPUT);
+        parser.finish();
+
+        assertThat(compileErrors).hasSize(2);
+        assertThat(compileErrors.get(0).sourcePath()).isEqualTo("/project/src/main/java/Foo.java");
+        assertThat(compileErrors.get(0).lineNumber()).isEqualTo(6);
+        assertThat(compileErrors.get(0).message()).isEqualTo("error: illegal start of expression");
+        assertThat(compileErrors.get(0).text())
+                .isEqualTo("/project/src/main/java/Foo.java:6: error: illegal start of expression\n"
+                        + "        / wrong\n"
+                        + "        ^\n");
+        assertThat(compileErrors.get(1).message()).isEqualTo("error: ';' expected");
+    }
+
+    @Test
+    public void emits_diagnostic_as_soon_as_it_is_complete() {
+        parser.onOutput("/project/Foo.java:1: error: first\n  code\n");
+        assertThat(compileErrors).isEmpty();
+
+        parser.onOutput("1 error\n");
+        assertThat(compileErrors).hasSize(1);
+    }
+
+    @Test
+    public void handles_lines_split_across_chunks() {
+        for (int i = 0; i < JAVAC_OUTPUT.length(); i += 3) {
+            parser.onOutput(JAVAC_OUTPUT.substring(i, Math.min(i + 3, JAVAC_OUTPUT.length())));
+        }
+        parser.finish();
+
+        assertThat(compileErrors).hasSize(2);
+        assertThat(compileErrors.get(1).text())
+                .isEqualTo("/project/src/main/java/Foo.java:6: error: ';' expected\n"
+                        + "        / wrong\n"
+                        + "               ^\n");
+    }
+
+    @Test
+    public void handles_gradle_line_and_line_separator_chunks() {
+        for (String line : JAVAC_OUTPUT.split("\n")) {
+            parser.onOutput(line);
+            parser.onOutput("\r\n");
+        }
+        parser.finish();
+
+        assertThat(compileErrors)
+                .extracting(CompileError::message)
+                .containsExactly("error: illegal start of expression", "error: ';' expected");
+        assertThat(compileErrors.get(0).text()).doesNotContain("\r");
+    }
+
+    @Test
+    public void ignores_diagnostics_of_other_tasks() {
+        parser.onOutput("/other/Bar.java:3: error: cannot find symbol\n  Bar bar;\n  ^\n");
+        parser.onOutput("/project/Foo.java:4: error: cannot find symbol\n  Foo foo;\n  ^\n");
+        parser.onOutput("/other/Bar.java:5: error: not a statement\n  x;\n  ^\n");
+        parser.finish();
+
+        assertThat(compileErrors).hasSize(1);
+        assertThat(compileErrors.get(0).text())
+                .isEqualTo("/project/Foo.java:4: error: cannot find symbol\n  Foo foo;\n  ^\n");
+    }
+
+    @Test
+    public void warnings_and_notes_end_the_current_diagnostic() {
+        parser.onOutput("/project/Foo.java:4: error: cannot find symbol\n  Foo foo;\n  ^\n");
+        parser.onOutput("/project/Foo.java:8: warning: [deprecation] bar() in Foo has been deprecated\n  bar();\n");
+        parser.onOutput("/project/Foo.java:9: error: incompatible types\n  int x = \"\";\n");
+        parser.onOutput("Note: Some input files use unchecked or unsafe operations.\n");
+        parser.onOutput("2 errors\n1 warning\n");
+
+        assertThat(compileErrors)
+                .extracting(CompileError::text)
+                .containsExactly(
+                        "/project/Foo.java:4: error: cannot find symbol\n  Foo foo;\n  ^\n",
+                        "/project/Foo.java:9: error: incompatible types\n  int x = \"\";\n");
+    }
+
+    @Test
+    public void supports_source_paths_with_drive_letters() {
+        JavacOutputParser windowsParser = new JavacOutputParser(_sourcePath -> true, compileErrors::add);
+        windowsParser.onOutput("C:\\project\\Foo.java:12: error: ';' expected\n");
+        windowsParser.finish();
+
+        assertThat(compileErrors).hasSize(1);
+        assertThat(compileErrors.get(0).sourcePath()).isEqualTo("C:\\project\\Foo.java");
+        assertThat(compileErrors.get(0).lineNumber()).isEqualTo(12);
+    }
+}
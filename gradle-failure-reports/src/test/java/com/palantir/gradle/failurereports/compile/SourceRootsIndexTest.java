@@ -0,0 +1,81 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.compile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class SourceRootsIndexTest {
+
+    private final SourceRootsIndex index = new SourceRootsIndex();
+
+    @Test
+    public void matches_files_under_the_registered_roots() {
+        index.register(":compileJava", List.of(new File("/repo/project/src/main/java")));
+
+        assertThat(index.isCompiledBy("/repo/project/src/main/java/app/Foo.java", ":compileJava")).isTrue();
+        assertThat(index.isCompiledBy("/repo/project/src/main/java/app/Foo.java", ":compileTestJava")).isFalse();
+        assertThat(index.isCompiledBy("/repo/project/src/main/javaFoo.java", ":compileJava")).isFalse();
+        assertThat(index.isCompiledBy("/repo/Foo.java", ":compileJava")).isFalse();
+    }
+
+    @Test
+    public void distinguishes_sibling_roots_sharing_a_prefix() {
+        index.register(":compileJava", List.of(new File("/repo/src/main/java")));
+        index.register(":compileGeneratedJava", List.of(new File("/repo/src/main/java-generated")));
+
+        assertThat(index.isCompiledBy("/repo/src/main/java/Foo.java", ":compileJava")).isTrue();
+        assertThat(index.isCompiledBy("/repo/src/main/java/Foo.java", ":compileGeneratedJava")).isFalse();
+        assertThat(index.isCompiledBy("/repo/src/main/java-generated/Foo.java", ":compileGeneratedJava")).isTrue();
+        assertThat(index.isCompiledBy("/repo/src/main/java-generated/Foo.java", ":compileJava")).isFalse();
+    }
+
+    @Test
+    public void matches_enclosing_roots_of_nested_roots() {
+        index.register(":a:compileJava", List.of(new File("/repo/a/src/main/java")));
+        index.register(":compileJava", List.of(new File("/repo")));
+        index.register(":a:compileTestJava", List.of(new File("/repo/a/src/test/java")));
+
+        assertThat(index.isCompiledBy("/repo/a/src/main/java/Foo.java", ":a:compileJava")).isTrue();
+        assertThat(index.isCompiledBy("/repo/a/src/main/java/Foo.java", ":compileJava")).isTrue();
+        assertThat(index.isCompiledBy("/repo/a/src/main/resources/Foo.java", ":compileJava")).isTrue();
+        assertThat(index.isCompiledBy("/repo/a/src/main/resources/Foo.java", ":a:compileJava")).isFalse();
+        assertThat(index.isCompiledBy("/repo/a/src/test/java/FooTest.java", ":a:compileJava")).isFalse();
+    }
+
+    @Test
+    public void supports_roots_shared_by_several_tasks() {
+        index.register(":compileJava", List.of(new File("/repo/src/main/java")));
+        index.register(":compileJavaWithErrorProne", List.of(new File("/repo/src/main/java")));
+
+        assertThat(index.isCompiledBy("/repo/src/main/java/Foo.java", ":compileJava")).isTrue();
+        assertThat(index.isCompiledBy("/repo/src/main/java/Foo.java", ":compileJavaWithErrorProne")).isTrue();
+    }
+
+    @Test
+    public void merges_the_roots_of_a_task_registered_several_times() {
+        index.register(":compileJava", List.of(new File("/repo/src/main/java")));
+        index.register(":compileJava", List.of(new File("/repo/build/generated/sources/annotationProcessor")));
+
+        assertThat(index.isCompiledBy("/repo/src/main/java/Foo.java", ":compileJava")).isTrue();
+        assertThat(index.isCompiledBy("/repo/build/generated/sources/annotationProcessor/Foo.java", ":compileJava"))
+                .isTrue();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.junit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.gradle.failurereports.common.FailureReport;
+import com.palantir.gradle.failurereports.junit.TestSuites.TestSuite;
+import com.palantir.gradle.failurereports.util.XmlResources;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FailureReportJournalTest {
+
+    private static final FailureReport FOO_ERROR = FailureReport.builder()
+            .header("Foo.java:3: error: cannot find symbol")
+            .clickableSource("project/src/main/java/Foo.java:3")
+            .errorMessage("Foo.java:3: error: cannot find symbol\n    Bar<String> bar;\n    ^\n")
+            .taskPath(":project:compileJava")
+            .build();
+    private static final FailureReport BAR_ERROR = FailureReport.builder()
+            .header("Bar.java:1: error: \"quoted\"")
+            .clickableSource("project/src/main/java/Bar.java:1")
+            .errorMessage("output & \u001b[31mlogs\u001b[0m\r\n")
+            .build();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void writes_the_same_report_as_the_sharded_writer() throws IOException {
+        File expectedFile = tempDir.resolve("expected/build-TEST.xml").toFile();
+        try (ShardedJunitXmlWriter junitXmlWriter =
+                ShardedJunitXmlWriter.create(expectedFile, true, JunitReportSharding.none())) {
+            junitXmlWriter.writeFailureReports(List.of(FOO_ERROR, BAR_ERROR, FOO_ERROR));
+            junitXmlWriter.writeFailureReports(List.of(FOO_ERROR));
+        }
+
+        File junitXmlFile = tempDir.resolve("actual/build-TEST.xml").toFile();
+        FailureReportJournal failureReportJournal =
+                FailureReportJournal.open(junitXmlFile, true, JunitReportSharding.none());
+        failureReportJournal.append(List.of(FOO_ERROR, BAR_ERROR, FOO_ERROR));
+        failureReportJournal.append(List.of());
+        failureReportJournal.append(List.of(FOO_ERROR));
+        assertThat(junitXmlFile).doesNotExist();
+        failureReportJournal.complete();
+
+        assertThat(Files.readString(junitXmlFile.toPath())).isEqualTo(Files.readString(expectedFile.toPath()));
+        assertThat(FailureReportJournal.getJournalFile(junitXmlFile)).doesNotExist();
+    }
+
+    @Test
+    public void appends_the_test_suites_to_the_report_as_the_batches_are_appended() throws IOException {
+        File junitXmlFile = tempDir.resolve("build-TEST.xml").toFile();
+        Path temporaryFile = tempDir.resolve("build-TEST.xml.tmp");
+        FailureReportJournal failureReportJournal =
+                FailureReportJournal.open(junitXmlFile, false, JunitReportSharding.none());
+        failureReportJournal.append(List.of(FOO_ERROR));
+
+        assertThat(Files.readString(temporaryFile))
+                .contains("<testsuite name=\"" + FOO_ERROR.clickableSource() + "\" tests=\"1\">");
+        assertThat(junitXmlFile).doesNotExist();
+
+        failureReportJournal.append(List.of(BAR_ERROR));
+        failureReportJournal.complete();
+
+        assertThat(XmlResources.readXml(junitXmlFile, TestSuites.class).testSuite())
+                .extracting(TestSuite::name)
+                .containsExactly(FOO_ERROR.clickableSource(), BAR_ERROR.clickableSource());
+        assertThat(temporaryFile).doesNotExist();
+    }
+
+    @Test
+    public void recovers_the_journal_of_a_killed_build_to_a_separate_report() throws IOException {
+        File junitXmlFile = tempDir.resolve("build-TEST.xml").toFile();
+        FailureReportJournal failureReportJournal =
+                FailureReportJournal.open(junitXmlFile, false, JunitReportSharding.none());
+        failureReportJournal.append(List.of(FOO_ERROR));
+        failureReportJournal.append(List.of(BAR_ERROR));
+        failureReportJournal.close();
+        assertThat(tempDir.resolve("build-TEST.xml.tmp")).doesNotExist();
+        // the build got killed in the middle of the next report
+        Files.writeString(
+                FailureReportJournal.getJournalFile(junitXmlFile),
+                "{\"batch\":2,\"header\":\"Baz.java:1: error",
+                StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        assertThat(FailureReportJournal.recover(junitXmlFile, false, JunitReportSharding.none())).isTrue();
+
+        File recoveredReportFile = tempDir.resolve("build-recovered-TEST.xml").toFile();
+        assertThat(FailureReportJournal.getRecoveredReportFile(junitXmlFile)).isEqualTo(recoveredReportFile);
+        List<TestSuite> testSuites = XmlResources.readXml(recoveredReportFile, TestSuites.class).testSuite();
+        assertThat(testSuites)
+                .extracting(TestSuite::name)
+                .containsExactly(FOO_ERROR.clickableSource(), BAR_ERROR.clickableSource());
+        assertThat(testSuites.get(0).testcases().get(0).failure().value()).isEqualTo(FOO_ERROR.errorMessage());
+        assertThat(FailureReportJournal.getJournalFile(junitXmlFile)).doesNotExist();
+        assertThat(FailureReportJournal.recover(junitXmlFile, false, JunitReportSharding.none())).isFalse();
+    }
+
+    @Test
+    public void does_not_report_the_recovered_failures_as_the_ones_of_a_green_build() throws IOException {
+        File junitXmlFile = tempDir.resolve("build-TEST.xml").toFile();
+        writeKilledBuildJournal(junitXmlFile, FOO_ERROR);
+
+        // a green build only recovers the journal, and has nothing to report
+        FailureReportJournal.recover(junitXmlFile, false, JunitReportSharding.none());
+        JunitReporter.reportFailures(junitXmlFile, List.of(), false, JunitReportSharding.none());
+
+        assertThat(junitXmlFile).doesNotExist();
+        assertThat(XmlResources.readXml(FailureReportJournal.getRecoveredReportFile(junitXmlFile), TestSuites.class)
+                        .testSuite())
+                .extracting(TestSuite::name)
+                .containsExactly(FOO_ERROR.clickableSource());
+    }
+
+    @Test
+    public void keeps_the_recovered_failures_when_the_build_fails() throws IOException {
+        File junitXmlFile = tempDir.resolve("build-TEST.xml").toFile();
+        writeKilledBuildJournal(junitXmlFile, FOO_ERROR);
+
+        FailureReportJournal failureReportJournal =
+                FailureReportJournal.open(junitXmlFile, false, JunitReportSharding.none());
+        failureReportJournal.append(List.of(BAR_ERROR));
+        failureReportJournal.complete();
+
+        assertThat(XmlResources.readXml(junitXmlFile, TestSuites.class).testSuite())
+                .extracting(TestSuite::name)
+                .containsExactly(BAR_ERROR.clickableSource());
+        assertThat(XmlResources.readXml(FailureReportJournal.getRecoveredReportFile(junitXmlFile), TestSuites.class)
+                        .testSuite())
+                .extracting(TestSuite::name)
+                .containsExactly(FOO_ERROR.clickableSource());
+    }
+
+    private static void writeKilledBuildJournal(File junitXmlFile, FailureReport... failureReports)
+            throws IOException {
+        FailureReportJournal killedBuildJournal =
+                FailureReportJournal.open(junitXmlFile, false, JunitReportSharding.none());
+        killedBuildJournal.append(List.of(failureReports));
+        killedBuildJournal.close();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.junit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.gradle.failurereports.common.FailureReport;
+import com.palantir.gradle.failurereports.junit.TestSuites.TestSuite;
+import com.palantir.gradle.failurereports.util.XmlResources;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JunitReportMergerTest {
+
+    private static final FailureReport COMPILE_ERROR = FailureReport.builder()
+            .header("Foo.java:3: error: cannot find symbol")
+            .clickableSource("project/src/main/java/Foo.java:3")
+            .errorMessage("Foo.java:3: error: cannot find symbol\n    Bar<String> bar;\n    ^\n")
+            .build();
+    private static final FailureReport NODE_0_TEST_FAILURE = FailureReport.builder()
+            .header("[:project:test] FooTest > works FAILED")
+            .clickableSource(":project:test")
+            .errorMessage("expected: <1> but was: <0> & <2>")
+            .build();
+    private static final FailureReport NODE_1_TEST_FAILURE = FailureReport.builder()
+            .header("[:project:test] BarTest > works FAILED")
+            .clickableSource(":project:test")
+            .errorMessage("java.lang.NullPointerException")
+            .build();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void drops_the_failures_reported_by_several_nodes() throws IOException {
+        List<File> nodeReports = List.of(
+                writeNodeReport("build-node-0-TEST.xml", COMPILE_ERROR, NODE_0_TEST_FAILURE),
+                writeNodeReport("build-node-1-TEST.xml", COMPILE_ERROR, NODE_1_TEST_FAILURE),
+                writeNodeReport("build-node-2-TEST.xml", COMPILE_ERROR));
+        File mergedReport = tempDir.resolve("merged-TEST.xml").toFile();
+
+        JunitReportMerger junitReportMerger = new JunitReportMerger();
+        junitReportMerger.merge(nodeReports, mergedReport, true);
+
+        List<TestSuite> testSuites = XmlResources.readXml(mergedReport, TestSuites.class).testSuite();
+        assertThat(testSuites)
+                .extracting(TestSuite::name)
+                .containsExactly(COMPILE_ERROR.clickableSource(), ":project:test", ":project:test");
+        assertThat(testSuites.get(0).testcases().get(0).failure().value()).isEqualTo(COMPILE_ERROR.errorMessage());
+        assertThat(testSuites.get(1).testcases().get(0).failure().value())
+                .isEqualTo(NODE_0_TEST_FAILURE.errorMessage());
+        assertThat(junitReportMerger.getMergedTestCases()).isEqualTo(3);
+        assertThat(junitReportMerger.getDuplicateTestCases()).isEqualTo(2);
+    }
+
+    @Test
+    public void does_not_depend_on_the_order_of_the_node_reports() throws IOException {
+        File node0Report = writeNodeReport("build-node-0-TEST.xml", COMPILE_ERROR, NODE_0_TEST_FAILURE);
+        File node1Report = writeNodeReport("build-node-1-TEST.xml", NODE_1_TEST_FAILURE, COMPILE_ERROR);
+        File mergedReport = tempDir.resolve("merged-TEST.xml").toFile();
+        File reverseMergedReport = tempDir.resolve("reverse-merged-TEST.xml").toFile();
+
+        new JunitReportMerger().merge(List.of(node0Report, node1Report, mergedReport), mergedReport, false);
+        new JunitReportMerger().merge(List.of(node1Report, node0Report), reverseMergedReport, false);
+
+        assertThat(Files.readString(mergedReport.toPath())).isEqualTo(Files.readString(reverseMergedReport.toPath()));
+    }
+
+    private File writeNodeReport(String fileName, FailureReport... failureReports) throws IOException {
+        File nodeReport = tempDir.resolve("nodes").resolve(fileName).toFile();
+        try (JunitXmlWriter junitXmlWriter = JunitXmlWriter.create(nodeReport, true)) {
+            junitXmlWriter.writeFailureReports(List.of(failureReports));
+        }
+        return nodeReport;
+    }
+}
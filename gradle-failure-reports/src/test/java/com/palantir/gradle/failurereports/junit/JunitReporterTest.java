@@ -0,0 +1,186 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.junit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.gradle.failurereports.common.FailureReport;
+import com.palantir.gradle.failurereports.util.XmlResources;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JunitReporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void writes_a_single_file_when_not_sharded() throws IOException {
+        File junitXmlFile = tempDir.resolve("build-TEST.xml").toFile();
+        JunitReporter.reportFailures(
+                junitXmlFile, getFailureReports(5, ":compileJava"), true, JunitReportSharding.none());
+
+        assertThat(getTestCaseCount(junitXmlFile.toPath())).isEqualTo(5);
+        assertThat(tempDir.resolve("build-TEST")).doesNotExist();
+    }
+
+    @Test
+    public void splits_the_test_suites_over_shards_of_bounded_test_cases() throws IOException {
+        File junitXmlFile = tempDir.resolve("build-TEST.xml").toFile();
+        JunitReporter.reportFailures(
+                junitXmlFile,
+                getFailureReports(5, ":compileJava"),
+                true,
+                JunitReportSharding.builder().maxTestCasesPerShard(2).build());
+
+        assertThat(junitXmlFile).doesNotExist();
+        assertThat(getShardNames()).containsExactly("1-TEST.xml", "2-TEST.xml", "3-TEST.xml");
+        assertThat(getTestCaseCount(tempDir.resolve("build-TEST/1-TEST.xml"))).isEqualTo(2);
+        assertThat(getTestCaseCount(tempDir.resolve("build-TEST/2-TEST.xml"))).isEqualTo(2);
+        assertThat(getTestCaseCount(tempDir.resolve("build-TEST/3-TEST.xml"))).isEqualTo(1);
+    }
+
+    @Test
+    public void gives_its_own_shard_to_a_test_case_over_the_byte_budget() throws IOException {
+        File junitXmlFile = tempDir.resolve("build-TEST.xml").toFile();
+        FailureReport bigFailureReport = FailureReport.builder()
+                .header("big error")
+                .clickableSource(":compileJava")
+                .errorMessage("e".repeat(1000))
+                .build();
+        List<FailureReport> failureReports = Stream.concat(
+                        getFailureReports(2, ":compileJava").stream(), Stream.of(bigFailureReport))
+                .collect(Collectors.toList());
+        JunitReporter.reportFailures(
+                junitXmlFile,
+                failureReports,
+                false,
+                JunitReportSharding.builder().maxBytesPerShard(500).build());
+
+        assertThat(getShardNames()).containsExactly("1-TEST.xml", "2-TEST.xml");
+        assertThat(getTestCaseCount(tempDir.resolve("build-TEST/1-TEST.xml"))).isEqualTo(2);
+        assertThat(getTestCaseCount(tempDir.resolve("build-TEST/2-TEST.xml"))).isEqualTo(1);
+    }
+
+    @Test
+    public void writes_the_failures_of_every_project_to_separate_shards() throws IOException {
+        File junitXmlFile = tempDir.resolve("build-TEST.xml").toFile();
+        List<FailureReport> failureReports = Stream.of(
+                        getFailureReports(2, ":foo:bar:compileJava"),
+                        getFailureReports(1, ":checkstyleMain"),
+                        List.of(FailureReport.builder()
+                                .header("error")
+                                .clickableSource("build")
+                                .errorMessage("build failed")
+                                .build()))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        JunitReporter.reportFailures(
+                junitXmlFile,
+                failureReports,
+                true,
+                JunitReportSharding.builder().shardByProject(true).build());
+
+        assertThat(getShardNames())
+                .containsExactly("1-TEST.xml", "foo-bar-6061bde5-1-TEST.xml", "root-00000000-1-TEST.xml");
+        assertThat(getTestCaseCount(tempDir.resolve("build-TEST/foo-bar-6061bde5-1-TEST.xml"))).isEqualTo(2);
+    }
+
+    @Test
+    public void writes_the_failures_of_projects_with_similar_paths_to_separate_shards() throws IOException {
+        File junitXmlFile = tempDir.resolve("build-TEST.xml").toFile();
+        List<FailureReport> failureReports = Stream.of(
+                        getFailureReports(2, ":foo:bar:compileJava"), getFailureReports(1, ":foo-bar:compileJava"))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        JunitReporter.reportFailures(
+                junitXmlFile,
+                failureReports,
+                true,
+                JunitReportSharding.builder().shardByProject(true).build());
+
+        assertThat(getShardNames()).containsExactly("foo-bar-605bd512-1-TEST.xml", "foo-bar-6061bde5-1-TEST.xml");
+        assertThat(getTestCaseCount(tempDir.resolve("build-TEST/foo-bar-605bd512-1-TEST.xml"))).isEqualTo(1);
+        assertThat(getTestCaseCount(tempDir.resolve("build-TEST/foo-bar-6061bde5-1-TEST.xml"))).isEqualTo(2);
+    }
+
+    @Test
+    public void deletes_the_unsharded_report_of_a_previous_build_when_sharding() throws IOException {
+        File junitXmlFile = tempDir.resolve("build-TEST.xml").toFile();
+        JunitReporter.reportFailures(
+                junitXmlFile, getFailureReports(2, ":compileJava"), true, JunitReportSharding.none());
+
+        JunitReporter.reportFailures(
+                junitXmlFile,
+                getFailureReports(1, ":compileJava"),
+                true,
+                JunitReportSharding.builder().maxTestCasesPerShard(2).build());
+
+        assertThat(junitXmlFile).doesNotExist();
+        assertThat(getShardNames()).containsExactly("1-TEST.xml");
+    }
+
+    @Test
+    public void sharded_writer_completes_a_shard_when_starting_the_next_one() throws IOException {
+        File junitXmlFile = tempDir.resolve("build-TEST.xml").toFile();
+        Files.createDirectories(tempDir.resolve("build-TEST"));
+        Files.writeString(tempDir.resolve("build-TEST/9-TEST.xml"), "<testsuites/>");
+        try (ShardedJunitXmlWriter junitXmlWriter = ShardedJunitXmlWriter.create(
+                junitXmlFile,
+                true,
+                JunitReportSharding.builder().maxTestCasesPerShard(3).build())) {
+            junitXmlWriter.writeFailureReports(getFailureReports(4, ":compileJava"));
+
+            assertThat(getTestCaseCount(tempDir.resolve("build-TEST/1-TEST.xml"))).isEqualTo(3);
+            junitXmlWriter.writeFailureReports(getFailureReports(1, ":compileJava"));
+        }
+
+        assertThat(getShardNames()).containsExactly("1-TEST.xml", "2-TEST.xml");
+        assertThat(getTestCaseCount(tempDir.resolve("build-TEST/2-TEST.xml"))).isEqualTo(2);
+    }
+
+    private List<String> getShardNames() throws IOException {
+        try (Stream<Path> shards = Files.list(tempDir.resolve("build-TEST"))) {
+            return shards.map(shard -> shard.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static int getTestCaseCount(Path junitXmlFile) throws IOException {
+        return XmlResources.readXml(junitXmlFile.toFile(), TestSuites.class).testSuite().stream()
+                .mapToInt(testSuite -> testSuite.testcases().size())
+                .sum();
+    }
+
+    private static List<FailureReport> getFailureReports(int count, String taskPath) {
+        return IntStream.range(0, count)
+                .mapToObj(index -> FailureReport.builder()
+                        .header("Foo.java:" + index + ": error: cannot find symbol")
+                        .clickableSource("project/src/main/java/Foo.java")
+                        .errorMessage("cannot find symbol")
+                        .taskPath(taskPath)
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
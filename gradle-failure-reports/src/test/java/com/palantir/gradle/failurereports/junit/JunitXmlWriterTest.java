@@ -0,0 +1,161 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.junit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.palantir.gradle.failurereports.common.FailureReport;
+import com.palantir.gradle.failurereports.common.LazyFailureReport;
+import com.palantir.gradle.failurereports.junit.TestSuites.TestSuite;
+import com.palantir.gradle.failurereports.util.XmlResources;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JunitXmlWriterTest {
+
+    private static final FailureReport FOO_ERROR = FailureReport.builder()
+            .header("Foo.java:3: error: cannot find symbol")
+            .clickableSource("project/src/main/java/Foo.java:3")
+            .errorMessage("Foo.java:3: error: cannot find symbol\n    Bar<String> bar;\n    ^\n")
+            .build();
+    private static final FailureReport BAR_ERROR = FailureReport.builder()
+            .header("Bar.java:1: error: \u001b[31m<failed>\u001b[0m")
+            .clickableSource("project/src/main/java/Bar.java:1")
+            .errorMessage("output & \u0000logs \ud800\ud83d\ude00")
+            .build();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void writes_a_test_suite_per_clickable_source() throws IOException {
+        File junitXmlFile = tempDir.resolve("failure-reports/build-TEST.xml").toFile();
+        try (JunitXmlWriter junitXmlWriter = JunitXmlWriter.create(junitXmlFile, true)) {
+            junitXmlWriter.writeFailureReports(List.of(FOO_ERROR, BAR_ERROR));
+            junitXmlWriter.writeFailureReports(List.of(FOO_ERROR));
+        }
+
+        List<TestSuite> testSuites = XmlResources.readXml(junitXmlFile, TestSuites.class).testSuite();
+        assertThat(testSuites)
+                .extracting(TestSuite::name)
+                .containsExactly(
+                        "project/src/main/java/Foo.java:3",
+                        "project/src/main/java/Bar.java:1",
+                        "project/src/main/java/Foo.java:3");
+        assertThat(testSuites.get(0).testcases().get(0).failure().value()).isEqualTo(FOO_ERROR.errorMessage());
+    }
+
+    @Test
+    public void drops_invalid_xml_characters() throws IOException {
+        File junitXmlFile = tempDir.resolve("build-TEST.xml").toFile();
+        try (JunitXmlWriter junitXmlWriter = JunitXmlWriter.create(junitXmlFile, false)) {
+            junitXmlWriter.writeFailureReports(List.of(BAR_ERROR));
+        }
+
+        TestSuite.TestCase testCase = XmlResources.readXml(junitXmlFile, TestSuites.class)
+                .testSuite()
+                .get(0)
+                .testcases()
+                .get(0);
+        assertThat(testCase.name()).isEqualTo("Bar.java:1: error: [31m<failed>[0m");
+        assertThat(testCase.failure().value()).isEqualTo("output & logs \ud83d\ude00");
+        assertThat(Files.readString(junitXmlFile.toPath())).doesNotContain("\n");
+    }
+
+    @Test
+    public void streams_the_error_message_of_a_lazy_report() throws IOException {
+        // the surrogate pair straddles the first flush of the characters
+        String errorMessage = "a".repeat(8 * 1024 - 1) + BAR_ERROR.errorMessage() + "\u001b[0m";
+        FailureReport failureReport = FailureReport.builder()
+                .from(BAR_ERROR)
+                .errorMessage(errorMessage)
+                .build();
+        LazyFailureReport lazyFailureReport = LazyFailureReport.builder()
+                .from(LazyFailureReport.of(failureReport))
+                .errorMessageWriter(output -> {
+                    for (int i = 0; i < errorMessage.length(); i++) {
+                        output.append(errorMessage.charAt(i));
+                    }
+                })
+                .build();
+
+        File junitXmlFile = tempDir.resolve("build-TEST.xml").toFile();
+        try (JunitXmlWriter junitXmlWriter = JunitXmlWriter.create(junitXmlFile, true)) {
+            junitXmlWriter.writeLazyTestSuite("Bar", List.of(lazyFailureReport));
+        }
+        File expectedJunitXmlFile = tempDir.resolve("expected-TEST.xml").toFile();
+        try (JunitXmlWriter junitXmlWriter = JunitXmlWriter.create(expectedJunitXmlFile, true)) {
+            junitXmlWriter.writeTestSuite("Bar", List.of(failureReport));
+        }
+
+        assertThat(Files.readString(junitXmlFile.toPath()))
+                .isEqualTo(Files.readString(expectedJunitXmlFile.toPath()))
+                .contains("\ud83d\ude00")
+                .doesNotContain("\u001b");
+    }
+
+    @Test
+    public void replaces_the_report_only_once_completed() throws IOException {
+        File junitXmlFile = tempDir.resolve("build-TEST.xml").toFile();
+        Files.writeString(junitXmlFile.toPath(), "<testsuites/>");
+
+        try (JunitXmlWriter junitXmlWriter = JunitXmlWriter.create(junitXmlFile, false)) {
+            junitXmlWriter.writeFailureReports(List.of(FOO_ERROR));
+            assertThat(junitXmlFile).doesNotExist();
+        }
+
+        assertThat(XmlResources.readXml(junitXmlFile, TestSuites.class).testSuite()).hasSize(1);
+        assertThat(tempDir.resolve("build-TEST.xml.tmp")).doesNotExist();
+    }
+
+    @Test
+    public void discards_the_report_when_a_test_suite_cannot_be_written() throws IOException {
+        File junitXmlFile = tempDir.resolve("build-TEST.xml").toFile();
+        Files.writeString(junitXmlFile.toPath(), "<testsuites/>");
+
+        assertThatThrownBy(() -> {
+                    try (JunitXmlWriter junitXmlWriter = JunitXmlWriter.create(junitXmlFile, false)) {
+                        junitXmlWriter.writeFailureReports(List.of(FOO_ERROR));
+                        junitXmlWriter.writeTestSuite("broken", Arrays.asList(BAR_ERROR, null));
+                    }
+                })
+                .isInstanceOf(NullPointerException.class);
+
+        assertThat(junitXmlFile).doesNotExist();
+        assertThat(tempDir.resolve("build-TEST.xml.tmp")).doesNotExist();
+    }
+
+    @Test
+    public void discards_the_report_when_aborted() throws IOException {
+        File junitXmlFile = tempDir.resolve("build-TEST.xml").toFile();
+        JunitXmlWriter junitXmlWriter = JunitXmlWriter.create(junitXmlFile, false);
+        junitXmlWriter.writeFailureReports(List.of(FOO_ERROR));
+
+        junitXmlWriter.abort();
+        junitXmlWriter.close();
+
+        assertThat(junitXmlFile).doesNotExist();
+        assertThat(tempDir.resolve("build-TEST.xml.tmp")).doesNotExist();
+    }
+}
@@ -30,7 +30,8 @@ import org.immutables.value.Value.Default;
 
 /**
  * The minimal JUNIT XML format for failures that can be rendered in CircleCi in the `Test` section.
- * see: https://www.ibm.com/docs/en/developer-for-zos/14.1?topic=formats-junit-xml-format.
+ * see: https://www.ibm.com/docs/en/developer-for-zos/14.1?topic=formats-junit-xml-format. The tests read the written
+ * reports back with it, the reports themselves are streamed by the {@link JunitXmlWriter}.
  */
 @ImmutablesStyle
 @Value.Immutable
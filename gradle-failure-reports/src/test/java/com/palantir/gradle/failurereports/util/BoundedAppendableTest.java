@@ -0,0 +1,57 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.gradle.failurereports.common.BoundedAppendable;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+public class BoundedAppendableTest {
+
+    @Test
+    public void writes_everything_under_the_limit() throws IOException {
+        StringBuilder output = new StringBuilder();
+        BoundedAppendable appendable = new BoundedAppendable(output, 10);
+
+        appendable.append("hello").append(' ').append("world", 0, 4);
+
+        assertThat(output.toString()).isEqualTo("hello worl");
+        assertThat(appendable.isTruncated()).isFalse();
+    }
+
+    @Test
+    public void truncates_once_over_the_limit() throws IOException {
+        StringBuilder output = new StringBuilder();
+        BoundedAppendable appendable = new BoundedAppendable(output, 8);
+
+        appendable.append("hello").append(" world").append('!').append("more");
+
+        assertThat(output.toString()).isEqualTo("hello wo...[truncated]");
+        assertThat(appendable.isTruncated()).isTrue();
+    }
+
+    @Test
+    public void does_not_split_surrogate_pairs() throws IOException {
+        StringBuilder output = new StringBuilder();
+
+        new BoundedAppendable(output, 3).append("ab\uD83D\uDE00c");
+
+        assertThat(output.toString()).isEqualTo("ab...[truncated]");
+    }
+}
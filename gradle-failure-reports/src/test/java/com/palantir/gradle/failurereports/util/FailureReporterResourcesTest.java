@@ -20,6 +20,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.palantir.gradle.failurereports.common.FailureReporterResources;
 import com.palantir.gradle.failurereports.common.ThrowableResources;
+import java.io.IOException;
 import java.nio.file.Path;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.gradle.api.GradleException;
@@ -56,6 +57,13 @@ public class FailureReporterResourcesTest {
                 .isEqualTo(String.format("[:compileJava] error: %s...", message1));
     }
 
+    @Test
+    public void canAppendHeader() throws IOException {
+        StringBuilder output = new StringBuilder("header: ");
+        FailureReporterResources.appendTaskErrorHeader(output, ":compileJava", "this is my error", "WARN");
+        assertThat(output.toString()).isEqualTo("header: [:compileJava] warn: this is my error");
+    }
+
     @Test
     public void canFormatThrowable() {
         assertThat(ThrowableResources.formatThrowableWithMessage(new GradleException("lock out of date")))
@@ -0,0 +1,106 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.base.Throwables;
+import com.palantir.gradle.failurereports.common.StackTraceFormatter;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class StackTraceFormatterTest {
+
+    private static final StackTraceElement TASK_ACTION = frame("com.palantir.MyTask", "run");
+    private static final StackTraceElement EXECUTER = frame("org.gradle.internal.execution.Executer", "execute");
+    private static final StackTraceElement REFLECTION = frame("java.lang.reflect.Method", "invoke");
+    private static final StackTraceElement WORKER = frame("org.gradle.internal.work.Worker", "run");
+    private static final StackTraceElement THREAD = frame("java.lang.Thread", "run");
+
+    @Test
+    public void formats_like_the_jdk_when_nothing_is_elided() {
+        RuntimeException cause = exception("inner", TASK_ACTION, EXECUTER, WORKER, THREAD);
+        RuntimeException exception = exception("outer", cause, EXECUTER, WORKER, THREAD);
+        exception.addSuppressed(exception("suppressed", REFLECTION, WORKER, THREAD));
+
+        assertThat(new StackTraceFormatter(List.of(), Integer.MAX_VALUE).format(exception))
+                .isEqualTo(Throwables.getStackTraceAsString(exception));
+    }
+
+    @Test
+    public void collapses_runs_of_elided_frames() {
+        RuntimeException cause = exception("inner", TASK_ACTION, REFLECTION, EXECUTER, WORKER, THREAD);
+        RuntimeException exception = exception("outer", cause, EXECUTER, EXECUTER, TASK_ACTION, WORKER, THREAD);
+
+        assertThat(new StackTraceFormatter(List.of("org.gradle.internal.", "java.lang.reflect."), 100)
+                        .format(exception))
+                .isEqualTo("java.lang.RuntimeException: outer\n"
+                        + "\t... 2 frames from org.gradle.internal\n"
+                        + "\tat com.palantir.MyTask.run(Source.java:1)\n"
+                        + "\tat org.gradle.internal.work.Worker.run(Source.java:1)\n"
+                        + "\tat java.lang.Thread.run(Source.java:1)\n"
+                        + "Caused by: java.lang.RuntimeException: inner\n"
+                        + "\tat com.palantir.MyTask.run(Source.java:1)\n"
+                        + "\t... 2 frames from java.lang.reflect, org.gradle.internal\n"
+                        + "\t... 2 more\n");
+    }
+
+    @Test
+    public void omits_the_frames_over_the_budget() {
+        RuntimeException cause = exception("inner", TASK_ACTION, REFLECTION, THREAD);
+        RuntimeException exception = exception("outer", cause, EXECUTER, WORKER, THREAD);
+
+        assertThat(new StackTraceFormatter(List.of(), 2).format(exception))
+                .isEqualTo("java.lang.RuntimeException: outer\n"
+                        + "\tat org.gradle.internal.execution.Executer.execute(Source.java:1)\n"
+                        + "\tat org.gradle.internal.work.Worker.run(Source.java:1)\n"
+                        + "\t... 1 frames omitted\n"
+                        + "Caused by: java.lang.RuntimeException: inner\n"
+                        + "\t... 2 frames omitted\n"
+                        + "\t... 1 more\n");
+    }
+
+    @Test
+    public void reports_circular_references() {
+        RuntimeException exception = exception("outer", THREAD);
+        RuntimeException cause = exception("inner", exception, THREAD);
+        exception.initCause(cause);
+
+        assertThat(StackTraceFormatter.DEFAULT.format(exception))
+                .isEqualTo("java.lang.RuntimeException: outer\n"
+                        + "\tat java.lang.Thread.run(Source.java:1)\n"
+                        + "Caused by: java.lang.RuntimeException: inner\n"
+                        + "\t... 1 more\n"
+                        + "Caused by: [CIRCULAR REFERENCE: java.lang.RuntimeException: outer]\n");
+    }
+
+    private static RuntimeException exception(String message, StackTraceElement... frames) {
+        RuntimeException exception = new RuntimeException(message);
+        exception.setStackTrace(frames);
+        return exception;
+    }
+
+    private static RuntimeException exception(String message, Throwable cause, StackTraceElement... frames) {
+        RuntimeException exception = new RuntimeException(message, cause);
+        exception.setStackTrace(frames);
+        return exception;
+    }
+
+    private static StackTraceElement frame(String className, String methodName) {
+        return new StackTraceElement(className, methodName, "Source.java", 1);
+    }
+}
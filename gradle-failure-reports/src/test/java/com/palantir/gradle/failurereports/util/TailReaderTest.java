@@ -0,0 +1,91 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.failurereports.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.gradle.failurereports.common.FailureReporterResources;
+import com.palantir.gradle.failurereports.common.TailOutputStream;
+import com.palantir.gradle.failurereports.common.TailReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TailReaderTest {
+
+    // the e with an acute accent of the second line is 2 bytes long
+    private static final String LOG = "first line\nsecond caf\u00e9\nlast line";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void reads_the_whole_file_under_the_budget() throws IOException {
+        Path logFile = Files.writeString(tempDir.resolve("log.txt"), LOG);
+
+        assertThat(TailReader.readTail(logFile, 1024)).isEqualTo(LOG);
+    }
+
+    @Test
+    public void reads_the_end_of_the_file() throws IOException {
+        Path logFile = Files.writeString(tempDir.resolve("log.txt"), LOG);
+
+        assertThat(TailReader.readTail(logFile, 9)).isEqualTo("...[truncated]last line");
+    }
+
+    @Test
+    public void does_not_cut_a_character() throws IOException {
+        Path logFile = Files.writeString(tempDir.resolve("log.txt"), LOG);
+
+        // starts with the second byte of the e with an acute accent
+        assertThat(TailReader.readTail(logFile, 11)).isEqualTo("...[truncated]\nlast line");
+        assertThat(TailReader.readTail(logFile, 12)).isEqualTo("...[truncated]\u00e9\nlast line");
+    }
+
+    @Test
+    public void reads_the_end_of_a_stream() throws IOException {
+        ByteArrayInputStream logStream = new ByteArrayInputStream(LOG.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(TailReader.readTail(logStream, 11)).isEqualTo("...[truncated]\nlast line");
+    }
+
+    @Test
+    public void keeps_the_last_bytes_written() {
+        TailOutputStream tailOutputStream = new TailOutputStream(9);
+        byte[] log = LOG.getBytes(StandardCharsets.UTF_8);
+        tailOutputStream.write(log, 0, 5);
+        assertThat(tailOutputStream.getTail()).isEqualTo("first");
+        assertThat(tailOutputStream.isTruncated()).isFalse();
+
+        tailOutputStream.write(log, 5, log.length - 6);
+        tailOutputStream.write(log[log.length - 1]);
+        assertThat(tailOutputStream.getTail()).isEqualTo("...[truncated]last line");
+        assertThat(tailOutputStream.isTruncated()).isTrue();
+    }
+
+    @Test
+    public void keeps_the_last_bytes_of_a_string() {
+        assertThat(FailureReporterResources.keepLastBytesSizeOutput(LOG, 1024)).isEqualTo(LOG);
+        assertThat(FailureReporterResources.keepLastBytesSizeOutput(LOG, 11)).isEqualTo("...[truncated]\nlast line");
+        assertThat(FailureReporterResources.keepLastBytesSizeOutput(LOG, 12))
+                .isEqualTo("...[truncated]\u00e9\nlast line");
+    }
+}
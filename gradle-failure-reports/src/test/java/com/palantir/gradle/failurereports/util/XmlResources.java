@@ -30,10 +30,6 @@ import javax.xml.stream.XMLInputFactory;
 public final class XmlResources {
     private static final ObjectMapper XML_MAPPER = createXmlMapper();
 
-    public static <T> void writeXml(File xmlFile, T testSuite) throws IOException {
-        XML_MAPPER.writerWithDefaultPrettyPrinter().writeValue(xmlFile, testSuite);
-    }
-
     public static <T> T readXml(File xmlFile, Class<T> cls) throws IOException {
         return XML_MAPPER.readValue(xmlFile, cls);
     }